@@ -0,0 +1,179 @@
+package de.evoila.cf.broker.benchmarks;
+
+import de.evoila.cf.broker.model.*;
+
+import java.util.*;
+
+/**
+ * Builds payloads of a given size which resemble what brokers see in production:
+ * plan schemas with typed and restricted properties and matching request parameters.
+ */
+public class BenchmarkData {
+
+    public static SchemaProperty schemaProperty(int index) {
+        SchemaProperty property = new SchemaProperty();
+        property.setDescription("Property " + index + " of the plan");
+
+        switch (index % 5) {
+            case 0:
+                property.setType("string");
+                property.setPattern("^[a-z][a-z0-9-]{2,31}$");
+                property.setMinLength(3);
+                property.setMaxLength(32);
+                break;
+            case 1:
+                property.setType("integer");
+                property.setMinimum(1);
+                property.setMaximum(65535);
+                break;
+            case 2:
+                property.setType("string");
+                property.setEnums(Arrays.asList("small", "medium", "large", "xlarge"));
+                break;
+            case 3:
+                property.setType("boolean");
+                break;
+            default:
+                SchemaProperty nested = new SchemaProperty();
+                nested.setType("integer");
+                nested.setMinimum(0);
+
+                Map<String, SchemaProperty> nestedProperties = new LinkedHashMap<>();
+                nestedProperties.put("max_connections", nested);
+                nestedProperties.put("timeout", nested);
+
+                property.setType("object");
+                property.setProperties(nestedProperties);
+        }
+        return property;
+    }
+
+    public static Object parameterValue(int index) {
+        switch (index % 5) {
+            case 0:
+                return "value-" + index;
+            case 1:
+                return 1024 + index;
+            case 2:
+                return "medium";
+            case 3:
+                return index % 2 == 0;
+            default:
+                Map<String, Object> nested = new LinkedHashMap<>();
+                nested.put("max_connections", 100);
+                nested.put("timeout", 30);
+                return nested;
+        }
+    }
+
+    public static SchemaParameters schemaParameters(int size) {
+        Map<String, SchemaProperty> properties = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++)
+            properties.put("property_" + i, schemaProperty(i));
+
+        SchemaParameters schemaParameters = new SchemaParameters("http://json-schema.org/draft-04/schema#", "object");
+        schemaParameters.setProperties(properties);
+        return schemaParameters;
+    }
+
+    public static Map<String, Object> parameters(int size) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++)
+            parameters.put("property_" + i, parameterValue(i));
+
+        return parameters;
+    }
+
+    public static Plan plan(String id, int size) {
+        SchemaServiceCreate create = new SchemaServiceCreate();
+        create.setParameters(schemaParameters(size));
+
+        SchemaServiceInstance serviceInstanceSchemas = new SchemaServiceInstance();
+        serviceInstanceSchemas.setCreate(create);
+
+        SchemaServiceBinding serviceBindingSchemas = new SchemaServiceBinding();
+        serviceBindingSchemas.setCreate(create);
+
+        Schemas schemas = new Schemas();
+        schemas.setServiceInstance(serviceInstanceSchemas);
+        schemas.setServiceBinding(serviceBindingSchemas);
+
+        Plan plan = new Plan(id, "plan-" + id, "Benchmark plan " + id, Platform.BOSH, false);
+        plan.setSchemas(schemas);
+        return plan;
+    }
+
+    /**
+     * @param size Number of services, each with three plans whose schemas have size properties
+     */
+    public static Catalog catalog(int size) {
+        List<ServiceDefinition> services = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            List<Plan> plans = new ArrayList<>();
+            for (int p = 0; p < 3; p++)
+                plans.add(plan(UUID.randomUUID().toString(), size));
+
+            services.add(new ServiceDefinition(UUID.randomUUID().toString(), "service-" + i,
+                    "Benchmark service " + i, true, plans, true));
+        }
+
+        Catalog catalog = new Catalog();
+        catalog.setServices(services);
+        return catalog;
+    }
+
+    public static ServiceInstance serviceInstance(int size) {
+        String id = UUID.randomUUID().toString();
+        ServiceInstance serviceInstance = new ServiceInstance(id, UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+                UUID.randomUUID().toString(), UUID.randomUUID().toString(), parameters(size), "https://dashboard.example.com/" + id);
+
+        List<ServerAddress> hosts = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, size / 10); i++)
+            hosts.add(new ServerAddress("node-" + i, "10.0.0." + (i % 255), 5432));
+        serviceInstance.setHosts(hosts);
+        return serviceInstance;
+    }
+
+    public static ServiceInstanceBinding serviceInstanceBinding(int size) {
+        Map<String, Object> credentials = new LinkedHashMap<>();
+        credentials.put("username", "user");
+        credentials.put("password", UUID.randomUUID().toString());
+        credentials.put("uri", "postgres://user@10.0.0.1:5432/database");
+        for (int i = 0; i < size; i++)
+            credentials.put("property_" + i, parameterValue(i));
+
+        return new ServiceInstanceBinding(UUID.randomUUID().toString(), UUID.randomUUID().toString(), credentials);
+    }
+
+    /**
+     * @param size Number of entries per level
+     * @param depth Number of nested levels below the root map
+     */
+    public static Map<String, Object> nestedMap(int size, int depth, String valuePrefix) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (depth > 0 && i % 2 == 0)
+                map.put("key_" + i, nestedMap(size, depth - 1, valuePrefix));
+            else if (i % 3 == 0)
+                map.put("key_" + i, new ArrayList<>(Arrays.asList(valuePrefix + i, valuePrefix + (i + 1))));
+            else
+                map.put("key_" + i, valuePrefix + i);
+        }
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> deepCopy(Map<String, Object> source) {
+        Map<String, Object> copy = new LinkedHashMap<>(source.size() * 2);
+        for (Map.Entry<String, Object> entry : source.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Map)
+                value = deepCopy((Map<String, Object>) value);
+            else if (value instanceof List)
+                value = new ArrayList<>((List<Object>) value);
+
+            copy.put(entry.getKey(), value);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,105 @@
+package de.evoila.cf.broker.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.evoila.cf.broker.model.Catalog;
+import de.evoila.cf.broker.model.SchemaProperty;
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.model.ServiceInstanceBinding;
+import de.evoila.cf.broker.util.ObjectMapperUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and deserialization of the models on the catalog, provision and bind
+ * paths with the shared mapper of {@link ObjectMapperUtils}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonRoundTripBenchmark {
+
+    @Param({"5", "25", "100"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+
+    private Catalog catalog;
+
+    private byte[] catalogJson;
+
+    private ServiceInstance serviceInstance;
+
+    private byte[] serviceInstanceJson;
+
+    private ServiceInstanceBinding serviceInstanceBinding;
+
+    private byte[] serviceInstanceBindingJson;
+
+    private SchemaProperty schemaProperty;
+
+    private byte[] schemaPropertyJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = ObjectMapperUtils.getObjectMapper();
+
+        catalog = BenchmarkData.catalog(size);
+        catalogJson = objectMapper.writeValueAsBytes(catalog);
+
+        serviceInstance = BenchmarkData.serviceInstance(size);
+        serviceInstanceJson = objectMapper.writeValueAsBytes(serviceInstance);
+
+        serviceInstanceBinding = BenchmarkData.serviceInstanceBinding(size);
+        serviceInstanceBindingJson = objectMapper.writeValueAsBytes(serviceInstanceBinding);
+
+        schemaProperty = new SchemaProperty();
+        schemaProperty.setType("object");
+        schemaProperty.setProperties(BenchmarkData.schemaParameters(size).getProperties());
+        schemaPropertyJson = objectMapper.writeValueAsBytes(schemaProperty);
+    }
+
+    @Benchmark
+    public byte[] serializeCatalog() throws IOException {
+        return objectMapper.writeValueAsBytes(catalog);
+    }
+
+    @Benchmark
+    public Catalog deserializeCatalog() throws IOException {
+        return objectMapper.readValue(catalogJson, Catalog.class);
+    }
+
+    @Benchmark
+    public byte[] serializeServiceInstance() throws IOException {
+        return objectMapper.writeValueAsBytes(serviceInstance);
+    }
+
+    @Benchmark
+    public ServiceInstance deserializeServiceInstance() throws IOException {
+        return objectMapper.readValue(serviceInstanceJson, ServiceInstance.class);
+    }
+
+    @Benchmark
+    public byte[] serializeServiceInstanceBinding() throws IOException {
+        return objectMapper.writeValueAsBytes(serviceInstanceBinding);
+    }
+
+    @Benchmark
+    public ServiceInstanceBinding deserializeServiceInstanceBinding() throws IOException {
+        return objectMapper.readValue(serviceInstanceBindingJson, ServiceInstanceBinding.class);
+    }
+
+    @Benchmark
+    public byte[] serializeSchemaProperty() throws IOException {
+        return objectMapper.writeValueAsBytes(schemaProperty);
+    }
+
+    @Benchmark
+    public SchemaProperty deserializeSchemaProperty() throws IOException {
+        return objectMapper.readValue(schemaPropertyJson, SchemaProperty.class);
+    }
+}
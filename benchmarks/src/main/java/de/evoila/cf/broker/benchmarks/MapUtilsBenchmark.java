@@ -0,0 +1,49 @@
+package de.evoila.cf.broker.benchmarks;
+
+import de.evoila.cf.broker.util.MapUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merging of nested parameter maps, as done when plan defaults are combined with request
+ * parameters. As {@link MapUtils#deepMerge(Map, Map)} modifies its target, every
+ * invocation merges into a fresh copy; {@link #copyOnly()} measures that copy alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapUtilsBenchmark {
+
+    @Param({"5", "25", "100"})
+    public int size;
+
+    @Param({"1", "3"})
+    public int depth;
+
+    private Map<String, Object> defaults;
+
+    private Map<String, Object> overrides;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        defaults = BenchmarkData.nestedMap(size, depth, "default-");
+        overrides = BenchmarkData.nestedMap(size, depth, "override-");
+    }
+
+    @Benchmark
+    public Map<String, Object> copyOnly() {
+        return BenchmarkData.deepCopy(defaults);
+    }
+
+    @Benchmark
+    public Map<String, Object> deepMerge() {
+        Map<String, Object> target = BenchmarkData.deepCopy(defaults);
+        MapUtils.deepMerge(target, overrides);
+        return target;
+    }
+}
@@ -0,0 +1,72 @@
+package de.evoila.cf.broker.benchmarks;
+
+import de.evoila.cf.broker.model.Plan;
+import de.evoila.cf.broker.model.SchemaProperty;
+import de.evoila.cf.broker.util.ParameterValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of instance create and binding create parameters against plan schemas
+ * with size properties of mixed types, including nested objects. Compares the compiled
+ * fast path with the generic JSON schema validator. Schemas with string patterns are
+ * always validated by the generic validator, so the fast path only differs from it
+ * without patterns. Schemas are compiled and cached before measuring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParameterValidatorBenchmark {
+
+    @Param({"5", "25", "100"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean fastPath;
+
+    @Param({"false", "true"})
+    public boolean patterns;
+
+    private Plan plan;
+
+    private Map<String, Object> parameters;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        plan = BenchmarkData.plan("benchmark-plan-" + size, size);
+        parameters = BenchmarkData.parameters(size);
+
+        if (!patterns) {
+            for (SchemaProperty property : plan.getSchemas().getServiceInstance().getCreate().getParameters()
+                    .getProperties().values())
+                property.setPattern(null);
+        }
+
+        ParameterValidator.setFastPathEnabled(fastPath);
+        ParameterValidator.clearSchemaCache();
+        validateServiceInstanceCreate();
+        validateServiceBindingCreate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ParameterValidator.setFastPathEnabled(true);
+    }
+
+    @Benchmark
+    public Map<String, Object> validateServiceInstanceCreate() throws Exception {
+        ParameterValidator.validateParameters(parameters, plan, ParameterValidator.Operation.SERVICE_INSTANCE_CREATE);
+        return parameters;
+    }
+
+    @Benchmark
+    public Map<String, Object> validateServiceBindingCreate() throws Exception {
+        ParameterValidator.validateParameters(parameters, plan, ParameterValidator.Operation.SERVICE_BINDING_CREATE);
+        return parameters;
+    }
+}
@@ -0,0 +1,135 @@
+package de.evoila.cf.broker.benchmarks;
+
+import de.evoila.cf.broker.model.JobProgress;
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.model.ServiceInstanceBinding;
+import de.evoila.cf.broker.repository.BindingRepository;
+import de.evoila.cf.broker.repository.JobRepository;
+import de.evoila.cf.broker.repository.ServiceInstanceRepository;
+import de.evoila.cf.broker.repository.contract.RepositoryFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.*;
+
+/**
+ * Measures throughput and latency of the repository operations on the request path.
+ * The backend is selected by the class name of its {@link RepositoryFactory}, the
+ * store is filled with {@code size} instances, each with one binding and one job.
+ *
+ * @see RepositoryBenchmarkRunner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    @Param("de.evoila.cf.broker.repository.inmemory.InMemoryRepositoryFactory")
+    public String repositoryFactory;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private RepositoryFactory factory;
+
+    private ServiceInstanceRepository serviceInstanceRepository;
+
+    private BindingRepository bindingRepository;
+
+    private JobRepository jobRepository;
+
+    private String[] serviceInstanceIds;
+
+    private String[] bindingIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        factory = (RepositoryFactory) Class.forName(repositoryFactory).newInstance();
+        serviceInstanceRepository = factory.serviceInstanceRepository();
+        bindingRepository = factory.bindingRepository();
+        jobRepository = factory.jobRepository();
+
+        serviceInstanceIds = new String[size];
+        bindingIds = new String[size];
+        for (int i = 0; i < size; i++) {
+            ServiceInstance serviceInstance = serviceInstance(randomId());
+            ServiceInstanceBinding binding = binding(randomId(), serviceInstance.getId());
+
+            serviceInstanceRepository.addServiceInstance(serviceInstance.getId(), serviceInstance);
+            bindingRepository.addInternalBinding(binding);
+            jobRepository.saveOrUpdateJobProgress(serviceInstance.getId(), JobProgress.SUCCESS);
+
+            serviceInstanceIds[i] = serviceInstance.getId();
+            bindingIds[i] = binding.getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        factory.close();
+    }
+
+    private String existingServiceInstanceId() {
+        return serviceInstanceIds[ThreadLocalRandom.current().nextInt(size)];
+    }
+
+    private String existingBindingId() {
+        return bindingIds[ThreadLocalRandom.current().nextInt(size)];
+    }
+
+    @Benchmark
+    public ServiceInstance getServiceInstance() {
+        return serviceInstanceRepository.getServiceInstance(existingServiceInstanceId());
+    }
+
+    @Benchmark
+    public boolean containsServiceInstanceHit() {
+        return serviceInstanceRepository.containsServiceInstanceId(existingServiceInstanceId());
+    }
+
+    @Benchmark
+    public boolean containsServiceInstanceMiss() {
+        return serviceInstanceRepository.containsServiceInstanceId(randomId());
+    }
+
+    @Benchmark
+    public void addServiceInstance() {
+        ServiceInstance serviceInstance = serviceInstance(randomId());
+        serviceInstanceRepository.addServiceInstance(serviceInstance.getId(), serviceInstance);
+    }
+
+    @Benchmark
+    public void updateServiceInstance() {
+        serviceInstanceRepository.updateServiceInstance(serviceInstance(existingServiceInstanceId()));
+    }
+
+    @Benchmark
+    public ServiceInstanceBinding findBinding() {
+        return bindingRepository.findOne(existingBindingId());
+    }
+
+    @Benchmark
+    public boolean containsBindingMiss() {
+        return bindingRepository.containsInternalBindingId(randomId());
+    }
+
+    @Benchmark
+    public void addBinding() {
+        bindingRepository.addInternalBinding(binding(randomId(), existingServiceInstanceId()));
+    }
+
+    @Benchmark
+    public JobProgress getJobProgress() {
+        return jobRepository.getJobProgress(existingServiceInstanceId());
+    }
+
+    @Benchmark
+    public void updateJobProgress() {
+        jobRepository.saveOrUpdateJobProgress(existingServiceInstanceId(), JobProgress.IN_PROGRESS);
+    }
+}
@@ -0,0 +1,38 @@
+package de.evoila.cf.broker.benchmarks;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the {@link RepositoryBenchmark} with several thread counts. Backends, data sizes and
+ * thread counts are passed as system properties, e.g.
+ * <pre>
+ * -Dbenchmark.repositoryFactory=com.example.MongoRepositoryFactory
+ * -Dbenchmark.size=1000,100000
+ * -Dbenchmark.threads=1,8
+ * </pre>
+ * The factory of a backend module has to be on the classpath next to target/benchmarks.jar.
+ * Each thread count is run as its own pass, as JMH only takes a single thread count per run.
+ */
+public class RepositoryBenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String repositoryFactory = System.getProperty("benchmark.repositoryFactory");
+        String size = System.getProperty("benchmark.size");
+
+        for (String threads : System.getProperty("benchmark.threads", "1").split(",")) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(RepositoryBenchmark.class.getSimpleName())
+                    .threads(Integer.parseInt(threads.trim()));
+
+            if (repositoryFactory != null)
+                options.param("repositoryFactory", repositoryFactory.split(","));
+            if (size != null)
+                options.param("size", size.split(","));
+
+            new Runner(options.build()).run();
+        }
+    }
+}
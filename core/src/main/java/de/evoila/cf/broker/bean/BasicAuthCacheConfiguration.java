@@ -0,0 +1,39 @@
+package de.evoila.cf.broker.bean;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache of verified basic auth credentials on <code>/v2/**</code>, so repeated calls of the
+ * Cloud Controller do not run a BCrypt comparison each.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "basic-auth.cache")
+public class BasicAuthCacheConfiguration {
+
+    /**
+     * Time in milliseconds verified credentials are cached, 0 disables the cache.
+     */
+    private long ttl = 300000;
+
+    /**
+     * Maximum number of cached credentials.
+     */
+    private long maximumSize = 100;
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+}
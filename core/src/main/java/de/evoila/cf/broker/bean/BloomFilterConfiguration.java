@@ -0,0 +1,46 @@
+package de.evoila.cf.broker.bean;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the in memory negative lookup index for service instance and binding ids.
+ * The index only sees writes of this broker, so it must not be enabled when several
+ * broker instances share one store.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "repository.bloom-filter")
+@ConditionalOnProperty(prefix = "repository.bloom-filter", name = "enabled", havingValue = "true")
+public class BloomFilterConfiguration {
+
+    private boolean enabled;
+
+    private int expectedInsertions = 100000;
+
+    private double fpp = 0.01;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public void setExpectedInsertions(int expectedInsertions) {
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public double getFpp() {
+        return fpp;
+    }
+
+    public void setFpp(double fpp) {
+        this.fpp = fpp;
+    }
+}
@@ -16,6 +16,13 @@ public class CredhubBean {
 
     private Oauth2 oauth2;
 
+    private Cache cache = new Cache();
+
+    /**
+     * Maximum number of concurrent CredHub calls of a single batch operation.
+     */
+    private int parallelism = 8;
+
     public String getUrl() {
         return url;
     }
@@ -32,6 +39,53 @@ public class CredhubBean {
         this.oauth2 = oauth2;
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public void setCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    public static class Cache {
+
+        /**
+         * Time in milliseconds a read credential is served from memory, 0 disables the cache.
+         * Disabled by default, as credentials changed outside of this broker instance, e.g. by
+         * another instance or with the CredHub CLI, are served stale for up to this time.
+         */
+        private long ttl = 0;
+
+        /**
+         * Maximum number of credentials held in memory.
+         */
+        private long maximumSize = 1000;
+
+        public long getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(long ttl) {
+            this.ttl = ttl;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+    }
+
     public static class Oauth2 {
         private String clientId;
 
@@ -0,0 +1,67 @@
+package de.evoila.cf.broker.bean;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Server side dashboard sessions. The refresh token of a dashboard login is kept by the broker
+ * and referenced by an HttpOnly cookie, so returning users get a new access token without
+ * another authorization code round trip through the UAA.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "dashboard.session")
+public class DashboardSessionConfiguration {
+
+    /**
+     * Time in milliseconds a refresh token is kept after it was issued, 0 disables the sessions.
+     */
+    private long ttl = 43200000;
+
+    /**
+     * Maximum number of sessions held in memory.
+     */
+    private long maximumSize = 10000;
+
+    /**
+     * Whether the session cookie is only sent over https.
+     */
+    private boolean secureCookie = true;
+
+    /**
+     * SameSite attribute of the session cookie. Lax keeps the cookie on the top level navigation
+     * from the dashboard link in the cloud controller, but not on cross site requests.
+     */
+    private String sameSite = "Lax";
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public boolean isSecureCookie() {
+        return secureCookie;
+    }
+
+    public void setSecureCookie(boolean secureCookie) {
+        this.secureCookie = secureCookie;
+    }
+
+    public String getSameSite() {
+        return sameSite;
+    }
+
+    public void setSameSite(String sameSite) {
+        this.sameSite = sameSite;
+    }
+}
@@ -17,6 +17,8 @@ public class HAProxyConfiguration {
 
     private String token;
 
+    private int parallelism = 8;
+
     public String getToken() {
         return token;
     }
@@ -33,4 +35,12 @@ public class HAProxyConfiguration {
 		this.uri = uri;
 	}
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
 }
@@ -0,0 +1,157 @@
+package de.evoila.cf.broker.bean;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "http.client")
+public class HttpClientConfiguration {
+
+    /**
+     * Maximum number of pooled connections over all targets.
+     */
+    private int maxTotal = 100;
+
+    /**
+     * Maximum number of pooled connections to a single host.
+     */
+    private int maxPerRoute = 20;
+
+    /**
+     * Time in milliseconds a connection is kept alive if the server does not send a keep alive header.
+     */
+    private long keepAlive = 30000;
+
+    /**
+     * Time in milliseconds after which idle connections are evicted from the pool.
+     */
+    private long idleTimeout = 60000;
+
+    /**
+     * Timeouts for targets which are not configured in {@link #targets}.
+     */
+    private Timeouts defaults = new Timeouts(5000, 30000, 5000);
+
+    /**
+     * Timeouts per target, keyed by the name passed to the client factory, e.g. haproxy, backup or uaa.
+     * Timeouts which are not set for a target are taken from {@link #defaults}.
+     */
+    private Map<String, Timeouts> targets = new HashMap<>();
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    public long getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Timeouts getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Timeouts defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Timeouts> getTargets() {
+        return targets;
+    }
+
+    public void setTargets(Map<String, Timeouts> targets) {
+        this.targets = targets;
+    }
+
+    /**
+     * @return The timeouts of the target, completed with the defaults
+     */
+    public Timeouts getTimeouts(String target) {
+        Timeouts timeouts = targets.get(target);
+        return timeouts != null ? timeouts.inherit(defaults) : defaults;
+    }
+
+    public static class Timeouts {
+
+        /**
+         * Timeout in milliseconds for establishing a connection.
+         */
+        private Integer connectTimeout;
+
+        /**
+         * Timeout in milliseconds between two packets of a response.
+         */
+        private Integer readTimeout;
+
+        /**
+         * Timeout in milliseconds for leasing a connection from the pool.
+         */
+        private Integer connectionRequestTimeout;
+
+        public Timeouts() {
+        }
+
+        private Timeouts(Integer connectTimeout, Integer readTimeout, Integer connectionRequestTimeout) {
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+            this.connectionRequestTimeout = connectionRequestTimeout;
+        }
+
+        private Timeouts inherit(Timeouts parent) {
+            return new Timeouts(
+                    connectTimeout != null ? connectTimeout : parent.connectTimeout,
+                    readTimeout != null ? readTimeout : parent.readTimeout,
+                    connectionRequestTimeout != null ? connectionRequestTimeout : parent.connectionRequestTimeout);
+        }
+
+        public Integer getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Integer connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Integer getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Integer readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Integer getConnectionRequestTimeout() {
+            return connectionRequestTimeout;
+        }
+
+        public void setConnectionRequestTimeout(Integer connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+        }
+    }
+}
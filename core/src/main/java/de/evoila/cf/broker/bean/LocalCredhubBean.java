@@ -0,0 +1,50 @@
+package de.evoila.cf.broker.bean;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "credhub.local")
+@ConditionalOnProperty(prefix = "credhub.local", name = "path")
+public class LocalCredhubBean {
+
+    /**
+     * File the encrypted credentials are stored in.
+     */
+    private String path;
+
+    /**
+     * Base64 encoded AES key. If not set, a key is generated and stored next to the credential file.
+     */
+    private String key;
+
+    /**
+     * Maximum number of concurrent operations of a single batch operation.
+     */
+    private int parallelism = 8;
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+}
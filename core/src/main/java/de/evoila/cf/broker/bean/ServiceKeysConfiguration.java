@@ -0,0 +1,36 @@
+package de.evoila.cf.broker.bean;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "servicekeys")
+public class ServiceKeysConfiguration {
+
+    /**
+     * Number of bindings which are created or deleted in parallel, by batch requests as well as
+     * when all bindings of a deleted service instance are removed.
+     */
+    private int parallelism = 8;
+
+    /**
+     * Maximum number of service keys in one batch request.
+     */
+    private int maxBatchSize = 500;
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+}
@@ -0,0 +1,61 @@
+package de.evoila.cf.broker.bean;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "snapshot")
+public class SnapshotConfiguration {
+
+    /**
+     * Number of records which are restored together by one worker.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Number of batches which are restored in parallel.
+     */
+    private int parallelism = 4;
+
+    /**
+     * Snapshot file which is restored into the repositories on startup.
+     */
+    private String restoreFile;
+
+    /**
+     * File the repositories are exported to on startup, after an optional restore.
+     */
+    private String exportFile;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public String getRestoreFile() {
+        return restoreFile;
+    }
+
+    public void setRestoreFile(String restoreFile) {
+        this.restoreFile = restoreFile;
+    }
+
+    public String getExportFile() {
+        return exportFile;
+    }
+
+    public void setExportFile(String exportFile) {
+        this.exportFile = exportFile;
+    }
+}
@@ -0,0 +1,40 @@
+package de.evoila.cf.broker.bean;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache of verified UAA bearer tokens on <code>/custom/**</code>. An entry never outlives its
+ * token, <code>max-ttl</code> additionally bounds how long changed scopes of a token, which is
+ * still valid, take effect.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "uaa.token-cache")
+public class UaaTokenCacheConfiguration {
+
+    /**
+     * Maximum number of cached tokens.
+     */
+    private long maximumSize = 10000;
+
+    /**
+     * Time in milliseconds a verified token is cached at most, 0 disables the cache.
+     */
+    private long maxTtl = 300000;
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public long getMaxTtl() {
+        return maxTtl;
+    }
+
+    public void setMaxTtl(long maxTtl) {
+        this.maxTtl = maxTtl;
+    }
+}
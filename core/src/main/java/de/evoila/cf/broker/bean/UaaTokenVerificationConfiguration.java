@@ -0,0 +1,55 @@
+package de.evoila.cf.broker.bean;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Enables the signature verification of UAA bearer tokens on <code>/custom/**</code>. Only
+ * tokens of the configured issuers are accepted, each issuer's keys are read from a local
+ * key set file in the format of the UAA <code>/token_keys</code> endpoint.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "uaa.token-verification")
+@ConditionalOnProperty(prefix = "uaa.token-verification", name = "enabled", havingValue = "true")
+public class UaaTokenVerificationConfiguration {
+
+    private boolean enabled;
+
+    /**
+     * Path of the key set file per issuer, keyed by the iss claim of the tokens.
+     */
+    private Map<String, String> keySets = new HashMap<>();
+
+    /**
+     * Time in milliseconds between two checks of the key set files for rotated keys.
+     */
+    private long refreshInterval = 60000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, String> getKeySets() {
+        return keySets;
+    }
+
+    public void setKeySets(Map<String, String> keySets) {
+        this.keySets = keySets;
+    }
+
+    public long getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(long refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+}
@@ -0,0 +1,71 @@
+package de.evoila.cf.broker.catalog;
+
+import de.evoila.cf.broker.model.Catalog;
+import de.evoila.cf.broker.model.Plan;
+import de.evoila.cf.broker.model.ServiceDefinition;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hash indexes over a loaded catalog. The index is built once and never changed,
+ * so it can be read concurrently without synchronization. For duplicate ids the first
+ * occurrence in the catalog wins, as it did for the former linear lookups.
+ */
+public class CatalogIndex {
+
+    private final Catalog catalog;
+
+    private final Map<String, ServiceDefinition> servicesById;
+
+    private final Map<String, Plan> plansById;
+
+    private final Map<String, ServiceDefinition> servicesByPlanId;
+
+    public CatalogIndex(Catalog catalog) {
+        this.catalog = catalog;
+
+        Map<String, ServiceDefinition> servicesById = new HashMap<>();
+        Map<String, Plan> plansById = new HashMap<>();
+        Map<String, ServiceDefinition> servicesByPlanId = new HashMap<>();
+
+        if (catalog != null && catalog.getServices() != null) {
+            for (ServiceDefinition serviceDefinition : catalog.getServices()) {
+                if (serviceDefinition.getId() != null)
+                    servicesById.putIfAbsent(serviceDefinition.getId(), serviceDefinition);
+
+                if (serviceDefinition.getPlans() == null)
+                    continue;
+
+                for (Plan plan : serviceDefinition.getPlans()) {
+                    if (plan.getId() == null)
+                        continue;
+
+                    plansById.putIfAbsent(plan.getId(), plan);
+                    servicesByPlanId.putIfAbsent(plan.getId(), serviceDefinition);
+                }
+            }
+        }
+
+        this.servicesById = Collections.unmodifiableMap(servicesById);
+        this.plansById = Collections.unmodifiableMap(plansById);
+        this.servicesByPlanId = Collections.unmodifiableMap(servicesByPlanId);
+    }
+
+    public Catalog getCatalog() {
+        return catalog;
+    }
+
+    public ServiceDefinition getServiceDefinition(String serviceId) {
+        return serviceId != null ? servicesById.get(serviceId) : null;
+    }
+
+    public Plan getPlan(String planId) {
+        return planId != null ? plansById.get(planId) : null;
+    }
+
+    public ServiceDefinition getServiceDefinitionByPlanId(String planId) {
+        return planId != null ? servicesByPlanId.get(planId) : null;
+    }
+}
@@ -0,0 +1,21 @@
+package de.evoila.cf.broker.catalog;
+
+import de.evoila.cf.broker.model.Catalog;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published after a reloaded catalog has been validated, indexed and swapped in.
+ */
+public class CatalogRefreshedEvent extends ApplicationEvent {
+
+    private final Catalog catalog;
+
+    public CatalogRefreshedEvent(Object source, Catalog catalog) {
+        super(source);
+        this.catalog = catalog;
+    }
+
+    public Catalog getCatalog() {
+        return catalog;
+    }
+}
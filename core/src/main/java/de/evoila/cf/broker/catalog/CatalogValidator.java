@@ -0,0 +1,60 @@
+package de.evoila.cf.broker.catalog;
+
+import de.evoila.cf.broker.model.Catalog;
+import de.evoila.cf.broker.model.Plan;
+import de.evoila.cf.broker.model.ServiceDefinition;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks the parts of a catalog the broker relies on when serving requests: ids and
+ * names of services and plans, and ids which are unique across the whole catalog.
+ */
+public class CatalogValidator {
+
+    public static List<String> validate(Catalog catalog) {
+        List<String> errors = new ArrayList<>();
+
+        if (catalog == null || catalog.getServices() == null || catalog.getServices().isEmpty()) {
+            errors.add("Catalog does not contain any services");
+            return errors;
+        }
+
+        Set<String> serviceIds = new HashSet<>();
+        Set<String> planIds = new HashSet<>();
+        for (ServiceDefinition serviceDefinition : catalog.getServices()) {
+            String serviceId = serviceDefinition.getId();
+            if (isEmpty(serviceId))
+                errors.add("Service " + serviceDefinition.getName() + " has no id");
+            else if (!serviceIds.add(serviceId))
+                errors.add("Service id " + serviceId + " is used more than once");
+
+            if (isEmpty(serviceDefinition.getName()))
+                errors.add("Service " + serviceId + " has no name");
+
+            if (serviceDefinition.getPlans() == null || serviceDefinition.getPlans().isEmpty()) {
+                errors.add("Service " + serviceId + " has no plans");
+                continue;
+            }
+
+            for (Plan plan : serviceDefinition.getPlans()) {
+                if (isEmpty(plan.getId()))
+                    errors.add("Plan " + plan.getName() + " of service " + serviceId + " has no id");
+                else if (!planIds.add(plan.getId()))
+                    errors.add("Plan id " + plan.getId() + " is used more than once");
+
+                if (isEmpty(plan.getName()))
+                    errors.add("Plan " + plan.getId() + " of service " + serviceId + " has no name");
+            }
+        }
+
+        return errors;
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
@@ -0,0 +1,103 @@
+package de.evoila.cf.broker.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.evoila.cf.broker.model.Catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The catalog response rendered once into plain and gzip compressed JSON. The ETag is
+ * the SHA-256 of the plain JSON, so it only changes when the rendered catalog does. The
+ * compressed rendition is a different representation and gets its own strong validator
+ * with a <code>-gzip</code> suffix. The byte arrays are shared between requests and must
+ * not be modified.
+ */
+public class RenderedCatalog {
+
+    private final Catalog source;
+
+    private final byte[] json;
+
+    private final byte[] gzip;
+
+    private final String etag;
+
+    private final String gzipEtag;
+
+    private RenderedCatalog(Catalog source, byte[] json, byte[] gzip, String hash) {
+        this.source = source;
+        this.json = json;
+        this.gzip = gzip;
+        this.etag = "\"" + hash + "\"";
+        this.gzipEtag = "\"" + hash + "-gzip\"";
+    }
+
+    public static RenderedCatalog render(Catalog source, ObjectMapper objectMapper) throws IOException {
+        Catalog catalog = new Catalog();
+        catalog.setServices(source.getServices());
+
+        byte[] json = objectMapper.writeValueAsBytes(catalog);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write(json);
+        }
+
+        return new RenderedCatalog(source, json, compressed.toByteArray(), sha256(json));
+    }
+
+    private static String sha256(byte[] value) {
+        try {
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(value))
+                hex.append(String.format("%02x", b));
+
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @param ifNoneMatch The value of the If-None-Match request header, may be null
+     * @return true if the client already has a rendition of this catalog, compressed or not
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null)
+            return false;
+
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/"))
+                tag = tag.substring(2);
+
+            if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag))
+                return true;
+        }
+        return false;
+    }
+
+    public Catalog getSource() {
+        return source;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getGzipEtag() {
+        return gzipEtag;
+    }
+}
@@ -1,6 +1,8 @@
 package de.evoila.cf.broker.controller;
 
+import de.evoila.cf.broker.exception.InvalidParametersException;
 import de.evoila.cf.broker.model.ErrorMessage;
+import de.evoila.cf.broker.model.ParametersErrorMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -35,6 +37,11 @@ public abstract class BaseController {
 		return processErrorResponse(message, HttpStatus.BAD_REQUEST);
 	}
 
+	@ExceptionHandler(InvalidParametersException.class)
+	public ResponseEntity<ErrorMessage> handleException(InvalidParametersException ex) {
+		return new ResponseEntity<>(new ParametersErrorMessage(ex.getMessage(), ex.getErrors()), HttpStatus.BAD_REQUEST);
+	}
+
 	protected ResponseEntity<ErrorMessage> processErrorResponse(String message, HttpStatus status) {
 		return new ResponseEntity<>(new ErrorMessage(message), status);
 	}
@@ -1,16 +1,26 @@
 package de.evoila.cf.broker.controller.core;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.evoila.cf.broker.catalog.CatalogRefreshedEvent;
+import de.evoila.cf.broker.catalog.RenderedCatalog;
 import de.evoila.cf.broker.controller.BaseController;
 import de.evoila.cf.broker.model.Catalog;
 import de.evoila.cf.broker.service.CatalogService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
 /** @author Johannes Hiemer. */
 @Controller
 @RequestMapping(value = "/v2/catalog")
@@ -20,18 +30,86 @@ public class CatalogController extends BaseController {
 
     private CatalogService catalogService;
 
-    public CatalogController(CatalogService catalogService) {
+    private ObjectMapper objectMapper;
+
+    private final AtomicReference<RenderedCatalog> renderedCatalog = new AtomicReference<>();
+
+    public CatalogController(CatalogService catalogService, ObjectMapper objectMapper) {
         this.catalogService = catalogService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping(value = { "/", "" })
-    public ResponseEntity<Catalog> getCatalog() {
+    public ResponseEntity<byte[]> getCatalog(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
+            throws IOException {
         logger.debug("GET: getCatalog()");
 
-        Catalog catalog = new Catalog();
-        catalog.setServices(catalogService.getCatalog().getServices());
+        RenderedCatalog catalog = getRenderedCatalog();
+
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(gzip ? catalog.getGzipEtag() : catalog.getEtag());
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (catalog.matches(ifNoneMatch))
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+
+        headers.setContentType(MediaType.APPLICATION_JSON_UTF8);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(catalog.getGzip(), headers, HttpStatus.OK);
+        }
+
+        return new ResponseEntity<>(catalog.getJson(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * The catalog is rendered again only if the catalog service returns a different
+     * catalog instance than the one the current rendition was created from.
+     */
+    public RenderedCatalog getRenderedCatalog() throws IOException {
+        Catalog source = catalogService.getCatalog();
+        RenderedCatalog current = renderedCatalog.get();
+        if (current != null && current.getSource() == source)
+            return current;
+
+        RenderedCatalog rendered = RenderedCatalog.render(source, objectMapper);
+        renderedCatalog.compareAndSet(current, rendered);
+        return rendered;
+    }
+
+    /**
+     * Renders a refreshed catalog right away, so the first request after the refresh
+     * does not have to.
+     */
+    @EventListener
+    public void onCatalogRefreshed(CatalogRefreshedEvent event) {
+        try {
+            getRenderedCatalog();
+        } catch (IOException e) {
+            logger.error("Could not render refreshed catalog", e);
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip"))
+                continue;
 
-        return new ResponseEntity<>(catalog, HttpStatus.OK);
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().replace(" ", "");
+                if (parameter.equals("q=0") || parameter.matches("q=0\\.0*"))
+                    return false;
+            }
+            return true;
+        }
+        return false;
     }
 
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package de.evoila.cf.broker.controller.core;
 import de.evoila.cf.broker.controller.BaseController;
 import de.evoila.cf.broker.exception.*;
 import de.evoila.cf.broker.model.ErrorMessage;
+import de.evoila.cf.broker.model.JobProgressResponse;
 import de.evoila.cf.broker.model.ServiceInstanceBindingRequest;
 import de.evoila.cf.broker.model.ServiceInstanceBindingResponse;
 import de.evoila.cf.broker.service.impl.BindingServiceImpl;
@@ -33,6 +34,7 @@ public class ServiceInstanceBindingController extends BaseController {
 	@PutMapping(value = "/{instanceId}/service_bindings/{bindingId}")
 	public ResponseEntity<ServiceInstanceBindingResponse> bindServiceInstance(@PathVariable("instanceId") String instanceId,
             @PathVariable("bindingId") String bindingId,
+			@RequestParam(value = "accepts_incomplete", required = false) Boolean acceptsIncomplete,
 			@Valid @RequestBody ServiceInstanceBindingRequest request)
 					throws ServiceInstanceDoesNotExistException, ServiceInstanceBindingExistsException,
 					ServiceBrokerException, ServiceDefinitionDoesNotExistException,
@@ -47,24 +49,64 @@ public class ServiceInstanceBindingController extends BaseController {
 		if (request.getAppGuid() != null && request.getAppGuid().isEmpty())
             return new ResponseEntity("{}", HttpStatus.BAD_REQUEST);
 
-		ServiceInstanceBindingResponse response = bindingService.createServiceInstanceBinding(bindingId, instanceId, request);
+		boolean async = acceptsIncomplete != null && acceptsIncomplete;
+		ServiceInstanceBindingResponse response = bindingService.createServiceInstanceBinding(bindingId, instanceId, request, async);
+
+		if (response.isAsync()) {
+			log.debug("ServiceInstanceBinding Accepted: " + bindingId);
+
+			return new ResponseEntity("{}", HttpStatus.ACCEPTED);
+		}
 
 		log.debug("ServiceInstanceBinding Created: " + bindingId);
 
 		return new ResponseEntity<>(response, HttpStatus.CREATED);
 	}
 
+	@GetMapping(value = "/{instanceId}/service_bindings/{bindingId}")
+	public ResponseEntity<ServiceInstanceBindingResponse> fetchServiceInstanceBinding(@PathVariable("instanceId") String instanceId,
+			@PathVariable("bindingId") String bindingId) throws ServiceInstanceBindingBadRequestException {
+
+		log.debug("GET: " + SERVICE_INSTANCE_BINDING_BASE_PATH + "/{bindingId}"
+				+ ", fetchServiceInstanceBinding(), instanceId = " + instanceId + ", bindingId = " + bindingId);
+
+		try {
+			return new ResponseEntity<>(bindingService.fetchServiceInstanceBinding(bindingId, instanceId), HttpStatus.OK);
+		} catch (ServiceInstanceBindingDoesNotExistsException e) {
+			return new ResponseEntity("{}", HttpStatus.NOT_FOUND);
+		}
+	}
+
+	@GetMapping(value = "/{instanceId}/service_bindings/{bindingId}/last_operation")
+	public ResponseEntity<JobProgressResponse> lastOperation(@PathVariable("instanceId") String instanceId,
+			@PathVariable("bindingId") String bindingId) {
+
+		try {
+			return new ResponseEntity<>(bindingService.getLastOperation(bindingId, instanceId), HttpStatus.OK);
+		} catch (ServiceInstanceDoesNotExistException e) {
+			return new ResponseEntity("{}", HttpStatus.NOT_FOUND);
+		} catch (ServiceInstanceBindingDoesNotExistsException e) {
+			return new ResponseEntity("{}", HttpStatus.GONE);
+		}
+	}
+
 	@DeleteMapping(value = "/{instanceId}/service_bindings/{bindingId}")
 	public ResponseEntity<String> deleteServiceInstanceBinding(@PathVariable("instanceId") String instanceId,
 			@PathVariable("bindingId") String bindingId, @RequestParam("service_id") String serviceId,
-			@RequestParam("plan_id") String planId) throws ServiceBrokerException {
+			@RequestParam("plan_id") String planId,
+			@RequestParam(value = "accepts_incomplete", required = false) Boolean acceptsIncomplete) throws ServiceBrokerException {
 
 		log.debug("DELETE: " + SERVICE_INSTANCE_BINDING_BASE_PATH + "/{bindingId}"
 				+ ", deleteServiceInstanceBinding(),  serviceInstance.id = " + instanceId + ", bindingId = " + bindingId
 				+ ", serviceId = " + serviceId + ", planId = " + planId);
 
+		boolean async = acceptsIncomplete != null && acceptsIncomplete;
 		try {
-			bindingService.deleteServiceInstanceBinding(bindingId, planId);
+			if (bindingService.deleteServiceInstanceBinding(bindingId, planId, async)) {
+				log.debug("ServiceInstanceBinding Deletion Accepted: " + bindingId);
+
+				return new ResponseEntity<>("{}", HttpStatus.ACCEPTED);
+			}
 		} catch (ServiceInstanceBindingDoesNotExistsException | ServiceDefinitionDoesNotExistException e) {
 			return new ResponseEntity<>("{}", HttpStatus.GONE);
 		}
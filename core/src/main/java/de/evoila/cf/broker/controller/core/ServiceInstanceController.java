@@ -138,7 +138,7 @@ public class ServiceInstanceController extends BaseController {
 		return processErrorResponse(ex.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);	
 	}
 
-    @ExceptionHandler({ ServiceDefinitionDoesNotExistException.class, InvalidParametersException.class })
+    @ExceptionHandler(ServiceDefinitionDoesNotExistException.class)
     @ResponseBody
     public ResponseEntity<ErrorMessage> handleException(ServiceDefinitionDoesNotExistException ex) {
         return processErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
@@ -3,6 +3,7 @@
  */
 package de.evoila.cf.broker.controller.custom;
 
+import de.evoila.cf.broker.bean.DashboardSessionConfiguration;
 import de.evoila.cf.broker.bean.EndpointConfiguration;
 import de.evoila.cf.broker.controller.BaseController;
 import de.evoila.cf.broker.controller.utils.DashboardAuthenticationRedirectBuilder;
@@ -14,18 +15,23 @@ import de.evoila.cf.broker.model.ServiceInstance;
 import de.evoila.cf.broker.model.oauth.CompositeAccessToken;
 import de.evoila.cf.broker.repository.ServiceInstanceRepository;
 import de.evoila.cf.broker.service.CatalogService;
-import de.evoila.cf.config.security.openid.OpenIdAuthenticationUtils;
+import de.evoila.cf.config.security.openid.DashboardOAuthClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
 
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -40,31 +46,47 @@ public class CustomAuthenticationController extends BaseController {
 
 	private static final String CONFIRM = "/confirm";
 
+	private static final String LOGOUT = "/logout";
+
 	private final Logger log = LoggerFactory.getLogger(getClass());
 	
 	private final static String REQUIRED_SCOPES = "cloud_controller_service_permissions.read openid cloud_controller.read";
 
 	private static final String TOKEN_PREFIX = "Bearer ";
 
+	private static final String SESSION_COOKIE = "dashboard_session";
+
+	private static final String BASE_PATH = "/custom/v2/authentication/";
+
 	private ServiceInstanceRepository serviceInstanceRepository;
 	
 	private CatalogService catalogService;
 
 	private EndpointConfiguration endpointConfiguration;
 
+	private DashboardOAuthClient dashboardOAuthClient;
+
+	private DashboardSessionConfiguration sessionConfiguration;
+
 	public CustomAuthenticationController(ServiceInstanceRepository serviceInstanceRepository, CatalogService catalogService,
-                                          EndpointConfiguration endpointConfiguration) {
+                                          EndpointConfiguration endpointConfiguration,
+                                          DashboardOAuthClient dashboardOAuthClient,
+                                          DashboardSessionConfiguration sessionConfiguration) {
 		Assert.notNull(serviceInstanceRepository, "ServiceInstance may not be null");
 		Assert.notNull(catalogService, "CatalogService may not be null");
 		Assert.notNull(endpointConfiguration, "GeneralConfigurationBean may not be null");
+		Assert.notNull(dashboardOAuthClient, "DashboardOAuthClient may not be null");
 
 		this.serviceInstanceRepository = serviceInstanceRepository;
 		this.catalogService = catalogService;
 		this.endpointConfiguration = endpointConfiguration;
+		this.dashboardOAuthClient = dashboardOAuthClient;
+		this.sessionConfiguration = sessionConfiguration;
 	}
 
     @GetMapping(value = "/{serviceInstanceId}")
-    public Object authRedirect(@PathVariable String serviceInstanceId) throws URISyntaxException, IOException {
+    public Object authRedirect(@PathVariable String serviceInstanceId,
+							   @CookieValue(value = SESSION_COOKIE, required = false) String sessionId) throws URISyntaxException, IOException {
     	ServiceDefinition serviceDefinition = resolveServiceDefinitionByServiceInstanceId(serviceInstanceId);
     	if (serviceDefinition != null && serviceDefinition.getDashboard() != null
 				&& serviceDefinition.getDashboard().getAuthEndpoint() != null
@@ -73,6 +95,12 @@ public class CustomAuthenticationController extends BaseController {
     			Dashboard dashboard = serviceDefinition.getDashboard();
     			DashboardClient dashboardClient = serviceDefinition.getDashboardClient();
 
+				// Returning users with a session get a fresh token without the authorization code round trip
+				CompositeAccessToken token = dashboardOAuthClient.refreshSession(sessionId, serviceInstanceId,
+						dashboard.getAuthEndpoint(), dashboardClient);
+				if (token != null)
+					return dashboardView(serviceInstanceId, token);
+
 				String redirectUri =  DashboardUtils.redirectUri(dashboardClient, serviceInstanceId, CONFIRM);
     			DashboardAuthenticationRedirectBuilder dashboardAuthenticationRedirectBuilder 
     				= new DashboardAuthenticationRedirectBuilder(dashboard,
@@ -96,8 +124,8 @@ public class CustomAuthenticationController extends BaseController {
 
 	@GetMapping(value = "/{serviceInstanceId}" + CONFIRM)
     public Object confirm(@PathVariable String serviceInstanceId,
-						  @RequestParam(value = "code") String authCode) throws Exception {
-		ModelAndView mav = new ModelAndView("index");
+						  @RequestParam(value = "code") String authCode,
+						  HttpServletResponse response) throws Exception {
 		if (authCode == null)
 			return this.processErrorResponse("No authentication code from UAA could be found",
 					HttpStatus.UNAUTHORIZED);
@@ -109,17 +137,15 @@ public class CustomAuthenticationController extends BaseController {
 
 			String redirectUri =  DashboardUtils.redirectUri(dashboardClient, serviceInstanceId, CONFIRM);
 
-			CompositeAccessToken  token = OpenIdAuthenticationUtils
-					.getAccessAndRefreshToken(dashboard.getAuthEndpoint(), authCode, dashboardClient, redirectUri);
+			CompositeAccessToken  token = dashboardOAuthClient
+					.exchangeCode(dashboard.getAuthEndpoint(), authCode, dashboardClient, redirectUri);
 
 			if (token != null) {
-                mav.addObject("baseHref", "/custom/v2/authentication/" + serviceInstanceId);
-				if(endpointConfiguration.getCustom() != null) {
-					mav.addObject("customEndpoints", endpointConfiguration.getCustom());
-				}
-				mav.addObject("token", TOKEN_PREFIX + token.getAccessToken());
-				mav.addObject("serviceInstanceId", serviceInstanceId);
-				mav.addObject("endpointUrl", endpointConfiguration.getDefault());
+				String sessionId = dashboardOAuthClient.createSession(serviceInstanceId, token);
+				if (sessionId != null)
+					addSessionCookie(response, serviceInstanceId, sessionId, sessionConfiguration.getTtl() / 1000);
+
+				return dashboardView(serviceInstanceId, token);
 			} else {
 				log.info("Did not receive a valid token, had to abort authentication...");
 				return this.processErrorResponse("Token could not be processed/or is not valid",
@@ -128,10 +154,54 @@ public class CustomAuthenticationController extends BaseController {
 		} else
 			return this.processErrorResponse("Service Definition of Service Instance could not be found",
 					HttpStatus.UNAUTHORIZED);
+	}
 
+	private ModelAndView dashboardView(String serviceInstanceId, CompositeAccessToken token) {
+		ModelAndView mav = new ModelAndView("index");
+		mav.addObject("baseHref", BASE_PATH + serviceInstanceId);
+		if(endpointConfiguration.getCustom() != null) {
+			mav.addObject("customEndpoints", endpointConfiguration.getCustom());
+		}
+		mav.addObject("token", TOKEN_PREFIX + token.getAccessToken());
+		mav.addObject("serviceInstanceId", serviceInstanceId);
+		mav.addObject("endpointUrl", endpointConfiguration.getDefault());
 		return mav;
 	}
 
+	/**
+	 * Ends the dashboard session of the browser, the next visit of the dashboard goes through the
+	 * UAA login again. Only accepted as POST, which browsers do not send the SameSite cookie with
+	 * from other sites.
+	 */
+	@PostMapping(value = "/{serviceInstanceId}" + LOGOUT)
+	public Object logout(@PathVariable String serviceInstanceId,
+						 @CookieValue(value = SESSION_COOKIE, required = false) String sessionId,
+						 HttpServletResponse response) {
+		if (!serviceInstanceRepository.containsServiceInstanceId(serviceInstanceId))
+			return this.processErrorResponse("Service Instance could not be found", HttpStatus.NOT_FOUND);
+
+		dashboardOAuthClient.invalidateSession(sessionId);
+		addSessionCookie(response, serviceInstanceId, "", 0);
+		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+	}
+
+	/**
+	 * The Servlet API has no SameSite attribute, so the cookie header is written directly. The
+	 * instance id is known to the repository and the session id is base64url, neither needs quoting.
+	 */
+	private void addSessionCookie(HttpServletResponse response, String serviceInstanceId, String sessionId, long maxAge) {
+		StringBuilder cookie = new StringBuilder(SESSION_COOKIE).append('=').append(sessionId)
+				.append("; Path=").append(BASE_PATH).append(serviceInstanceId)
+				.append("; Max-Age=").append(maxAge)
+				.append("; HttpOnly");
+		if (sessionConfiguration.isSecureCookie())
+			cookie.append("; Secure");
+		if (sessionConfiguration.getSameSite() != null && !sessionConfiguration.getSameSite().isEmpty())
+			cookie.append("; SameSite=").append(sessionConfiguration.getSameSite());
+
+		response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+	}
+
 
     @GetMapping(value = "/{serviceInstanceId}/test")
     public Object test(@PathVariable String serviceInstanceId) throws Exception {
@@ -1,10 +1,13 @@
 package de.evoila.cf.broker.controller.custom;
 
+import de.evoila.cf.broker.bean.ServiceKeysConfiguration;
 import de.evoila.cf.broker.controller.BaseController;
 import de.evoila.cf.broker.exception.*;
 import de.evoila.cf.broker.model.ServiceInstance;
 import de.evoila.cf.broker.model.ServiceInstanceBinding;
 import de.evoila.cf.broker.model.ServiceInstanceBindingRequest;
+import de.evoila.cf.broker.model.ServiceKeyRequest;
+import de.evoila.cf.broker.model.ServiceKeyResult;
 import de.evoila.cf.broker.repository.BindingRepository;
 import de.evoila.cf.broker.repository.ServiceInstanceRepository;
 import de.evoila.cf.broker.service.BindingService;
@@ -26,13 +29,17 @@ public class CustomServiceKeysController extends BaseController {
     BindingRepository bindingRepository;
     BindingService bindingService;
     ServiceInstanceRepository serviceInstanceRepository;
+    ServiceKeysConfiguration serviceKeysConfiguration;
 
-    public CustomServiceKeysController(BindingRepository repository, BindingService service, ServiceInstanceRepository serviceInstanceRepository) {
+    public CustomServiceKeysController(BindingRepository repository, BindingService service, ServiceInstanceRepository serviceInstanceRepository,
+                                       ServiceKeysConfiguration serviceKeysConfiguration) {
         Assert.notNull(repository, "BindingRepository should not be null");
         Assert.notNull(service, "Binding Service should not be null");
+        Assert.notNull(serviceKeysConfiguration, "ServiceKeysConfiguration should not be null");
         this.bindingRepository = repository;
         this.bindingService = service;
         this.serviceInstanceRepository = serviceInstanceRepository;
+        this.serviceKeysConfiguration = serviceKeysConfiguration;
     }
 
     @GetMapping(value = "/{serviceInstanceId}")
@@ -84,4 +91,26 @@ public class CustomServiceKeysController extends BaseController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    @PostMapping(value = "/{serviceInstanceId}/batch")
+    public ResponseEntity createServiceKeys(@PathVariable String serviceInstanceId, @RequestBody List<ServiceKeyRequest> keys)
+            throws ServiceInstanceDoesNotExistException, ServiceDefinitionDoesNotExistException {
+        if (keys.size() > serviceKeysConfiguration.getMaxBatchSize())
+            return processErrorResponse("A batch may contain at most " + serviceKeysConfiguration.getMaxBatchSize()
+                    + " service keys", HttpStatus.BAD_REQUEST);
+
+        List<ServiceKeyResult> results = bindingService.createServiceKeys(serviceInstanceId, keys);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/{serviceInstanceId}/batch/delete")
+    public ResponseEntity deleteServiceKeys(@PathVariable String serviceInstanceId, @RequestBody List<String> serviceBindingIds)
+            throws ServiceInstanceDoesNotExistException, ServiceDefinitionDoesNotExistException {
+        if (serviceBindingIds.size() > serviceKeysConfiguration.getMaxBatchSize())
+            return processErrorResponse("A batch may contain at most " + serviceKeysConfiguration.getMaxBatchSize()
+                    + " service keys", HttpStatus.BAD_REQUEST);
+
+        List<ServiceKeyResult> results = bindingService.deleteServiceKeys(serviceInstanceId, serviceBindingIds);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
 }
@@ -2,6 +2,7 @@ package de.evoila.cf.broker.repository;
 
 import de.evoila.cf.broker.model.ServiceInstanceBinding;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -25,4 +26,13 @@ public interface BindingRepository {
 	ServiceInstanceBinding findOne(String bindingId);
 
     List<ServiceInstanceBinding> getBindingsForServiceInstance (String serviceInstanceId);
+
+	/**
+	 * Removes all given bindings. Stores should override this with a single bulk delete,
+	 * the default removes the bindings one by one.
+	 */
+	default void deleteBindings(Collection<String> bindingIds) {
+		for (String bindingId : bindingIds)
+			unbindService(bindingId);
+	}
 }
\ No newline at end of file
@@ -39,4 +39,12 @@ public interface JobRepository {
 	 */
 	void deleteJobProgress(String serviceInstanceId);
 
+	/**
+	 * Stores a complete job progress, e.g. when it is restored from a snapshot. Stores which
+	 * only persist the state keep the default, which drops description and date.
+	 */
+	default void saveJobProgress(JobProgress jobProgress) {
+		saveOrUpdateJobProgress(jobProgress.getId(), jobProgress.getState());
+	}
+
 }
\ No newline at end of file
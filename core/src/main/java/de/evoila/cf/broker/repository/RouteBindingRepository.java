@@ -2,6 +2,8 @@ package de.evoila.cf.broker.repository;
 
 import de.evoila.cf.broker.model.RouteBinding;
 
+import java.util.List;
+
 /**
  * @author Christian Brinker, evoila.
  *
@@ -22,4 +24,13 @@ public interface RouteBindingRepository {
 
 	RouteBinding findOne(String bindingId);
 
+	/**
+	 * Used by snapshot exports. Stores which do not override it can not be exported, as
+	 * their route bindings would otherwise silently be missing from a snapshot.
+	 */
+	default List<RouteBinding> getRouteBindingsForServiceInstance(String serviceInstanceId) {
+		throw new UnsupportedOperationException(getClass().getName()
+				+ " does not implement getRouteBindingsForServiceInstance(String), which snapshot exports require");
+	}
+
 }
\ No newline at end of file
@@ -26,6 +26,8 @@ public interface ServiceDefinitionRepository {
 	void validateServiceId(String serviceDefinitionId) throws ServiceDefinitionDoesNotExistException;
 
     /**
+     * Implementations should resolve the plan through {@link de.evoila.cf.broker.service.CatalogService#getPlan(String)},
+     * which is backed by an index instead of searching all plans of all services.
      *
      * @param planId
      * @return Plan
@@ -14,6 +14,16 @@ public interface ServiceInstanceRepository {
 
 	List<ServiceInstance> getServiceInstancesByServiceDefinitionId(String serviceDefinitionId);
 
+	/**
+	 * All stored instances, including those of services and plans which were removed from the
+	 * catalog. Used by snapshot exports and to seed indexes on startup. Stores which do not
+	 * override it can neither be exported nor indexed, everything else keeps working.
+	 */
+	default List<ServiceInstance> getServiceInstances() {
+		throw new UnsupportedOperationException(getClass().getName()
+				+ " does not implement getServiceInstances(), which snapshot exports and the Bloom filter index require");
+	}
+
 	boolean containsServiceInstanceId(String serviceInstanceId);
 
 	void addServiceInstance(String id, ServiceInstance serviceInstance);
@@ -0,0 +1,66 @@
+package de.evoila.cf.broker.repository.index;
+
+import de.evoila.cf.broker.model.ServiceInstanceBinding;
+import de.evoila.cf.broker.repository.BindingRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Answers {@link #containsInternalBindingId(String)} for definitely unknown ids without
+ * asking the store. Ids are put into the filter before they are written, so a concurrent
+ * lookup can never miss a binding which is already stored, and again afterwards for a
+ * rebuild of the filter which may have scanned the store before the write.
+ */
+public class BloomFilterBindingRepository implements BindingRepository {
+
+    private final BindingRepository delegate;
+
+    private final IdBloomFilter filter;
+
+    public BloomFilterBindingRepository(BindingRepository delegate, IdBloomFilter filter) {
+        this.delegate = delegate;
+        this.filter = filter;
+    }
+
+    @Override
+    public String getInternalBindingId(String bindingId) {
+        return delegate.getInternalBindingId(bindingId);
+    }
+
+    @Override
+    public void addInternalBinding(ServiceInstanceBinding binding) {
+        filter.put(binding.getId());
+        delegate.addInternalBinding(binding);
+        filter.written(binding.getId());
+    }
+
+    @Override
+    public boolean containsInternalBindingId(String bindingId) {
+        return filter.mightContain(bindingId) && delegate.containsInternalBindingId(bindingId);
+    }
+
+    @Override
+    public void unbindService(String bindingId) {
+        delegate.unbindService(bindingId);
+    }
+
+    @Override
+    public void deleteBindings(Collection<String> bindingIds) {
+        delegate.deleteBindings(bindingIds);
+    }
+
+    @Override
+    public ServiceInstanceBinding findOne(String bindingId) {
+        return delegate.findOne(bindingId);
+    }
+
+    @Override
+    public List<ServiceInstanceBinding> getBindingsForServiceInstance(String serviceInstanceId) {
+        return delegate.getBindingsForServiceInstance(serviceInstanceId);
+    }
+
+    public BindingRepository getDelegate() {
+        return delegate;
+    }
+}
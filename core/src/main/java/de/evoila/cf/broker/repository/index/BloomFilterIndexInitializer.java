@@ -0,0 +1,127 @@
+package de.evoila.cf.broker.repository.index;
+
+import de.evoila.cf.broker.bean.BloomFilterConfiguration;
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.model.ServiceInstanceBinding;
+import de.evoila.cf.broker.repository.BindingRepository;
+import de.evoila.cf.broker.repository.ServiceInstanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fills the Bloom filters with a full scan of the store once the broker is ready, including
+ * instances of services and plans which are no longer part of the catalog. The scan runs in
+ * the background, until it has finished all lookups are answered by the store. When a filter
+ * holds more ids than it was sized for, it is rebuilt with twice the current number of ids.
+ */
+@Component
+@ConditionalOnProperty(prefix = "repository.bloom-filter", name = "enabled", havingValue = "true")
+public class BloomFilterIndexInitializer {
+
+    private final Logger log = LoggerFactory.getLogger(BloomFilterIndexInitializer.class);
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bloom-filter-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private BloomFilterConfiguration bloomFilterConfiguration;
+
+    private ServiceInstanceRepository serviceInstanceRepository;
+
+    private BindingRepository bindingRepository;
+
+    private IdBloomFilter serviceInstanceFilter;
+
+    private IdBloomFilter bindingFilter;
+
+    public BloomFilterIndexInitializer(BloomFilterRepositoryPostProcessor bloomFilterRepositoryPostProcessor,
+                                       BloomFilterConfiguration bloomFilterConfiguration,
+                                       ServiceInstanceRepository serviceInstanceRepository, BindingRepository bindingRepository) {
+        this.bloomFilterConfiguration = bloomFilterConfiguration;
+        this.serviceInstanceRepository = serviceInstanceRepository;
+        this.bindingRepository = bindingRepository;
+        this.serviceInstanceFilter = bloomFilterRepositoryPostProcessor.getServiceInstanceFilter();
+        this.bindingFilter = bloomFilterRepositoryPostProcessor.getBindingFilter();
+
+        serviceInstanceFilter.setSaturationListener(this::scheduleRebuild);
+        bindingFilter.setSaturationListener(this::scheduleRebuild);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Rebuilds the filters in the background, unless a rebuild is already pending.
+     */
+    public void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                rebuildScheduled.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    public void rebuild() {
+        serviceInstanceFilter.startRebuild(capacity(serviceInstanceFilter), bloomFilterConfiguration.getFpp());
+        bindingFilter.startRebuild(capacity(bindingFilter), bloomFilterConfiguration.getFpp());
+
+        long start = System.currentTimeMillis();
+        int serviceInstances = 0, bindings = 0;
+        try {
+            List<ServiceInstance> instances = serviceInstanceRepository.getServiceInstances();
+            if (instances != null) {
+                for (ServiceInstance serviceInstance : instances) {
+                    serviceInstanceFilter.put(serviceInstance.getId());
+                    serviceInstances++;
+
+                    List<ServiceInstanceBinding> instanceBindings = bindingRepository
+                            .getBindingsForServiceInstance(serviceInstance.getId());
+                    if (instanceBindings == null)
+                        continue;
+
+                    for (ServiceInstanceBinding binding : instanceBindings) {
+                        bindingFilter.put(binding.getId());
+                        bindings++;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            serviceInstanceFilter.abortRebuild();
+            bindingFilter.abortRebuild();
+            log.error("Could not build Bloom filter index, lookups keep using the previous index or the store", e);
+            return;
+        }
+
+        serviceInstanceFilter.finishRebuild();
+        bindingFilter.finishRebuild();
+        log.info("Built Bloom filter index with " + serviceInstances + " service instances and "
+                + bindings + " bindings in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private int capacity(IdBloomFilter filter) {
+        return (int) Math.min(Integer.MAX_VALUE,
+                Math.max(bloomFilterConfiguration.getExpectedInsertions(), 2 * filter.getInsertions()));
+    }
+}
@@ -0,0 +1,48 @@
+package de.evoila.cf.broker.repository.index;
+
+import de.evoila.cf.broker.repository.BindingRepository;
+import de.evoila.cf.broker.repository.ServiceInstanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the service instance and binding repository of the broker with the Bloom filter
+ * decorators. Beans which are injected by their implementation type instead of the
+ * repository interface are therefore not supported while the index is enabled.
+ */
+@Component
+@ConditionalOnProperty(prefix = "repository.bloom-filter", name = "enabled", havingValue = "true")
+public class BloomFilterRepositoryPostProcessor implements BeanPostProcessor {
+
+    private final Logger log = LoggerFactory.getLogger(BloomFilterRepositoryPostProcessor.class);
+
+    private final IdBloomFilter serviceInstanceFilter = new IdBloomFilter();
+
+    private final IdBloomFilter bindingFilter = new IdBloomFilter();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof ServiceInstanceRepository && !(bean instanceof BloomFilterServiceInstanceRepository)) {
+            log.info("Adding Bloom filter index to service instance repository " + beanName);
+            return new BloomFilterServiceInstanceRepository((ServiceInstanceRepository) bean, serviceInstanceFilter);
+        }
+
+        if (bean instanceof BindingRepository && !(bean instanceof BloomFilterBindingRepository)) {
+            log.info("Adding Bloom filter index to binding repository " + beanName);
+            return new BloomFilterBindingRepository((BindingRepository) bean, bindingFilter);
+        }
+
+        return bean;
+    }
+
+    public IdBloomFilter getServiceInstanceFilter() {
+        return serviceInstanceFilter;
+    }
+
+    public IdBloomFilter getBindingFilter() {
+        return bindingFilter;
+    }
+}
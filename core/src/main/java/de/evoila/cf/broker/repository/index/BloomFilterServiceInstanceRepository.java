@@ -0,0 +1,67 @@
+package de.evoila.cf.broker.repository.index;
+
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.repository.ServiceInstanceRepository;
+
+import java.util.List;
+
+/**
+ * Answers {@link #containsServiceInstanceId(String)} for definitely unknown ids without
+ * asking the store. Ids are put into the filter before they are written, so a concurrent
+ * lookup can never miss an instance which is already stored, and again afterwards for a
+ * rebuild of the filter which may have scanned the store before the write.
+ */
+public class BloomFilterServiceInstanceRepository implements ServiceInstanceRepository {
+
+    private final ServiceInstanceRepository delegate;
+
+    private final IdBloomFilter filter;
+
+    public BloomFilterServiceInstanceRepository(ServiceInstanceRepository delegate, IdBloomFilter filter) {
+        this.delegate = delegate;
+        this.filter = filter;
+    }
+
+    @Override
+    public ServiceInstance getServiceInstance(String instanceId) {
+        return delegate.getServiceInstance(instanceId);
+    }
+
+    @Override
+    public List<ServiceInstance> getServiceInstancesByServiceDefinitionId(String serviceDefinitionId) {
+        return delegate.getServiceInstancesByServiceDefinitionId(serviceDefinitionId);
+    }
+
+    @Override
+    public List<ServiceInstance> getServiceInstances() {
+        return delegate.getServiceInstances();
+    }
+
+    @Override
+    public boolean containsServiceInstanceId(String serviceInstanceId) {
+        return filter.mightContain(serviceInstanceId) && delegate.containsServiceInstanceId(serviceInstanceId);
+    }
+
+    @Override
+    public void addServiceInstance(String id, ServiceInstance serviceInstance) {
+        filter.put(id);
+        delegate.addServiceInstance(id, serviceInstance);
+        filter.written(id);
+    }
+
+    @Override
+    public void deleteServiceInstance(String serviceInstanceId) {
+        delegate.deleteServiceInstance(serviceInstanceId);
+    }
+
+    @Override
+    public void updateServiceInstance(ServiceInstance serviceInstance) {
+        filter.put(serviceInstance.getId());
+        delegate.updateServiceInstance(serviceInstance);
+        filter.written(serviceInstance.getId());
+    }
+
+    public ServiceInstanceRepository getDelegate() {
+        return delegate;
+    }
+}
@@ -0,0 +1,180 @@
+package de.evoila.cf.broker.repository.index;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bloom filter over entity ids. Until a filter has been filled from the store, every id is
+ * reported as possibly contained, so callers always fall back to the store. Ids are never
+ * removed, deleted ids simply stay a false positive.
+ *
+ * A filter is built next to the active one: ids put while the store is scanned go into both,
+ * so writes during a rebuild are not lost, and lookups keep using the active filter until the
+ * new one replaces it. Lookups share a read lock, as the Guava filter of this version does
+ * not support concurrent puts.
+ */
+public class IdBloomFilter {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private BloomFilter<CharSequence> filter;
+
+    private int expectedInsertions;
+
+    private long insertions;
+
+    private BloomFilter<CharSequence> pending;
+
+    private int pendingExpectedInsertions;
+
+    private long pendingInsertions;
+
+    private Runnable saturationListener;
+
+    private boolean saturationReported;
+
+    /**
+     * Starts building a new filter. Ids put from now on are also added to the new filter.
+     */
+    public void startRebuild(int expectedInsertions, double fpp) {
+        lock.writeLock().lock();
+        try {
+            pending = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, fpp);
+            pendingExpectedInsertions = expectedInsertions;
+            pendingInsertions = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the active filter with the one built since {@link #startRebuild(int, double)}.
+     */
+    public void finishRebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pending == null)
+                return;
+
+            filter = pending;
+            expectedInsertions = pendingExpectedInsertions;
+            insertions = pendingInsertions;
+            pending = null;
+            saturationReported = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the filter which is being built, the active filter stays in use.
+     */
+    public void abortRebuild() {
+        lock.writeLock().lock();
+        try {
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(String id) {
+        if (id == null)
+            return;
+
+        Runnable listener = null;
+        lock.writeLock().lock();
+        try {
+            if (filter != null && filter.put(id))
+                insertions++;
+            if (pending != null && pending.put(id))
+                pendingInsertions++;
+
+            if (filter != null && pending == null && !saturationReported && insertions > expectedInsertions) {
+                saturationReported = true;
+                listener = saturationListener;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (listener != null)
+            listener.run();
+    }
+
+    /**
+     * Called once an id put before the write is stored. A rebuild which started in between
+     * may have scanned the store before the write, so the id is added to its filter as well.
+     */
+    public void written(String id) {
+        if (id == null)
+            return;
+
+        lock.writeLock().lock();
+        try {
+            if (pending != null && pending.put(id))
+                pendingInsertions++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean mightContain(String id) {
+        lock.readLock().lock();
+        try {
+            return filter == null || id == null || filter.mightContain(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return filter != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of ids the active filter was sized for.
+     */
+    public int getExpectedInsertions() {
+        lock.readLock().lock();
+        try {
+            return expectedInsertions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate number of ids in the active filter.
+     */
+    public long getInsertions() {
+        lock.readLock().lock();
+        try {
+            return insertions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Called once, when the active filter holds more ids than it was sized for and its false
+     * positive rate starts to grow. A Bloom filter can not be resized, it has to be rebuilt.
+     */
+    public void setSaturationListener(Runnable saturationListener) {
+        lock.writeLock().lock();
+        try {
+            this.saturationListener = saturationListener;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package de.evoila.cf.broker.service;
+
+import de.evoila.cf.broker.model.JobProgress;
+import de.evoila.cf.broker.model.Plan;
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.model.ServiceInstanceBindingRequest;
+import de.evoila.cf.broker.service.impl.BindingServiceImpl;
+
+/**
+ * Runs creation and deletion of service bindings on the async job infrastructure. The
+ * job progress is keyed by the binding id and has to be started by the caller, so it
+ * can be polled as soon as the request was accepted.
+ */
+public interface AsyncBindingService {
+
+    void asyncCreateServiceInstanceBinding(BindingServiceImpl bindingService, String bindingId, ServiceInstance serviceInstance,
+                                           ServiceInstanceBindingRequest request, Plan plan);
+
+    void asyncDeleteServiceInstanceBinding(BindingServiceImpl bindingService, String bindingId, ServiceInstance serviceInstance,
+                                           String planId);
+
+    JobProgress getProgress(String bindingId);
+}
@@ -2,9 +2,16 @@
 package de.evoila.cf.broker.service;
 
 import de.evoila.cf.broker.exception.*;
+import de.evoila.cf.broker.model.JobProgressResponse;
+import de.evoila.cf.broker.model.Plan;
+import de.evoila.cf.broker.model.ServiceInstance;
 import de.evoila.cf.broker.model.ServiceInstanceBinding;
 import de.evoila.cf.broker.model.ServiceInstanceBindingRequest;
 import de.evoila.cf.broker.model.ServiceInstanceBindingResponse;
+import de.evoila.cf.broker.model.ServiceKeyRequest;
+import de.evoila.cf.broker.model.ServiceKeyResult;
+
+import java.util.List;
 
 /**
  * Handles instances of service definitions.
@@ -29,6 +36,23 @@ public interface BindingService {
             ServiceInstanceDoesNotExistException, ServiceDefinitionDoesNotExistException,
             ServiceInstanceBindingBadRequestException, ServiceBrokerFeatureIsNotSupportedException, InvalidParametersException;
 
+    /**
+     * Validates the request synchronously and, if async is set, creates the binding on the
+     * async job infrastructure. {@link ServiceInstanceBindingResponse#isAsync()} tells whether
+     * the binding was created or has to be polled with {@link #getLastOperation(String)}.
+     *
+     * @param bindingId
+     * @param instanceId
+     * @param request
+     * @param async whether the platform accepts an incomplete, asynchronous operation
+     * @return
+     */
+    ServiceInstanceBindingResponse createServiceInstanceBinding(String bindingId, String instanceId, ServiceInstanceBindingRequest request,
+                                                                boolean async)
+          throws ServiceInstanceBindingExistsException, ServiceBrokerException,
+            ServiceInstanceDoesNotExistException, ServiceDefinitionDoesNotExistException,
+            ServiceInstanceBindingBadRequestException, ServiceBrokerFeatureIsNotSupportedException, InvalidParametersException;
+
     /**
      *
      * @param id
@@ -36,6 +60,32 @@ public interface BindingService {
      */
     ServiceInstanceBinding getServiceInstanceBinding(String id);
 
+    /**
+     * Fetches a created binding for the OSB fetch binding endpoint.
+     *
+     * @param bindingId
+     * @param instanceId
+     * @return
+     * @throws ServiceInstanceBindingDoesNotExistsException if the binding does not exist, is still
+     * being created or does not belong to the instance
+     * @throws ServiceInstanceBindingBadRequestException if the service of the instance does not
+     * declare bindings_retrievable
+     */
+    ServiceInstanceBindingResponse fetchServiceInstanceBinding(String bindingId, String instanceId)
+          throws ServiceInstanceBindingDoesNotExistsException, ServiceInstanceBindingBadRequestException;
+
+    /**
+     *
+     * @param bindingId
+     * @param instanceId
+     * @return
+     * @throws ServiceInstanceDoesNotExistException if the instance does not exist
+     * @throws ServiceInstanceBindingDoesNotExistsException if no asynchronous operation is known for
+     * the binding, which includes completed deletions, or the binding belongs to another instance
+     */
+    JobProgressResponse getLastOperation(String bindingId, String instanceId)
+          throws ServiceInstanceDoesNotExistException, ServiceInstanceBindingDoesNotExistsException;
+
     /**
      *
      * @param bindingId
@@ -46,4 +96,57 @@ public interface BindingService {
      */
     void deleteServiceInstanceBinding(String bindingId, String planId)
           throws ServiceBrokerException, ServiceInstanceBindingDoesNotExistsException, ServiceDefinitionDoesNotExistException;
+
+    /**
+     *
+     * @param bindingId
+     * @param planId
+     * @param async whether the platform accepts an incomplete, asynchronous operation
+     * @return whether the binding is deleted asynchronously
+     * @throws ServiceBrokerException
+     * @throws ServiceInstanceBindingDoesNotExistsException
+     * @throws ServiceDefinitionDoesNotExistException
+     */
+    boolean deleteServiceInstanceBinding(String bindingId, String planId, boolean async)
+          throws ServiceBrokerException, ServiceInstanceBindingDoesNotExistsException, ServiceDefinitionDoesNotExistException;
+
+    /**
+     *
+     * @param instanceId
+     * @param keys
+     * @return one result per key, in the order of the given keys
+     * @throws ServiceInstanceDoesNotExistException
+     * @throws ServiceDefinitionDoesNotExistException
+     */
+    List<ServiceKeyResult> createServiceKeys(String instanceId, List<ServiceKeyRequest> keys)
+          throws ServiceInstanceDoesNotExistException, ServiceDefinitionDoesNotExistException;
+
+    /**
+     *
+     * @param instanceId
+     * @param bindingIds
+     * @return one result per binding id, in the order of the given ids
+     * @throws ServiceInstanceDoesNotExistException
+     * @throws ServiceDefinitionDoesNotExistException
+     */
+    List<ServiceKeyResult> deleteServiceKeys(String instanceId, List<String> bindingIds)
+          throws ServiceInstanceDoesNotExistException, ServiceDefinitionDoesNotExistException;
+
+    /**
+     * Unbinds all bindings of a service instance which is about to be deleted and removes their
+     * HAProxy agents, while the instance is still running. Every binding is tried, failures are
+     * reported together afterwards. The bindings stay stored, a retried deletion unbinds them again.
+     *
+     * @param serviceInstance
+     * @param plan
+     * @throws ServiceBrokerException if any binding could not be unbound
+     */
+    void unbindServiceInstanceBindings(ServiceInstance serviceInstance, Plan plan) throws ServiceBrokerException;
+
+    /**
+     * Removes the stored bindings of a deleted service instance and their job progress.
+     *
+     * @param serviceInstance
+     */
+    void deleteServiceInstanceBindings(ServiceInstance serviceInstance);
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package de.evoila.cf.broker.service;
 
 import de.evoila.cf.broker.model.Catalog;
+import de.evoila.cf.broker.model.Plan;
 import de.evoila.cf.broker.model.ServiceDefinition;
 
 
@@ -22,5 +23,17 @@ public interface CatalogService {
 	 * @return The service definition or null if it doesn't exist
 	 */
 	ServiceDefinition getServiceDefinition(String serviceId);
-	
+
+	/**
+	 * @param planId  The id of a plan in the catalog
+	 * @return The plan or null if it doesn't exist
+	 */
+	Plan getPlan(String planId);
+
+	/**
+	 * @param planId  The id of a plan in the catalog
+	 * @return The service definition the plan belongs to or null if the plan doesn't exist
+	 */
+	ServiceDefinition getServiceDefinitionByPlanId(String planId);
+
 }
@@ -10,11 +10,12 @@ import de.evoila.cf.broker.model.HABackendResponse;
 import de.evoila.cf.broker.model.HAProxyServerAddress;
 import de.evoila.cf.broker.model.Mode;
 import de.evoila.cf.broker.model.ServerAddress;
-import de.evoila.cf.config.security.AcceptSelfSignedClientHttpRequestFactory;
+import de.evoila.cf.broker.util.BoundedExecutor;
+import de.evoila.cf.broker.util.BoundedExecutor.TaskResult;
+import de.evoila.cf.config.http.OutboundHttpClientFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -23,7 +24,10 @@ import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 /**
@@ -50,6 +54,8 @@ public abstract class HAProxyService {
 
 	private HttpHeaders headers = new HttpHeaders();
 
+	private BoundedExecutor executor;
+
 	public HAProxyService(HAProxyConfiguration haProxyConfiguration) {
 		this.haProxyConfiguration = haProxyConfiguration;
 	}
@@ -60,28 +66,69 @@ public abstract class HAProxyService {
 		token = haProxyConfiguration.getToken();
 		headers.add(X_AUTH_TOKEN_HEADER, token);
 		headers.add(CONTENT_TYPE, APPLICATION_JSON);
-		
+		executor = new BoundedExecutor("haproxy-", haProxyConfiguration.getParallelism());
 	}
 
-	@ConditionalOnBean(AcceptSelfSignedClientHttpRequestFactory.class)
+	@PreDestroy
+	private void shutdownExecutor() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Uses the pooled outbound connections if the factory is available, otherwise a plain
+	 * RestTemplate as before.
+	 */
 	@Autowired(required = false)
-	private void selfSignedRestTemplate(AcceptSelfSignedClientHttpRequestFactory requestFactory) {
-		restTemplate.setRequestFactory(requestFactory);
+	private void outboundRestTemplate(OutboundHttpClientFactory outboundHttpClientFactory) {
+		restTemplate = outboundHttpClientFactory.createRestTemplate("haproxy");
 	}
 
+	/**
+	 * Registers all addresses concurrently. If any registration fails, the ones which
+	 * succeeded are removed again before the exception is thrown, so no agents are leaked.
+	 * The thrown exception has the first failed registration as cause.
+	 *
+	 * @return the external addresses in the order of the given internal addresses
+	 */
 	public List<ServerAddress> appendAgent(List<ServerAddress> internalAddresses, String bindingId, String instanceId) throws ServiceBrokerException {
-		List<ServerAddress> externalAddresses = internalAddresses.stream()
-                .map(in -> new HAProxyServerAddress(in, getMode(in), getOptions(in)))
-                .map(in -> appendSingleAgent(in, bindingId, instanceId))
-				.filter(in -> in != null).collect(Collectors.toList());
+		List<Callable<ServerAddress>> tasks = internalAddresses.stream()
+				.map(in -> new HAProxyServerAddress(in, getMode(in), getOptions(in)))
+				.map(in -> (Callable<ServerAddress>) () -> appendSingleAgent(in, bindingId, instanceId))
+				.collect(Collectors.toList());
+		List<TaskResult<ServerAddress>> results = executor.invokeAll(tasks);
+
+		List<ServerAddress> externalAddresses = new ArrayList<>(results.size());
+		List<ServerAddress> registeredAddresses = new ArrayList<>(results.size());
+		Throwable firstError = null;
+		for (int i = 0; i < results.size(); i++) {
+			TaskResult<ServerAddress> result = results.get(i);
+			if (result.isSuccess()) {
+				externalAddresses.add(result.getValue());
+				registeredAddresses.add(internalAddresses.get(i));
+			} else if (firstError == null) {
+				firstError = result.getError();
+			}
+		}
 
-		if (externalAddresses.size() < internalAddresses.size())
-			throw new ServiceBrokerException("Could not provide external IPs for all parts of the service instance.");
+		if (firstError != null) {
+			log.warn("Registered " + registeredAddresses.size() + " of " + internalAddresses.size()
+					+ " addresses for binding " + bindingId + ", removing them again");
+			try {
+				removeAgent(registeredAddresses, bindingId);
+			} catch (ServiceBrokerException e) {
+				log.error("Could not roll back HAProxy registrations of binding " + bindingId, e);
+			}
+			ServiceBrokerException exception = new ServiceBrokerException(
+					"Could not provide external IPs for all parts of the service instance.");
+			exception.initCause(firstError);
+			throw exception;
+		}
 
 		return externalAddresses;
 	}
 
-	private ServerAddress appendSingleAgent(HAProxyServerAddress internalAddress, String bindingId, String instanceId) {
+	private ServerAddress appendSingleAgent(HAProxyServerAddress internalAddress, String bindingId, String instanceId)
+			throws ServiceBrokerException {
 		HAProxyServerAddress bindingAddress = new HAProxyServerAddress(internalAddress, bindingId);
 		
 		HttpEntity<HAProxyServerAddress> entity = new HttpEntity<>(bindingAddress, headers);
@@ -97,15 +144,37 @@ public abstract class HAProxyService {
 				return serverAddress;
 			}
 		} catch (RestClientException e) {
-			e.printStackTrace();
+			log.error("Could not register " + internalAddress.getIp() + ":" + internalAddress.getPort()
+					+ " at " + haProxy, e);
+			ServiceBrokerException exception = new ServiceBrokerException("Could not register external IP "
+					+ internalAddress.getName() + " - " + internalAddress.getIp() + ":" + internalAddress.getPort());
+			exception.initCause(e);
+			throw exception;
 		}
 
-		return null;
+		throw new ServiceBrokerException("Could not register external IP " + internalAddress.getName() + " - "
+				+ internalAddress.getIp() + ":" + internalAddress.getPort());
 	}
 
+	/**
+	 * Removes all addresses concurrently. Every removal is attempted, the first failure
+	 * is thrown once all of them have finished.
+	 */
 	public void removeAgent(List<ServerAddress> internalAddresses, String bindingId) throws ServiceBrokerException {
-		for (ServerAddress internalAddress : internalAddresses) {
-			removeSingleAgent(internalAddress, bindingId);
+		List<Callable<Void>> tasks = internalAddresses.stream()
+				.map(in -> (Callable<Void>) () -> {
+					removeSingleAgent(in, bindingId);
+					return null;
+				})
+				.collect(Collectors.toList());
+
+		for (TaskResult<Void> result : executor.invokeAll(tasks)) {
+			if (!result.isSuccess()) {
+				if (result.getError() instanceof ServiceBrokerException)
+					throw (ServiceBrokerException) result.getError();
+
+				throw new ServiceBrokerException("Could not remove external IPs of binding " + bindingId);
+			}
 		}
 	}
 
@@ -119,7 +188,8 @@ public abstract class HAProxyService {
 				throw new ServiceBrokerException("Could not remove external IP " + internalAddress.getName() + " - "
 						+ internalAddress.getIp() + ":" + internalAddress.getPort());
 		} catch (RestClientException e) {
-			e.printStackTrace();
+			log.error("Could not remove " + internalAddress.getIp() + ":" + internalAddress.getPort()
+					+ " of binding " + bindingId + " at " + haProxy, e);
 			throw new ServiceBrokerException("Could not remove external IP " + internalAddress.getName() + " - "
 					+ internalAddress.getIp() + ":" + internalAddress.getPort());
 		}
@@ -26,18 +26,38 @@ public class JobProgressService  {
 	}
 
 	public void startJob(ServiceInstance serviceInstance) {
-		changeStatus(serviceInstance, JobProgress.IN_PROGRESS);
+		startJob(serviceInstance.getId());
 	}
 
 	public void failJob(ServiceInstance serviceInstance, String description) {
-		changeStatus(serviceInstance, JobProgress.FAILED);
+		failJob(serviceInstance.getId(), description);
 	}
 
 	public void succeedProgress(ServiceInstance serviceInstance) {
-		changeStatus(serviceInstance, JobProgress.SUCCESS);
+		succeedProgress(serviceInstance.getId());
 	}
 
-	private void changeStatus(ServiceInstance serviceInstance, String newStatus) {
-		jobRepository.saveOrUpdateJobProgress(serviceInstance.getId(), newStatus);
+	/**
+	 * The id based variants track jobs of other resources than service instances,
+	 * e.g. asynchronous service bindings, which are keyed by their binding id.
+	 */
+	public void startJob(String id) {
+		changeStatus(id, JobProgress.IN_PROGRESS);
+	}
+
+	public void failJob(String id, String description) {
+		changeStatus(id, JobProgress.FAILED);
+	}
+
+	public void succeedProgress(String id) {
+		changeStatus(id, JobProgress.SUCCESS);
+	}
+
+	public void deleteJob(String id) {
+		jobRepository.deleteJobProgress(id);
+	}
+
+	private void changeStatus(String id, String newStatus) {
+		jobRepository.saveOrUpdateJobProgress(id, newStatus);
 	}
 }
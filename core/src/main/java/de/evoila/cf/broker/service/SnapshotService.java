@@ -0,0 +1,35 @@
+package de.evoila.cf.broker.service;
+
+import de.evoila.cf.broker.exception.ServiceBrokerException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Exports the state of the broker repositories into a compact, versioned binary
+ * snapshot and restores it again, e.g. for migrations or disaster recovery.
+ */
+public interface SnapshotService {
+
+    /**
+     * Streams all stored service instances together with their bindings, route bindings
+     * and the job progress of instances and bindings into the given stream. The stream is
+     * not closed. Whether the description of a job survives a restore depends on
+     * {@link de.evoila.cf.broker.repository.JobRepository#saveJobProgress}.
+     *
+     * @return The number of records written
+     */
+    long exportSnapshot(OutputStream outputStream) throws IOException;
+
+    /**
+     * Reads a snapshot and writes its records back into the repositories in parallel
+     * batches. The stream is not closed.
+     *
+     * @return The number of records restored
+     * @throws IOException if the snapshot is not readable, truncated or corrupted
+     * @throws ServiceBrokerException if records could not be written to the repositories
+     */
+    long restoreSnapshot(InputStream inputStream) throws IOException, ServiceBrokerException;
+
+}
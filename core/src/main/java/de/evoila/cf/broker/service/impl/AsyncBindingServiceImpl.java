@@ -0,0 +1,72 @@
+package de.evoila.cf.broker.service.impl;
+
+import de.evoila.cf.broker.model.JobProgress;
+import de.evoila.cf.broker.model.Plan;
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.model.ServiceInstanceBindingRequest;
+import de.evoila.cf.broker.service.AsyncBindingService;
+import de.evoila.cf.broker.service.JobProgressService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+@Service
+public class AsyncBindingServiceImpl implements AsyncBindingService {
+
+    private final Logger log = LoggerFactory.getLogger(AsyncBindingServiceImpl.class);
+
+    private JobProgressService progressService;
+
+    public AsyncBindingServiceImpl(JobProgressService progressService) {
+        this.progressService = progressService;
+    }
+
+    @Async
+    @Override
+    public void asyncCreateServiceInstanceBinding(BindingServiceImpl bindingService, String bindingId, ServiceInstance serviceInstance,
+                                                  ServiceInstanceBindingRequest request, Plan plan) {
+        try {
+            bindingService.syncCreateServiceInstanceBinding(bindingId, serviceInstance, request, plan);
+        } catch (Exception e) {
+            progressService.failJob(bindingId,
+                    "Internal error during Binding creation, please contact our support.");
+
+            log.error("Exception during Binding creation", e);
+            return;
+        }
+        progressService.succeedProgress(bindingId);
+    }
+
+    /**
+     * Removes the job progress once the binding is deleted, so polling the last operation
+     * answers with 410 Gone, which the Cloud Controller treats as a successful deletion.
+     */
+    @Async
+    @Override
+    public void asyncDeleteServiceInstanceBinding(BindingServiceImpl bindingService, String bindingId, ServiceInstance serviceInstance,
+                                                  String planId) {
+        try {
+            bindingService.syncDeleteServiceInstanceBinding(bindingId, serviceInstance, planId);
+        } catch (Exception e) {
+            progressService.failJob(bindingId,
+                    "Internal error during Binding deletion, please contact our support.");
+
+            log.error("Exception during Binding deletion", e);
+            return;
+        }
+        progressService.deleteJob(bindingId);
+    }
+
+    @Override
+    public JobProgress getProgress(String bindingId) {
+        try {
+            return progressService.getProgress(bindingId);
+        } catch (Exception e) {
+            log.error("Error during job progress retrieval", e);
+            JobProgress jobProgress = new JobProgress(bindingId, JobProgress.UNKNOWN);
+            jobProgress.setDescription("Error during job progress retrieval");
+            return jobProgress;
+        }
+    }
+}
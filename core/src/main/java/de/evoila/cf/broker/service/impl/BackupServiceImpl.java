@@ -6,15 +6,13 @@ import de.evoila.cf.broker.controller.utils.RestPageImpl;
 import de.evoila.cf.broker.exception.ServiceInstanceDoesNotExistException;
 import de.evoila.cf.broker.service.BackupCustomService;
 import de.evoila.cf.broker.service.BackupService;
-import de.evoila.cf.config.security.AcceptSelfSignedClientHttpRequestFactory;
+import de.evoila.cf.config.http.OutboundHttpClientFactory;
 import de.evoila.cf.model.*;
 import de.evoila.cf.model.enums.DestinationType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.data.domain.Pageable;
@@ -45,23 +43,18 @@ public class BackupServiceImpl implements BackupService {
     private BackupCustomService backupCustomService;
 
     public BackupServiceImpl(BackupConfiguration backupConfiguration, BackupCustomService backupCustomService,
-                             RabbitTemplate rabbitTemplate) {
+                             RabbitTemplate rabbitTemplate, OutboundHttpClientFactory outboundHttpClientFactory) {
         Assert.notNull(backupConfiguration, "BackupConfiguration can not be null");
         Assert.notNull(rabbitTemplate, "RabbitTemplate can not be null");
+        Assert.notNull(outboundHttpClientFactory, "OutboundHttpClientFactory can not be null");
 
         this.backupConfiguration = backupConfiguration;
         this.backupCustomService = backupCustomService;
-        this.restTemplate = new RestTemplate();
+        this.restTemplate = outboundHttpClientFactory.createRestTemplate("backup");
         this.rabbitTemplate = rabbitTemplate;
         this.rabbitTemplate.setMessageConverter(new Jackson2JsonMessageConverter());
     }
 
-    @ConditionalOnBean(AcceptSelfSignedClientHttpRequestFactory.class)
-    @Autowired(required = false)
-    private void selfSignedRestTemplate(AcceptSelfSignedClientHttpRequestFactory requestFactory) {
-        restTemplate.setRequestFactory(requestFactory);
-    }
-
     @PostConstruct
     private void backupEndpointHeaders() {
         this.headers = new HttpHeaders();
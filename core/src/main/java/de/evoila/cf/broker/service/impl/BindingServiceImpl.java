@@ -4,21 +4,35 @@
 package de.evoila.cf.broker.service.impl;
 
 import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.google.common.util.concurrent.Striped;
+import de.evoila.cf.broker.bean.ServiceKeysConfiguration;
 import de.evoila.cf.broker.exception.*;
 import de.evoila.cf.broker.model.*;
 import de.evoila.cf.broker.repository.BindingRepository;
 import de.evoila.cf.broker.repository.RouteBindingRepository;
 import de.evoila.cf.broker.repository.ServiceDefinitionRepository;
 import de.evoila.cf.broker.repository.ServiceInstanceRepository;
+import de.evoila.cf.broker.service.AsyncBindingService;
 import de.evoila.cf.broker.service.BindingService;
+import de.evoila.cf.broker.service.CatalogService;
 import de.evoila.cf.broker.service.HAProxyService;
+import de.evoila.cf.broker.service.JobProgressService;
+import de.evoila.cf.broker.util.BoundedExecutor;
+import de.evoila.cf.broker.util.BoundedExecutor.TaskResult;
 import de.evoila.cf.broker.util.ParameterValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.Lock;
 
 /**
  * @author Johannes Hiemer.
@@ -38,6 +52,21 @@ public abstract class BindingServiceImpl implements BindingService {
 
 	protected HAProxyService haProxyService;
 
+	protected AsyncBindingService asyncBindingService;
+
+	protected JobProgressService jobProgressService;
+
+	protected ServiceKeysConfiguration serviceKeysConfiguration;
+
+	protected CatalogService catalogService;
+
+	private volatile BoundedExecutor bindingExecutor;
+
+	/**
+	 * Serializes checking and starting the asynchronous job of the same binding id.
+	 */
+	private final Striped<Lock> bindingJobLocks = Striped.lock(64);
+
 	public BindingServiceImpl(BindingRepository bindingRepository, ServiceDefinitionRepository serviceDefinitionRepository,
 							  ServiceInstanceRepository serviceInstanceRepository, RouteBindingRepository routeBindingRepository,
 							  HAProxyService haProxyService) {
@@ -48,10 +77,74 @@ public abstract class BindingServiceImpl implements BindingService {
 		this.haProxyService = haProxyService;
 	}
 
+	@Autowired(required = false)
+	public void setAsyncBindingService(AsyncBindingService asyncBindingService) {
+		this.asyncBindingService = asyncBindingService;
+	}
+
+	@Autowired(required = false)
+	public void setJobProgressService(JobProgressService jobProgressService) {
+		this.jobProgressService = jobProgressService;
+	}
+
+	@Autowired(required = false)
+	public void setServiceKeysConfiguration(ServiceKeysConfiguration serviceKeysConfiguration) {
+		this.serviceKeysConfiguration = serviceKeysConfiguration;
+	}
+
+	@Autowired(required = false)
+	public void setCatalogService(CatalogService catalogService) {
+		this.catalogService = catalogService;
+	}
+
+	@PreDestroy
+	public void shutdownBindingExecutor() {
+		BoundedExecutor executor = bindingExecutor;
+		if (executor != null)
+			executor.shutdown();
+	}
+
+	private boolean isAsyncSupported() {
+		return asyncBindingService != null && jobProgressService != null;
+	}
+
+	/**
+	 * Marks the job of the binding as in progress, unless a job of it is already running.
+	 * Concurrent requests for the same binding id are serialized within this broker.
+	 *
+	 * @return true if the caller has to start the job
+	 */
+	private boolean startBindingJob(String bindingId) {
+		Lock lock = bindingJobLocks.get(bindingId);
+		lock.lock();
+		try {
+			JobProgress progress = asyncBindingService.getProgress(bindingId);
+			if (progress != null && JobProgress.IN_PROGRESS.equals(progress.getState()))
+				return false;
+
+			jobProgressService.startJob(bindingId);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void deleteBindingJob(String bindingId) {
+		if (jobProgressService != null)
+			jobProgressService.deleteJob(bindingId);
+	}
+
 	@Override
 	public ServiceInstanceBindingResponse createServiceInstanceBinding(String bindingId, String instanceId,
 			ServiceInstanceBindingRequest serviceInstanceBindingRequest) throws ServiceInstanceBindingExistsException,
 			ServiceBrokerException, ServiceDefinitionDoesNotExistException, ServiceInstanceDoesNotExistException, InvalidParametersException {
+		return createServiceInstanceBinding(bindingId, instanceId, serviceInstanceBindingRequest, false);
+	}
+
+	@Override
+	public ServiceInstanceBindingResponse createServiceInstanceBinding(String bindingId, String instanceId,
+			ServiceInstanceBindingRequest serviceInstanceBindingRequest, boolean async) throws ServiceInstanceBindingExistsException,
+			ServiceBrokerException, ServiceDefinitionDoesNotExistException, ServiceInstanceDoesNotExistException, InvalidParametersException {
 
 		validateBindingNotExists(bindingId, instanceId);
 
@@ -69,6 +162,23 @@ public abstract class BindingServiceImpl implements BindingService {
 			}
 		}
 
+		if (async && isAsyncSupported()) {
+			ServiceInstanceBindingResponse response = new ServiceInstanceBindingResponse();
+			response.setAsync(true);
+
+			// A repeated request for a binding which is still being created must not start a second job
+			if (startBindingJob(bindingId))
+				asyncBindingService.asyncCreateServiceInstanceBinding(this, bindingId, serviceInstance, serviceInstanceBindingRequest, plan);
+
+			return response;
+		}
+
+		return syncCreateServiceInstanceBinding(bindingId, serviceInstance, serviceInstanceBindingRequest, plan);
+	}
+
+	public ServiceInstanceBindingResponse syncCreateServiceInstanceBinding(String bindingId, ServiceInstance serviceInstance,
+			ServiceInstanceBindingRequest serviceInstanceBindingRequest, Plan plan) throws ServiceBrokerException, InvalidParametersException {
+
 		if (serviceInstanceBindingRequest.getBindResource() != null && !StringUtils
                 .isEmpty(serviceInstanceBindingRequest.getBindResource().getRoute())) {
 
@@ -78,10 +188,15 @@ public abstract class BindingServiceImpl implements BindingService {
 			return response;
 		}
 
+		return new ServiceInstanceBindingResponse(createBinding(bindingId, serviceInstanceBindingRequest, serviceInstance, plan));
+	}
+
+	protected ServiceInstanceBinding createBinding(String bindingId, ServiceInstanceBindingRequest serviceInstanceBindingRequest,
+			ServiceInstance serviceInstance, Plan plan) throws ServiceBrokerException, InvalidParametersException {
 		ServiceInstanceBinding binding;
 		if (haProxyService != null && (serviceInstanceBindingRequest.getAppGuid() == null ||
                 (serviceInstanceBindingRequest.getBindResource() != null && serviceInstanceBindingRequest.getBindResource().getAppGuid() == null))) {
-			List<ServerAddress> externalServerAddresses = haProxyService.appendAgent(serviceInstance.getHosts(), bindingId, instanceId);
+			List<ServerAddress> externalServerAddresses = haProxyService.appendAgent(serviceInstance.getHosts(), bindingId, serviceInstance.getId());
 
 			binding = bindServiceKey(bindingId, serviceInstanceBindingRequest, serviceInstance, plan, externalServerAddresses);
 		} else {
@@ -90,7 +205,190 @@ public abstract class BindingServiceImpl implements BindingService {
 
 		bindingRepository.addInternalBinding(binding);
 
-		return new ServiceInstanceBindingResponse(binding);
+		return binding;
+	}
+
+	/**
+	 * Creates one service key per request. The instance and plan are resolved once for the whole
+	 * batch and each distinct set of parameters is validated once, as the keys of a batch usually
+	 * share their parameters. The keys are created with the parallelism of
+	 * {@link ServiceKeysConfiguration} and a failing key does not affect the others.
+	 */
+	@Override
+	public List<ServiceKeyResult> createServiceKeys(String instanceId, List<ServiceKeyRequest> keys)
+			throws ServiceInstanceDoesNotExistException, ServiceDefinitionDoesNotExistException {
+		ServiceInstance serviceInstance = serviceInstanceRepository.getServiceInstance(instanceId);
+		if (serviceInstance == null) {
+			throw new ServiceInstanceDoesNotExistException(instanceId);
+		}
+
+		Plan plan = serviceDefinitionRepository.getPlan(serviceInstance.getPlanId());
+
+		Map<Map<String, Object>, Exception> validationErrors = new HashMap<>();
+		List<String> bindingIds = new ArrayList<>(keys.size());
+		List<Callable<ServiceInstanceBinding>> tasks = new ArrayList<>(keys.size());
+		for (ServiceKeyRequest key : keys) {
+			String bindingId = UUID.randomUUID().toString();
+			ServiceInstanceBindingRequest request = new ServiceInstanceBindingRequest(serviceInstance.getServiceDefinitionId(),
+					serviceInstance.getPlanId());
+			request.setParameters(key.getParameters());
+			Exception validationError = validateServiceKeyParameters(request, plan, validationErrors);
+
+			bindingIds.add(bindingId);
+			tasks.add(() -> {
+				if (validationError != null)
+					throw validationError;
+
+				return createBinding(bindingId, request, serviceInstance, plan);
+			});
+		}
+
+		return toServiceKeyResults(bindingIds, invokeBindingTasks(tasks));
+	}
+
+	private Exception validateServiceKeyParameters(ServiceInstanceBindingRequest request, Plan plan,
+			Map<Map<String, Object>, Exception> validationErrors) {
+		Map<String, Object> parameters = request.getParameters();
+		if (parameters == null || parameters.isEmpty())
+			return null;
+
+		if (validationErrors.containsKey(parameters))
+			return validationErrors.get(parameters);
+
+		Exception validationError = null;
+		try {
+			ParameterValidator.validateParameters(request, plan);
+		} catch (InvalidParametersException | ProcessingException e) {
+			validationError = e;
+		}
+		validationErrors.put(parameters, validationError);
+		return validationError;
+	}
+
+	/**
+	 * Deletes the given service keys of an instance, resolving the instance and plan once for
+	 * the whole batch. Keys which do not exist or belong to another instance are reported as failed.
+	 */
+	@Override
+	public List<ServiceKeyResult> deleteServiceKeys(String instanceId, List<String> bindingIds)
+			throws ServiceInstanceDoesNotExistException, ServiceDefinitionDoesNotExistException {
+		ServiceInstance serviceInstance = serviceInstanceRepository.getServiceInstance(instanceId);
+		if (serviceInstance == null) {
+			throw new ServiceInstanceDoesNotExistException(instanceId);
+		}
+
+		Plan plan = serviceDefinitionRepository.getPlan(serviceInstance.getPlanId());
+
+		List<Callable<ServiceInstanceBinding>> tasks = new ArrayList<>(bindingIds.size());
+		for (String bindingId : bindingIds) {
+			tasks.add(() -> {
+				ServiceInstanceBinding binding = null;
+				if (bindingRepository.containsInternalBindingId(bindingId))
+					binding = bindingRepository.findOne(bindingId);
+
+				if (binding == null || !instanceId.equals(binding.getServiceInstanceId()))
+					throw new ServiceInstanceBindingDoesNotExistsException(bindingId);
+
+				syncDeleteServiceInstanceBinding(bindingId, serviceInstance, plan);
+				return null;
+			});
+		}
+
+		return toServiceKeyResults(bindingIds, invokeBindingTasks(tasks));
+	}
+
+	/**
+	 * The bindings are unbound and their HAProxy agents removed in parallel, so brokers can clean
+	 * up resources which live outside of the instance while it can still be reached.
+	 */
+	@Override
+	public void unbindServiceInstanceBindings(ServiceInstance serviceInstance, Plan plan) throws ServiceBrokerException {
+		List<ServiceInstanceBinding> bindings = bindingRepository.getBindingsForServiceInstance(serviceInstance.getId());
+		if (bindings == null || bindings.isEmpty())
+			return;
+
+		List<Callable<Void>> tasks = new ArrayList<>(bindings.size());
+		for (ServiceInstanceBinding binding : bindings) {
+			tasks.add(() -> {
+				if (binding.getExternalServerAddresses() != null && haProxyService != null)
+					haProxyService.removeAgent(serviceInstance.getHosts(), binding.getId());
+
+				unbindService(binding, serviceInstance, plan);
+				return null;
+			});
+		}
+
+		List<TaskResult<Void>> results = invokeBindingTasks(tasks);
+		List<String> failedBindingIds = new ArrayList<>();
+		Throwable firstError = null;
+		for (int i = 0; i < results.size(); i++) {
+			if (!results.get(i).isSuccess()) {
+				log.error("Could not unbind service binding " + bindings.get(i).getId() + " of service instance "
+						+ serviceInstance.getId(), results.get(i).getError());
+				failedBindingIds.add(bindings.get(i).getId());
+				if (firstError == null)
+					firstError = results.get(i).getError();
+			}
+		}
+
+		if (!failedBindingIds.isEmpty()) {
+			// The constructor taking a cause does not keep the message
+			ServiceBrokerException exception = new ServiceBrokerException("Could not unbind service bindings "
+					+ failedBindingIds + " of service instance " + serviceInstance.getId());
+			exception.initCause(firstError);
+			throw exception;
+		}
+	}
+
+	/**
+	 * All bindings are removed from the repository with one bulk call.
+	 */
+	@Override
+	public void deleteServiceInstanceBindings(ServiceInstance serviceInstance) {
+		List<ServiceInstanceBinding> bindings = bindingRepository.getBindingsForServiceInstance(serviceInstance.getId());
+		if (bindings == null || bindings.isEmpty())
+			return;
+
+		List<String> bindingIds = new ArrayList<>(bindings.size());
+		for (ServiceInstanceBinding binding : bindings)
+			bindingIds.add(binding.getId());
+
+		bindingRepository.deleteBindings(bindingIds);
+		bindingIds.forEach(this::deleteBindingJob);
+	}
+
+	/**
+	 * All batches share one executor, so concurrent batch requests together never process more
+	 * bindings in parallel than configured. The executor is created on first use, as the
+	 * configuration is injected after construction.
+	 */
+	private <T> List<TaskResult<T>> invokeBindingTasks(List<Callable<T>> tasks) {
+		BoundedExecutor executor = bindingExecutor;
+		if (executor == null) {
+			synchronized (this) {
+				executor = bindingExecutor;
+				if (executor == null) {
+					int parallelism = serviceKeysConfiguration != null ? serviceKeysConfiguration.getParallelism() : 1;
+					executor = new BoundedExecutor("bindings-", Math.max(1, parallelism));
+					bindingExecutor = executor;
+				}
+			}
+		}
+		return executor.invokeAll(tasks);
+	}
+
+	private List<ServiceKeyResult> toServiceKeyResults(List<String> bindingIds, List<TaskResult<ServiceInstanceBinding>> taskResults) {
+		List<ServiceKeyResult> results = new ArrayList<>(taskResults.size());
+		for (int i = 0; i < taskResults.size(); i++) {
+			TaskResult<ServiceInstanceBinding> taskResult = taskResults.get(i);
+			if (taskResult.isSuccess()) {
+				results.add(ServiceKeyResult.succeeded(bindingIds.get(i), taskResult.getValue()));
+			} else {
+				log.error("Could not process service key " + bindingIds.get(i), taskResult.getError());
+				results.add(ServiceKeyResult.failed(bindingIds.get(i), taskResult.getError().getMessage()));
+			}
+		}
+		return results;
 	}
 
 	protected abstract RouteBinding bindRoute(ServiceInstance serviceInstance, String route);
@@ -102,11 +400,95 @@ public abstract class BindingServiceImpl implements BindingService {
 		return binding;
 	}
 
+	@Override
+	public ServiceInstanceBindingResponse fetchServiceInstanceBinding(String bindingId, String instanceId)
+			throws ServiceInstanceBindingDoesNotExistsException, ServiceInstanceBindingBadRequestException {
+		ServiceInstance serviceInstance = serviceInstanceRepository.getServiceInstance(instanceId);
+		if (serviceInstance == null)
+			throw new ServiceInstanceBindingDoesNotExistsException(bindingId);
+
+		if (!isBindingsRetrievable(serviceInstance.getServiceDefinitionId()))
+			throw new ServiceInstanceBindingBadRequestException(bindingId, "bindings of service "
+					+ serviceInstance.getServiceDefinitionId() + " are not retrievable");
+
+		ServiceInstanceBinding binding = null;
+		if (bindingRepository.containsInternalBindingId(bindingId))
+			binding = bindingRepository.findOne(bindingId);
+
+		if (binding == null || !instanceId.equals(binding.getServiceInstanceId()))
+			throw new ServiceInstanceBindingDoesNotExistsException(bindingId);
+
+		return new ServiceInstanceBindingResponse(binding);
+	}
+
+	/**
+	 * Bindings are only retrievable if the catalog, looked up through its index, says so.
+	 */
+	private boolean isBindingsRetrievable(String serviceDefinitionId) {
+		ServiceDefinition serviceDefinition = catalogService != null
+				? catalogService.getServiceDefinition(serviceDefinitionId) : null;
+		return serviceDefinition != null && serviceDefinition.isBindingsRetrievable();
+	}
+
+	/**
+	 * A stored binding has to belong to the given instance. Bindings which are still being
+	 * created are not stored yet, for them only the instance is checked. A succeeded job of a
+	 * binding which is not stored is left over from a deletion and answered as gone.
+	 */
+	@Override
+	public JobProgressResponse getLastOperation(String bindingId, String instanceId)
+			throws ServiceInstanceDoesNotExistException, ServiceInstanceBindingDoesNotExistsException {
+		if (!serviceInstanceRepository.containsServiceInstanceId(instanceId))
+			throw new ServiceInstanceDoesNotExistException(instanceId);
+
+		ServiceInstanceBinding binding = bindingRepository.containsInternalBindingId(bindingId)
+				? bindingRepository.findOne(bindingId) : null;
+		if (binding != null && !instanceId.equals(binding.getServiceInstanceId()))
+			throw new ServiceInstanceBindingDoesNotExistsException(bindingId);
+
+		JobProgress progress = isAsyncSupported() ? asyncBindingService.getProgress(bindingId) : null;
+		if (progress == null || (binding == null && JobProgress.SUCCESS.equals(progress.getState())))
+			throw new ServiceInstanceBindingDoesNotExistsException(bindingId);
+
+		return new JobProgressResponse(progress);
+	}
+
 	@Override
 	public void deleteServiceInstanceBinding(String bindingId, String planId)
 			throws ServiceInstanceBindingDoesNotExistsException, ServiceDefinitionDoesNotExistException {
+		deleteServiceInstanceBinding(bindingId, planId, false);
+	}
+
+	@Override
+	public boolean deleteServiceInstanceBinding(String bindingId, String planId, boolean async)
+			throws ServiceInstanceBindingDoesNotExistsException, ServiceDefinitionDoesNotExistException {
 		ServiceInstance serviceInstance = getBinding(bindingId);
 
+		if (async && isAsyncSupported()) {
+			// A repeated request for a binding which is still being deleted must not start a second job
+			if (startBindingJob(bindingId))
+				asyncBindingService.asyncDeleteServiceInstanceBinding(this, bindingId, serviceInstance, planId);
+			return true;
+		}
+
+		syncDeleteServiceInstanceBinding(bindingId, serviceInstance, planId);
+		return false;
+	}
+
+	public void syncDeleteServiceInstanceBinding(String bindingId, ServiceInstance serviceInstance, String planId)
+			throws ServiceDefinitionDoesNotExistException {
+		Plan plan;
+		try {
+			plan = serviceDefinitionRepository.getPlan(planId);
+		} catch (ServiceDefinitionDoesNotExistException e) {
+			bindingRepository.unbindService(bindingId);
+			throw e;
+		}
+
+		syncDeleteServiceInstanceBinding(bindingId, serviceInstance, plan);
+	}
+
+	protected void syncDeleteServiceInstanceBinding(String bindingId, ServiceInstance serviceInstance, Plan plan) {
 		try {
 			ServiceInstanceBinding binding = bindingRepository.findOne(bindingId);
 			List<ServerAddress> externalServerAddresses = binding.getExternalServerAddresses();
@@ -114,13 +496,12 @@ public abstract class BindingServiceImpl implements BindingService {
 				haProxyService.removeAgent(serviceInstance.getHosts(), bindingId);
 			}
 
-            Plan plan = serviceDefinitionRepository.getPlan(planId);
-
 			unbindService(binding, serviceInstance, plan);
 		} catch (ServiceBrokerException e) {
 			log.error("Could not cleanup service binding", e);
 		} finally {
 			bindingRepository.unbindService(bindingId);
+			deleteBindingJob(bindingId);
 		}
 	}
 
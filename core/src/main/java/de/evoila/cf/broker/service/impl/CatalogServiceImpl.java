@@ -1,24 +1,40 @@
 package de.evoila.cf.broker.service.impl;
 
 import de.evoila.cf.broker.bean.EndpointConfiguration;
+import de.evoila.cf.broker.catalog.CatalogIndex;
+import de.evoila.cf.broker.catalog.CatalogRefreshedEvent;
+import de.evoila.cf.broker.catalog.CatalogValidator;
 import de.evoila.cf.broker.model.Catalog;
+import de.evoila.cf.broker.model.Plan;
 import de.evoila.cf.broker.model.ServiceDefinition;
 import de.evoila.cf.broker.service.CatalogService;
 import de.evoila.cf.broker.util.GlobalConstants;
+import de.evoila.cf.broker.util.ParameterValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
  * An implementation of the CatalogService that gets the catalog injected (ie
  * configure in spring config)
  *
+ * When the catalog properties change through a Spring Cloud Config refresh or a bus
+ * event, the catalog is bound again, validated and indexed on the refreshing thread and
+ * then swapped in with a single volatile write. Readers always see either the old or
+ * the new catalog together with its index and never block.
+ *
  * @author Johannes Hiemer.
  * @author Christian Brinker, evoila.
  */
@@ -27,33 +43,95 @@ public class CatalogServiceImpl implements CatalogService {
 
 	private final Logger logger = LoggerFactory.getLogger(CatalogServiceImpl.class);
 
-	private Catalog catalog;
+	private static final String CATALOG_PREFIX = "catalog";
+
+	private volatile CatalogIndex catalogIndex;
 
 	private Environment environment;
 
 	private EndpointConfiguration endpointConfiguration;
 
-	public CatalogServiceImpl(Catalog catalog, Environment environment, EndpointConfiguration endpointConfiguration) {
-		this.catalog = catalog;
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	public CatalogServiceImpl(Catalog catalog, Environment environment, EndpointConfiguration endpointConfiguration,
+							  ApplicationEventPublisher applicationEventPublisher) {
 		this.environment = environment;
 		this.endpointConfiguration = endpointConfiguration;
-		prepareCatalogIfTesting(catalog);
+		this.applicationEventPublisher = applicationEventPublisher;
+
+		Catalog initialCatalog = copyOf(catalog);
+		prepareCatalogIfTesting(initialCatalog);
+		CatalogValidator.validate(initialCatalog)
+				.forEach(error -> logger.warn("Invalid catalog: " + error));
+		this.catalogIndex = new CatalogIndex(initialCatalog);
 	}
 
 	@Override
 	public Catalog getCatalog() {
-		return catalog;
+		return catalogIndex.getCatalog();
 	}
 
 	@Override
 	public ServiceDefinition getServiceDefinition(String serviceId) {
-		return catalog.getServices().stream()
-                .filter(serviceDefinition -> {
-                    if (serviceDefinition.getId().equals(serviceId))
-                        return true;
-                    else
-                        return false;
-                }).findFirst().orElse(null);
+		return catalogIndex.getServiceDefinition(serviceId);
+	}
+
+	@Override
+	public Plan getPlan(String planId) {
+		return catalogIndex.getPlan(planId);
+	}
+
+	@Override
+	public ServiceDefinition getServiceDefinitionByPlanId(String planId) {
+		return catalogIndex.getServiceDefinitionByPlanId(planId);
+	}
+
+	@EventListener
+	public void onEnvironmentChange(EnvironmentChangeEvent event) {
+		if (event.getKeys().stream().anyMatch(key -> key.startsWith(CATALOG_PREFIX + ".")))
+			reloadCatalog();
+	}
+
+	/**
+	 * Binds the catalog from the current environment and swaps it in, if it is valid.
+	 * An invalid catalog is logged and the current catalog stays in place.
+	 *
+	 * @return true if the new catalog was swapped in
+	 */
+	public synchronized boolean reloadCatalog() {
+		Catalog catalog;
+		try {
+			catalog = copyOf(Binder.get(environment).bind(CATALOG_PREFIX, Catalog.class).orElseGet(Catalog::new));
+			prepareCatalogIfTesting(catalog);
+		} catch (RuntimeException e) {
+			logger.error("Could not bind refreshed catalog, keeping the current catalog", e);
+			return false;
+		}
+
+		List<String> errors = CatalogValidator.validate(catalog);
+		if (!errors.isEmpty()) {
+			logger.error("Refreshed catalog is invalid, keeping the current catalog: " + String.join(", ", errors));
+			return false;
+		}
+
+		this.catalogIndex = new CatalogIndex(catalog);
+		ParameterValidator.clearSchemaCache();
+		logger.info("Catalog refreshed with " + catalog.getServices().size() + " services");
+
+		applicationEventPublisher.publishEvent(new CatalogRefreshedEvent(this, catalog));
+		return true;
+	}
+
+	/**
+	 * The bound catalog bean is rebound in place on refresh, including its list of
+	 * services, so the service keeps its own list.
+	 */
+	private Catalog copyOf(Catalog source) {
+		Catalog catalog = new Catalog();
+		if (source.getServices() != null)
+			catalog.setServices(new ArrayList<>(source.getServices()));
+
+		return catalog;
 	}
 
 	private Catalog prepareCatalogIfTesting(Catalog catalog) {
@@ -11,11 +11,14 @@ import de.evoila.cf.broker.repository.PlatformRepository;
 import de.evoila.cf.broker.repository.ServiceDefinitionRepository;
 import de.evoila.cf.broker.repository.ServiceInstanceRepository;
 import de.evoila.cf.broker.service.AsyncDeploymentService;
+import de.evoila.cf.broker.service.BindingService;
 import de.evoila.cf.broker.service.DeploymentService;
 import de.evoila.cf.broker.service.PlatformService;
 import de.evoila.cf.broker.util.ParameterValidator;
+import de.evoila.cf.config.security.credhub.CredhubClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -40,6 +43,10 @@ public class DeploymentServiceImpl implements DeploymentService {
 
 	private AsyncDeploymentService asyncDeploymentService;
 
+	private BindingService bindingService;
+
+	private CredhubClient credhubClient;
+
 	public DeploymentServiceImpl(PlatformRepository platformRepository, ServiceDefinitionRepository serviceDefinitionRepository,
                                  ServiceInstanceRepository serviceInstanceRepository, JobRepository jobRepository, AsyncDeploymentService asyncDeploymentService) {
 	    this.platformRepository = platformRepository;
@@ -49,6 +56,23 @@ public class DeploymentServiceImpl implements DeploymentService {
 	    this.asyncDeploymentService = asyncDeploymentService;
     }
 
+	/**
+	 * Brokers without bindings do not provide a {@link BindingService}, in which case
+	 * nothing has to be cleaned up when an instance is deleted.
+	 */
+	@Autowired(required = false)
+	public void setBindingService(BindingService bindingService) {
+		this.bindingService = bindingService;
+	}
+
+	/**
+	 * Only available if CredHub is configured, otherwise there are no credentials to clean up.
+	 */
+	@Autowired(required = false)
+	public void setCredhubClient(CredhubClient credhubClient) {
+		this.credhubClient = credhubClient;
+	}
+
 	@Override
 	public JobProgressResponse getLastOperation(String serviceInstanceId)
 			throws ServiceInstanceDoesNotExistException {
@@ -116,7 +140,7 @@ public class DeploymentServiceImpl implements DeploymentService {
 
         if (request.getParameters() != null && request.getParameters().size() > 0){
             try{
-                ParameterValidator.validateParameters(request, plan);
+                ParameterValidator.validateParameters(request, plan, true);
             }catch(ProcessingException e){
                 throw new InvalidParametersException("Error while validating parameters");
             }
@@ -212,7 +236,11 @@ public class DeploymentServiceImpl implements DeploymentService {
 
 	public void syncDeleteInstance(ServiceInstance serviceInstance, Plan plan, PlatformService platformService)
 			throws ServiceBrokerException {
- 
+
+        // Bindings are unbound while the instance still runs, a failure stops the deletion
+        if (bindingService != null)
+            bindingService.unbindServiceInstanceBindings(serviceInstance, plan);
+
         try {
             platformService.preDeleteInstance(serviceInstance);
         } catch (PlatformException e) {
@@ -225,12 +253,24 @@ public class DeploymentServiceImpl implements DeploymentService {
 			throw new ServiceBrokerException("Error during deletion of service", e);
 		}
 
+        // Binding records are only removed once the instance is gone
+        if (bindingService != null)
+            bindingService.deleteServiceInstanceBindings(serviceInstance);
+
         try {
             platformService.postDeleteInstance(serviceInstance);
         } catch (PlatformException e) {
             throw new ServiceBrokerException("Error during pre service instance deletion", e);
         }
 
+        if (credhubClient != null) {
+            try {
+                credhubClient.deleteAllCredentials(serviceInstance.getId());
+            } catch (RuntimeException e) {
+                log.error("Could not delete credentials of service instance " + serviceInstance.getId(), e);
+            }
+        }
+
         serviceInstanceRepository.deleteServiceInstance(serviceInstance.getId());
         jobRepository.deleteJobProgress(serviceInstance.getId());
 	}
@@ -0,0 +1,215 @@
+package de.evoila.cf.broker.service.impl;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import de.evoila.cf.broker.bean.SnapshotConfiguration;
+import de.evoila.cf.broker.exception.ServiceBrokerException;
+import de.evoila.cf.broker.model.*;
+import de.evoila.cf.broker.repository.BindingRepository;
+import de.evoila.cf.broker.repository.JobRepository;
+import de.evoila.cf.broker.repository.RouteBindingRepository;
+import de.evoila.cf.broker.repository.ServiceInstanceRepository;
+import de.evoila.cf.broker.service.SnapshotService;
+import de.evoila.cf.broker.snapshot.SnapshotReader;
+import de.evoila.cf.broker.snapshot.SnapshotRecord;
+import de.evoila.cf.broker.snapshot.SnapshotWriter;
+import de.evoila.cf.broker.util.BoundedExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Snapshots are written as a Smile stream. Records of a service instance are written
+ * next to each other, so an export never has to hold more than one instance in memory.
+ * On restore the main thread only reads and verifies records, decoding and writing them
+ * into the repositories happens in batches on a bounded number of workers. Batches are
+ * only cut in front of a service instance, so an instance is always written before its
+ * bindings, route bindings and jobs, while different instances are restored in parallel.
+ */
+@Service
+public class SnapshotServiceImpl implements SnapshotService {
+
+    private final Logger log = LoggerFactory.getLogger(SnapshotServiceImpl.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper(new SmileFactory())
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private ServiceInstanceRepository serviceInstanceRepository;
+
+    private BindingRepository bindingRepository;
+
+    private RouteBindingRepository routeBindingRepository;
+
+    private JobRepository jobRepository;
+
+    private SnapshotConfiguration snapshotConfiguration;
+
+    public SnapshotServiceImpl(ServiceInstanceRepository serviceInstanceRepository, BindingRepository bindingRepository,
+                               RouteBindingRepository routeBindingRepository, JobRepository jobRepository,
+                               SnapshotConfiguration snapshotConfiguration) {
+        this.serviceInstanceRepository = serviceInstanceRepository;
+        this.bindingRepository = bindingRepository;
+        this.routeBindingRepository = routeBindingRepository;
+        this.jobRepository = jobRepository;
+        this.snapshotConfiguration = snapshotConfiguration;
+    }
+
+    @Override
+    public long exportSnapshot(OutputStream outputStream) throws IOException {
+        try (SnapshotWriter writer = new SnapshotWriter(objectMapper, outputStream)) {
+            for (ServiceInstance serviceInstance : nullSafe(serviceInstanceRepository.getServiceInstances()))
+                writeServiceInstance(writer, serviceInstance);
+
+            log.info("Exported snapshot with " + writer.getCount() + " records");
+            return writer.getCount();
+        }
+    }
+
+    private void writeServiceInstance(SnapshotWriter writer, ServiceInstance serviceInstance) throws IOException {
+        String serviceInstanceId = serviceInstance.getId();
+        writer.write(SnapshotRecord.Type.SERVICE_INSTANCE, serviceInstanceId, serviceInstance);
+
+        writeJobProgress(writer, serviceInstanceId);
+
+        for (ServiceInstanceBinding binding : nullSafe(bindingRepository.getBindingsForServiceInstance(serviceInstanceId))) {
+            writer.write(SnapshotRecord.Type.BINDING, binding.getId(), binding);
+            writeJobProgress(writer, binding.getId());
+        }
+
+        for (RouteBinding routeBinding : nullSafe(routeBindingRepository.getRouteBindingsForServiceInstance(serviceInstanceId)))
+            writer.write(SnapshotRecord.Type.ROUTE_BINDING, routeBinding.getId(), routeBinding);
+    }
+
+    /**
+     * Jobs of asynchronous bindings are keyed by the binding id. Jobs of bindings which are
+     * not stored yet, because their creation is still running, are not part of the snapshot.
+     */
+    private void writeJobProgress(SnapshotWriter writer, String id) throws IOException {
+        JobProgress jobProgress = jobRepository.getJobProgress(id);
+        if (jobProgress != null)
+            writer.write(SnapshotRecord.Type.JOB_PROGRESS, id, jobProgress);
+    }
+
+    @Override
+    public long restoreSnapshot(InputStream inputStream) throws IOException, ServiceBrokerException {
+        int batchSize = Math.max(1, snapshotConfiguration.getBatchSize());
+        BoundedExecutor executor = new BoundedExecutor("snapshot-restore-", snapshotConfiguration.getParallelism());
+        List<Batch> batches = new ArrayList<>();
+        long restored = 0;
+
+        try {
+            try (SnapshotReader reader = new SnapshotReader(objectMapper, inputStream)) {
+                List<SnapshotRecord> batch = new ArrayList<>(batchSize);
+                SnapshotRecord record;
+                while ((record = reader.next()) != null) {
+                    if (batch.size() >= batchSize && record.getType() == SnapshotRecord.Type.SERVICE_INSTANCE) {
+                        batches.add(submitBatch(executor, reader, batch));
+                        batch = new ArrayList<>(batchSize);
+                    }
+
+                    batch.add(record);
+                    restored++;
+                }
+
+                if (!batch.isEmpty())
+                    batches.add(submitBatch(executor, reader, batch));
+            }
+
+            int failed = 0;
+            for (Batch batch : batches) {
+                BoundedExecutor.TaskResult<Integer> result = BoundedExecutor.TaskResult.of(batch.future);
+                if (result.isSuccess()) {
+                    failed += result.getValue();
+                } else {
+                    log.error("Could not restore snapshot batch", result.getError());
+                    failed += batch.size;
+                }
+            }
+
+            if (failed > 0)
+                throw new ServiceBrokerException("Could not restore " + failed + " of " + restored + " snapshot records");
+
+            log.info("Restored snapshot with " + restored + " records");
+            return restored;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Records which follow a service instance that could not be restored are skipped, as they
+     * would reference a missing instance.
+     */
+    private Batch submitBatch(BoundedExecutor executor, SnapshotReader reader, List<SnapshotRecord> records) {
+        return new Batch(records.size(), executor.submit(() -> {
+            int failed = 0;
+            boolean serviceInstanceFailed = false;
+            for (SnapshotRecord record : records) {
+                if (record.getType() == SnapshotRecord.Type.SERVICE_INSTANCE)
+                    serviceInstanceFailed = false;
+                else if (serviceInstanceFailed) {
+                    failed++;
+                    continue;
+                }
+
+                try {
+                    restoreRecord(reader, record);
+                } catch (Exception e) {
+                    log.error("Could not restore " + record.getType() + " with id = " + record.getId(), e);
+                    failed++;
+                    serviceInstanceFailed |= record.getType() == SnapshotRecord.Type.SERVICE_INSTANCE;
+                }
+            }
+            return failed;
+        }));
+    }
+
+    private void restoreRecord(SnapshotReader reader, SnapshotRecord record) throws IOException {
+        switch (record.getType()) {
+            case SERVICE_INSTANCE:
+                ServiceInstance serviceInstance = reader.readPayload(record, ServiceInstance.class);
+                serviceInstanceRepository.addServiceInstance(serviceInstance.getId(), serviceInstance);
+                break;
+            case BINDING:
+                bindingRepository.addInternalBinding(reader.readPayload(record, ServiceInstanceBinding.class));
+                break;
+            case ROUTE_BINDING:
+                routeBindingRepository.addRouteBinding(reader.readPayload(record, RouteBinding.class));
+                break;
+            case JOB_PROGRESS:
+                JobProgress jobProgress = reader.readPayload(record, JobProgress.class);
+                jobProgress.setId(record.getId());
+                jobRepository.saveJobProgress(jobProgress);
+                break;
+            default:
+                throw new IOException("Unexpected record type " + record.getType());
+        }
+    }
+
+    private static <T> List<T> nullSafe(List<T> list) {
+        return list != null ? list : Collections.emptyList();
+    }
+
+    private static class Batch {
+
+        private final int size;
+
+        private final Future<Integer> future;
+
+        private Batch(int size, Future<Integer> future) {
+            this.size = size;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package de.evoila.cf.broker.snapshot;
+
+public class SnapshotHeader {
+
+    public static final String FORMAT = "cf-service-broker-snapshot";
+
+    public static final int CURRENT_VERSION = 1;
+
+    private String format;
+
+    private int version;
+
+    private long createdAt;
+
+    public SnapshotHeader() {}
+
+    public SnapshotHeader(String format, int version, long createdAt) {
+        this.format = format;
+        this.version = version;
+        this.createdAt = createdAt;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+}
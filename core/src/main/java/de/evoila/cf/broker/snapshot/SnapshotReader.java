@@ -0,0 +1,87 @@
+package de.evoila.cf.broker.snapshot;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+
+/**
+ * Reads a snapshot written by {@link SnapshotWriter} record by record and verifies the
+ * checksum of every record as well as the checksum of the whole snapshot. The source
+ * stream is not closed when the reader is closed.
+ */
+public class SnapshotReader implements Closeable {
+
+    private final ObjectMapper objectMapper;
+
+    private final JsonParser parser;
+
+    private final CRC32 snapshotChecksum = new CRC32();
+
+    private final SnapshotHeader header;
+
+    private boolean finished;
+
+    public SnapshotReader(ObjectMapper objectMapper, InputStream inputStream) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createParser(inputStream);
+        this.parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+        this.header = readNext(SnapshotHeader.class);
+        if (header == null || !SnapshotHeader.FORMAT.equals(header.getFormat()))
+            throw new IOException("Input is not a service broker snapshot");
+
+        if (header.getVersion() > SnapshotHeader.CURRENT_VERSION)
+            throw new IOException("Unsupported snapshot version " + header.getVersion());
+    }
+
+    public SnapshotHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * @return the next verified record or null, if the end of the snapshot was reached
+     * @throws IOException if the snapshot is truncated or a checksum does not match
+     */
+    public SnapshotRecord next() throws IOException {
+        if (finished)
+            return null;
+
+        SnapshotRecord record = readNext(SnapshotRecord.class);
+        if (record == null || record.getType() == null)
+            throw new IOException("Snapshot is truncated, end marker is missing");
+
+        if (record.getType() == SnapshotRecord.Type.END) {
+            finished = true;
+            if (record.getChecksum() != snapshotChecksum.getValue())
+                throw new IOException("Checksum of snapshot does not match, records are missing or reordered");
+
+            return null;
+        }
+
+        if (record.getPayload() == null || SnapshotRecord.checksum(record.getPayload()) != record.getChecksum())
+            throw new IOException("Checksum mismatch for " + record.getType() + " with id = " + record.getId());
+
+        SnapshotRecord.updateChecksum(snapshotChecksum, record.getChecksum());
+        return record;
+    }
+
+    public <T> T readPayload(SnapshotRecord record, Class<T> type) throws IOException {
+        return objectMapper.readValue(record.getPayload(), type);
+    }
+
+    private <T> T readNext(Class<T> type) throws IOException {
+        if (parser.nextToken() == null)
+            return null;
+
+        return objectMapper.readValue(parser, type);
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
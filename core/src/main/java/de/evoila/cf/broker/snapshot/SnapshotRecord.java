@@ -0,0 +1,74 @@
+package de.evoila.cf.broker.snapshot;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * A single entry of a broker snapshot. The payload contains the Smile encoded entity,
+ * the checksum is the CRC32 of the payload.
+ */
+public class SnapshotRecord {
+
+    public enum Type {
+        SERVICE_INSTANCE, BINDING, ROUTE_BINDING, JOB_PROGRESS, END
+    }
+
+    private Type type;
+
+    private String id;
+
+    private byte[] payload;
+
+    private long checksum;
+
+    public SnapshotRecord() {}
+
+    public SnapshotRecord(Type type, String id, byte[] payload, long checksum) {
+        this.type = type;
+        this.id = id;
+        this.payload = payload;
+        this.checksum = checksum;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(long checksum) {
+        this.checksum = checksum;
+    }
+
+    static long checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return crc.getValue();
+    }
+
+    static void updateChecksum(CRC32 snapshotChecksum, long recordChecksum) {
+        snapshotChecksum.update(ByteBuffer.allocate(Long.BYTES).putLong(recordChecksum).array());
+    }
+}
@@ -0,0 +1,81 @@
+package de.evoila.cf.broker.snapshot;
+
+import de.evoila.cf.broker.bean.SnapshotConfiguration;
+import de.evoila.cf.broker.service.SnapshotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Restores the snapshot in snapshot.restore-file and exports the repositories to
+ * snapshot.export-file on startup. The runner only exists if one of them is set. A failed
+ * restore or export fails the startup. Runners finish before the application is ready,
+ * so the Bloom filter index is built from the restored repositories.
+ */
+@Component
+@ConditionalOnExpression("'${snapshot.restore-file:}' != '' or '${snapshot.export-file:}' != ''")
+public class SnapshotRunner implements CommandLineRunner {
+
+    private final Logger log = LoggerFactory.getLogger(SnapshotRunner.class);
+
+    private SnapshotService snapshotService;
+
+    private SnapshotConfiguration snapshotConfiguration;
+
+    public SnapshotRunner(SnapshotService snapshotService, SnapshotConfiguration snapshotConfiguration) {
+        this.snapshotService = snapshotService;
+        this.snapshotConfiguration = snapshotConfiguration;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        if (!isEmpty(snapshotConfiguration.getRestoreFile()))
+            restore(Paths.get(snapshotConfiguration.getRestoreFile()));
+
+        if (!isEmpty(snapshotConfiguration.getExportFile()))
+            export(Paths.get(snapshotConfiguration.getExportFile()));
+    }
+
+    private void restore(Path file) throws Exception {
+        log.info("Restoring snapshot from " + file);
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(file))) {
+            long records = snapshotService.restoreSnapshot(inputStream);
+            log.info("Restored " + records + " records from " + file);
+        }
+    }
+
+    /**
+     * The snapshot is written next to the target and moved over it once complete, so a
+     * failed export never replaces a previous snapshot with a truncated one.
+     */
+    private void export(Path file) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+        try {
+            long records;
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+                records = snapshotService.exportSnapshot(outputStream);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Exported " + records + " records to " + target);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
@@ -0,0 +1,55 @@
+package de.evoila.cf.broker.snapshot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+
+/**
+ * Writes a broker snapshot as a sequence of root level values: a {@link SnapshotHeader},
+ * any number of {@link SnapshotRecord}s and a closing record of type
+ * {@link SnapshotRecord.Type#END}, which carries the checksum over all record checksums.
+ * The target stream is flushed but not closed when the writer is closed.
+ */
+public class SnapshotWriter implements Closeable {
+
+    private final ObjectMapper objectMapper;
+
+    private final JsonGenerator generator;
+
+    private final CRC32 snapshotChecksum = new CRC32();
+
+    private long count;
+
+    public SnapshotWriter(ObjectMapper objectMapper, OutputStream outputStream) throws IOException {
+        this.objectMapper = objectMapper;
+        this.generator = objectMapper.getFactory().createGenerator(outputStream);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        objectMapper.writeValue(generator, new SnapshotHeader(SnapshotHeader.FORMAT,
+                SnapshotHeader.CURRENT_VERSION, System.currentTimeMillis()));
+    }
+
+    public void write(SnapshotRecord.Type type, String id, Object entity) throws IOException {
+        byte[] payload = objectMapper.writeValueAsBytes(entity);
+        long checksum = SnapshotRecord.checksum(payload);
+
+        objectMapper.writeValue(generator, new SnapshotRecord(type, id, payload, checksum));
+        SnapshotRecord.updateChecksum(snapshotChecksum, checksum);
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        objectMapper.writeValue(generator, new SnapshotRecord(SnapshotRecord.Type.END, null,
+                null, snapshotChecksum.getValue()));
+        generator.close();
+    }
+}
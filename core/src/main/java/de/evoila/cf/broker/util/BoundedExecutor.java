@@ -0,0 +1,104 @@
+package de.evoila.cf.broker.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks on a fixed number of worker threads. As long as the configured number
+ * of tasks is in flight, {@link #submit(Callable)} blocks the caller, so a producer
+ * reading from a stream or iterating a large collection can not outrun the workers.
+ *
+ * Tasks must not submit further tasks to the same executor, as this may deadlock.
+ */
+public class BoundedExecutor {
+
+    private final ExecutorService executorService;
+
+    private final Semaphore permits;
+
+    public BoundedExecutor(String threadNamePrefix, int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.permits = new Semaphore(parallelism);
+        this.executorService = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        permits.acquireUninterruptibly();
+        try {
+            return executorService.submit(() -> {
+                try {
+                    return task.call();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Submits all tasks and waits for them to finish. The results are returned in the
+     * order of the given tasks, a failing task does not cancel the remaining ones.
+     */
+    public <T> List<TaskResult<T>> invokeAll(List<? extends Callable<T>> tasks) {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks)
+            futures.add(submit(task));
+
+        List<TaskResult<T>> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures)
+            results.add(TaskResult.of(future));
+
+        return results;
+    }
+
+    public void shutdown() {
+        executorService.shutdown();
+    }
+
+    public static class TaskResult<T> {
+
+        private final T value;
+
+        private final Throwable error;
+
+        private TaskResult(T value, Throwable error) {
+            this.value = value;
+            this.error = error;
+        }
+
+        public static <T> TaskResult<T> of(Future<T> future) {
+            try {
+                return new TaskResult<>(future.get(), null);
+            } catch (ExecutionException e) {
+                return new TaskResult<>(null, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new TaskResult<>(null, e);
+            }
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+    }
+}
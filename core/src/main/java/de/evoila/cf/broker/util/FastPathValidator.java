@@ -0,0 +1,22 @@
+package de.evoila.cf.broker.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import de.evoila.cf.broker.model.ParameterError;
+
+import java.util.List;
+
+/**
+ * A parameter validator compiled from a plan schema by {@link FastPathValidatorCompiler}.
+ * Implementations are immutable and can be shared between threads.
+ */
+@FunctionalInterface
+public interface FastPathValidator {
+
+    /**
+     * @param node The value to validate
+     * @param pointer The JSON pointer of the value, empty for the parameters object itself
+     * @param errors Every violation found is added here
+     */
+    void validate(JsonNode node, String pointer, List<ParameterError> errors);
+
+}
@@ -0,0 +1,264 @@
+package de.evoila.cf.broker.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import de.evoila.cf.broker.model.ParameterError;
+import de.evoila.cf.broker.model.SchemaParameters;
+import de.evoila.cf.broker.model.SchemaProperty;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Compiles the schemas plans typically use (objects with typed properties, enums,
+ * ranges and lengths) into plain Java checks, with enum values hashed once. Schemas using
+ * anything else, e.g. additional or pattern properties, are not compiled and have to be
+ * validated by the generic JSON schema validator. This includes <code>pattern</code>, as
+ * draft 4 patterns are ECMA 262 regular expressions, which java.util.regex does not match
+ * identically.
+ *
+ * The checks follow JSON schema draft 4: keywords only apply to instances of their type
+ * and items given as a list are matched by position.
+ */
+public class FastPathValidatorCompiler {
+
+    private static final Set<String> SUPPORTED_TYPES = new HashSet<>(Arrays.asList(
+            "string", "integer", "number", "boolean", "object", "array", "null"));
+
+    private static class UnsupportedSchemaException extends RuntimeException {
+        private UnsupportedSchemaException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * @return The compiled validator or null, if the schema uses keywords the compiler
+     * does not support
+     */
+    public static FastPathValidator compile(SchemaParameters schema) {
+        if (schema == null || (schema.getType() != null && !schema.getType().equals("object")))
+            return null;
+
+        try {
+            FastPathValidator objectCheck = objectCheck(schema.getProperties(), schema.getRequired());
+            return (node, pointer, errors) -> {
+                if (!node.isObject())
+                    errors.add(typeError(node, pointer, "object"));
+                else
+                    objectCheck.validate(node, pointer, errors);
+            };
+        } catch (UnsupportedSchemaException e) {
+            return null;
+        }
+    }
+
+    private static FastPathValidator compileProperty(SchemaProperty property) {
+        if ((property.getDefinitions() != null && !property.getDefinitions().isEmpty())
+                || property.getAdditionalItems() != null || property.getAdditionalProperties() != null
+                || property.getPatternProperties() != null || property.getPattern() != null
+                || property.getMinProperties() != null
+                || property.getMaxProperties() != null || Boolean.TRUE.equals(property.getUniqueItems()))
+            throw new UnsupportedSchemaException();
+
+        String type = property.getType();
+        if (type != null && !SUPPORTED_TYPES.contains(type))
+            throw new UnsupportedSchemaException();
+
+        List<FastPathValidator> checks = new ArrayList<>();
+        if (type != null)
+            checks.add(typeCheck(type));
+
+        if (property.getEnums() != null)
+            checks.add(enumCheck(property.getEnums()));
+
+        if (property.getMinLength() != null || property.getMaxLength() != null)
+            checks.add(stringCheck(property.getMinLength(), property.getMaxLength()));
+
+        if (property.getMinimum() != null || property.getMaximum() != null || property.getMultipleOf() != null)
+            checks.add(numberCheck(property.getMinimum(), Boolean.TRUE.equals(property.getExclusiveMinimum()),
+                    property.getMaximum(), Boolean.TRUE.equals(property.getExclusiveMaximum()), property.getMultipleOf()));
+
+        if (property.getItems() != null || property.getMinItems() != null || property.getMaxItems() != null)
+            checks.add(arrayCheck(property.getItems(), property.getMinItems(), property.getMaxItems()));
+
+        if (property.getProperties() != null || property.getRequired() != null) {
+            FastPathValidator objectCheck = objectCheck(property.getProperties(), property.getRequired());
+            checks.add((node, pointer, errors) -> {
+                if (node.isObject())
+                    objectCheck.validate(node, pointer, errors);
+            });
+        }
+
+        FastPathValidator[] compiled = checks.toArray(new FastPathValidator[0]);
+        if (compiled.length == 1)
+            return compiled[0];
+
+        return (node, pointer, errors) -> {
+            for (FastPathValidator check : compiled)
+                check.validate(node, pointer, errors);
+        };
+    }
+
+    private static FastPathValidator typeCheck(String type) {
+        return (node, pointer, errors) -> {
+            if (!hasType(node, type))
+                errors.add(typeError(node, pointer, type));
+        };
+    }
+
+    private static boolean hasType(JsonNode node, String type) {
+        switch (type) {
+            case "string":
+                return node.isTextual();
+            case "integer":
+                return node.isIntegralNumber();
+            case "number":
+                return node.isNumber();
+            case "boolean":
+                return node.isBoolean();
+            case "object":
+                return node.isObject();
+            case "array":
+                return node.isArray();
+            default:
+                return node.isNull();
+        }
+    }
+
+    private static FastPathValidator enumCheck(List<Object> values) {
+        Set<Object> allowed = new HashSet<>();
+        for (Object value : values) {
+            JsonNode node = ObjectMapperUtils.getObjectMapper().valueToTree(value);
+            if (node.isContainerNode())
+                throw new UnsupportedSchemaException();
+
+            allowed.add(enumKey(node));
+        }
+        String message = "instance value is not one of the allowed values " + values;
+
+        return (node, pointer, errors) -> {
+            if (node.isContainerNode() || !allowed.contains(enumKey(node)))
+                errors.add(new ParameterError(pointer, message));
+        };
+    }
+
+    /**
+     * Numbers are compared by value, so 1, 1L and 1.0 match the same enum entry.
+     */
+    private static Object enumKey(JsonNode node) {
+        if (node.isNumber())
+            return node.decimalValue().stripTrailingZeros();
+        if (node.isTextual())
+            return node.textValue();
+        if (node.isBoolean())
+            return node.booleanValue();
+        return NullNode.getInstance();
+    }
+
+    private static FastPathValidator stringCheck(Integer minLength, Integer maxLength) {
+        int min = minLength != null ? minLength : 0;
+        int max = maxLength != null ? maxLength : Integer.MAX_VALUE;
+
+        return (node, pointer, errors) -> {
+            if (!node.isTextual())
+                return;
+
+            String value = node.textValue();
+            int length = value.codePointCount(0, value.length());
+            if (length < min)
+                errors.add(new ParameterError(pointer, "string is too short (length: " + length + ", required minimum: " + min + ")"));
+            if (length > max)
+                errors.add(new ParameterError(pointer, "string is too long (length: " + length + ", maximum allowed: " + max + ")"));
+        };
+    }
+
+    private static FastPathValidator numberCheck(Integer minimum, boolean exclusiveMinimum, Integer maximum,
+                                                 boolean exclusiveMaximum, Integer multipleOf) {
+        if (multipleOf != null && multipleOf <= 0)
+            throw new UnsupportedSchemaException();
+
+        BigDecimal divisor = multipleOf != null ? BigDecimal.valueOf(multipleOf) : null;
+
+        return (node, pointer, errors) -> {
+            if (!node.isNumber())
+                return;
+
+            double value = node.doubleValue();
+            if (minimum != null && (exclusiveMinimum ? value <= minimum : value < minimum))
+                errors.add(new ParameterError(pointer, "numeric instance is lower than the required minimum (minimum: "
+                        + minimum + (exclusiveMinimum ? ", exclusive" : "") + ")"));
+            if (maximum != null && (exclusiveMaximum ? value >= maximum : value > maximum))
+                errors.add(new ParameterError(pointer, "numeric instance is greater than the allowed maximum (maximum: "
+                        + maximum + (exclusiveMaximum ? ", exclusive" : "") + ")"));
+
+            if (multipleOf != null) {
+                boolean multiple = node.isIntegralNumber() && node.canConvertToLong()
+                        ? node.longValue() % multipleOf == 0
+                        : node.decimalValue().remainder(divisor).signum() == 0;
+                if (!multiple)
+                    errors.add(new ParameterError(pointer, "numeric instance is not a multiple of " + multipleOf));
+            }
+        };
+    }
+
+    private static FastPathValidator arrayCheck(List<SchemaProperty> items, Integer minItems, Integer maxItems) {
+        FastPathValidator[] itemChecks = new FastPathValidator[items != null ? items.size() : 0];
+        for (int i = 0; i < itemChecks.length; i++)
+            itemChecks[i] = compileProperty(items.get(i));
+
+        int min = minItems != null ? minItems : 0;
+        int max = maxItems != null ? maxItems : Integer.MAX_VALUE;
+
+        return (node, pointer, errors) -> {
+            if (!node.isArray())
+                return;
+
+            int size = node.size();
+            if (size < min)
+                errors.add(new ParameterError(pointer, "array is too short (must have at least " + min + " elements)"));
+            if (size > max)
+                errors.add(new ParameterError(pointer, "array is too long (must have at most " + max + " elements)"));
+
+            for (int i = 0; i < itemChecks.length && i < size; i++)
+                itemChecks[i].validate(node.get(i), pointer + "/" + i, errors);
+        };
+    }
+
+    private static FastPathValidator objectCheck(Map<String, SchemaProperty> properties, List<String> required) {
+        int count = properties != null ? properties.size() : 0;
+        String[] names = new String[count];
+        String[] segments = new String[count];
+        FastPathValidator[] checks = new FastPathValidator[count];
+
+        int i = 0;
+        if (properties != null) {
+            for (Map.Entry<String, SchemaProperty> property : properties.entrySet()) {
+                names[i] = property.getKey();
+                segments[i] = "/" + property.getKey().replace("~", "~0").replace("/", "~1");
+                checks[i] = property.getValue() != null ? compileProperty(property.getValue()) : null;
+                i++;
+            }
+        }
+        String[] requiredNames = required != null ? required.toArray(new String[0]) : new String[0];
+
+        return (node, pointer, errors) -> {
+            for (String name : requiredNames) {
+                if (!node.has(name))
+                    errors.add(new ParameterError(pointer, "object is missing required property \"" + name + "\""));
+            }
+
+            for (int index = 0; index < names.length; index++) {
+                JsonNode child = node.get(names[index]);
+                if (child != null && checks[index] != null)
+                    checks[index].validate(child, pointer + segments[index], errors);
+            }
+        };
+    }
+
+    private static ParameterError typeError(JsonNode node, String pointer, String expected) {
+        String actual = node.isNumber() ? (node.isIntegralNumber() ? "integer" : "number")
+                : node.getNodeType().name().toLowerCase(Locale.ROOT);
+
+        return new ParameterError(pointer, "instance type (" + actual + ") does not match the allowed type (" + expected + ")");
+    }
+}
@@ -1,10 +1,24 @@
 package de.evoila.cf.broker.util;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
+/**
+ * Holds the {@link ObjectMapper} of static callers which can not have the Spring managed
+ * mapper injected, so they share one instance and its serializer and deserializer caches.
+ * It is configured like the Spring mapper, see BaseConfiguration. Callers must not
+ * reconfigure the returned instance.
+ */
 public class ObjectMapperUtils {
 
-    private static ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
+                    SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(new AfterburnerModule())
+            .build();
 
     public static ObjectMapper getObjectMapper() {
         return objectMapper;
@@ -1,11 +1,9 @@
 package de.evoila.cf.broker.util;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.github.fge.jackson.JsonLoader;
 import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.LogLevel;
 import com.github.fge.jsonschema.core.report.ProcessingMessage;
 import com.github.fge.jsonschema.core.report.ProcessingReport;
 import com.github.fge.jsonschema.main.JsonSchema;
@@ -13,145 +11,182 @@ import com.github.fge.jsonschema.main.JsonSchemaFactory;
 import de.evoila.cf.broker.exception.InvalidParametersException;
 import de.evoila.cf.broker.model.*;
 
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class ParameterValidator {
 
     public static final String JSON_V4_SCHEMA_IDENTIFIER = "http://json-schema.org/draft-04/schema#";
     public static final String JSON_SCHEMA_IDENTIFIER_ELEMENT = "$schema";
 
-    private static JsonNode getJsonNode(Map<String, Object> properties) throws ProcessingException, JsonProcessingException {
-       String json = new ObjectMapper().writeValueAsString(properties);
-       JsonNode node = null;
-       try{
-           node = getJsonNode(json);
-       }catch (IOException e){
-       }
-       return node;
+    public enum Operation {
+        SERVICE_INSTANCE_CREATE, SERVICE_INSTANCE_UPDATE, SERVICE_BINDING_CREATE
     }
 
-    private static JsonSchema getJsonSchema(SchemaParameters schema) throws ProcessingException, JsonProcessingException {
-        String json = new ObjectMapper().writeValueAsString(schema);
-        JsonSchema jsonSchema = null;
-        try{
-            jsonSchema = getSchemaNode(json);
-        }catch (IOException e){
+    /**
+     * Compiled schemas by plan id and operation. An entry is only used as long as the plan
+     * still references the schema it was compiled from, so a reloaded catalog never
+     * validates against a stale schema, even before {@link #clearSchemaCache()} was called.
+     */
+    private static final ConcurrentMap<String, CompiledSchema> schemaCache = new ConcurrentHashMap<>();
+
+    /**
+     * Schemas the {@link FastPathValidatorCompiler} can handle are validated by compiled
+     * checks, all others by the generic JSON schema validator.
+     */
+    private static volatile boolean fastPathEnabled = true;
+
+    static class CompiledSchema {
+
+        private final SchemaParameters source;
+
+        private final FastPathValidator fastPathValidator;
+
+        private final JsonSchema jsonSchema;
+
+        private CompiledSchema(SchemaParameters source, FastPathValidator fastPathValidator, JsonSchema jsonSchema) {
+            this.source = source;
+            this.fastPathValidator = fastPathValidator;
+            this.jsonSchema = jsonSchema;
+        }
+
+        private void validate(JsonNode jsonNode, List<ParameterError> errors) throws ProcessingException {
+            if (fastPathValidator != null)
+                fastPathValidator.validate(jsonNode, "", errors);
+            else
+                validateJson(jsonSchema, jsonNode, errors);
         }
-        return jsonSchema;
     }
 
-    private static JsonNode getJsonNode(String jsonText) throws IOException {
-        return JsonLoader.fromString(jsonText);
+    public static void clearSchemaCache() {
+        schemaCache.clear();
     }
 
-    private static JsonSchema getSchemaNode(String schemaText) throws IOException, ProcessingException {
-        final JsonNode schemaNode = getJsonNode(schemaText);
-        return _getSchemaNode(schemaNode);
+    public static void setFastPathEnabled(boolean enabled) {
+        fastPathEnabled = enabled;
     }
 
-    public static void validateParameters(ServiceInstanceBindingRequest serviceInstanceBindingRequest, Plan plan) throws InvalidParametersException , ProcessingException{
+    static CompiledSchema getCompiledSchema(Plan plan, Operation operation, SchemaParameters schema)
+            throws ProcessingException {
+        boolean fastPath = fastPathEnabled;
+        String key = plan.getId() + ":" + operation + (fastPath ? ":fast" : "");
+        CompiledSchema compiledSchema = schemaCache.get(key);
+        if (compiledSchema != null && compiledSchema.source == schema)
+            return compiledSchema;
 
-        /* key validation*/
-        HashMap<String, Object> serviceInstanceRequestParams = (HashMap<String, Object>)serviceInstanceBindingRequest.getParameters();
+        FastPathValidator fastPathValidator = fastPath ? FastPathValidatorCompiler.compile(schema) : null;
+        JsonSchema jsonSchema = fastPathValidator == null ? getJsonSchema(schema) : null;
 
-        HashMap<String, SchemaProperty> params = null;
-        try{
-            params = (HashMap<String, SchemaProperty>)plan.getSchemas().getServiceBinding().getCreate().getParameters().getProperties();
-        }catch (NullPointerException e){
-            throw new InvalidParametersException("No additional parameters are allowed for this request with this plan");
-        }
-        boolean flag;
-        for (String requestKey : serviceInstanceRequestParams.keySet()) {
-            flag = false;
-            Iterator<Map.Entry<String, SchemaProperty>> entries = params.entrySet().iterator();
-            while(!(flag) && entries.hasNext()){
-                Map.Entry<String, SchemaProperty> key = entries.next();
-                if(requestKey.equals(key.getKey())){
-                    flag = true;
-                }
-            }
-            if(!(flag)){
-                throw new InvalidParametersException(serviceInstanceRequestParams);
-            }
-        }
+        compiledSchema = new CompiledSchema(schema, fastPathValidator, jsonSchema);
+        schemaCache.put(key, compiledSchema);
+        return compiledSchema;
+    }
 
-        /* value validation */
-        SchemaParameters json = plan.getSchemas().getServiceBinding().getCreate().getParameters();
-        HashMap<String, Object> params2;
-        params2 = (HashMap<String, Object>)serviceInstanceBindingRequest.getParameters();
+    /**
+     * Converts the request parameters directly into a tree, without writing and parsing
+     * them as a JSON string in between.
+     */
+    private static JsonNode getJsonNode(Map<String, Object> properties) {
+        return ObjectMapperUtils.getObjectMapper().valueToTree(properties);
+    }
 
-        JsonSchema jsonSchema = null;
-        JsonNode jsonObject = null;
-        try {
-            jsonSchema = getJsonSchema(json);
-            jsonObject = getJsonNode(params2);
-        }catch (JsonProcessingException e){
-            throw new InvalidParametersException("Error while processing json schema");
-        }
-        try {
-            validateJson(jsonSchema, jsonObject);
-        }catch (ProcessingException e){
-            throw new InvalidParametersException("Error while processing json schema. Values not allowed");
-        }
+    private static JsonSchema getJsonSchema(SchemaParameters schema) throws ProcessingException {
+        return _getSchemaNode(ObjectMapperUtils.getObjectMapper().valueToTree(schema));
     }
+
+    public static void validateParameters(ServiceInstanceBindingRequest serviceInstanceBindingRequest, Plan plan) throws InvalidParametersException , ProcessingException{
+        validateParameters(serviceInstanceBindingRequest.getParameters(), plan, Operation.SERVICE_BINDING_CREATE);
+    }
+
     public static void validateParameters(ServiceInstanceRequest serviceInstanceRequest, Plan plan) throws InvalidParametersException, ProcessingException{
+        validateParameters(serviceInstanceRequest.getParameters(), plan, Operation.SERVICE_INSTANCE_CREATE);
+    }
 
-        /* key validation*/
-        HashMap<String, Object> serviceInstanceRequestParams = (HashMap<String, Object>)serviceInstanceRequest.getParameters();
+    public static void validateParameters(ServiceInstanceRequest serviceInstanceRequest, Plan plan, boolean isUpdate) throws InvalidParametersException, ProcessingException{
+        validateParameters(serviceInstanceRequest.getParameters(), plan,
+                isUpdate ? Operation.SERVICE_INSTANCE_UPDATE : Operation.SERVICE_INSTANCE_CREATE);
+    }
 
-        HashMap<String, SchemaProperty> params = null;
-        try{
-            params = (HashMap<String, SchemaProperty>)plan.getSchemas().getServiceInstance().getCreate().getParameters().getProperties();
-        }catch (NullPointerException e){
+    /**
+     * Validates the parameters against the schema the plan defines for the operation and
+     * reports every unknown parameter and every schema violation in one exception.
+     */
+    public static void validateParameters(Map<String, Object> parameters, Plan plan, Operation operation) throws InvalidParametersException, ProcessingException {
+        SchemaParameters schema = getSchemaParameters(plan, operation);
+        if (schema == null || schema.getProperties() == null)
             throw new InvalidParametersException("No additional parameters are allowed for this request with this plan");
+
+        /* key validation */
+        List<ParameterError> errors = new ArrayList<>();
+        for (String requestKey : parameters.keySet()) {
+            if (!schema.getProperties().containsKey(requestKey))
+                errors.add(new ParameterError(pointer(requestKey), "Parameter is not allowed for this plan"));
         }
-        boolean flag;
-        for (String requestKey : serviceInstanceRequestParams.keySet()) {
-            flag = false;
-            Iterator<Map.Entry<String, SchemaProperty>> entries = params.entrySet().iterator();
-            while(!(flag) && entries.hasNext()){
-                Map.Entry<String, SchemaProperty> key = entries.next();
-                if(requestKey.equals(key.getKey())){
-                    flag = true;
-                }
-            }
-            if(!(flag)){
-                throw new InvalidParametersException(serviceInstanceRequestParams);
-            }
-        }
+        boolean unknownKeys = !errors.isEmpty();
 
         /* schema validation */
-        SchemaParameters json = plan.getSchemas().getServiceInstance().getCreate().getParameters();
-        HashMap<String, Object> params2;
-        params2 = (HashMap<String, Object>)serviceInstanceRequest.getParameters();
-
-        JsonSchema jsonSchema = null;
-        JsonNode jsonObject = null;
+        CompiledSchema compiledSchema;
+        JsonNode jsonObject;
         try {
-            jsonSchema = getJsonSchema(json);
-            jsonObject = getJsonNode(params2);
-        }catch (JsonProcessingException e){
+            compiledSchema = getCompiledSchema(plan, operation, schema);
+            jsonObject = getJsonNode(parameters);
+        }catch (IllegalArgumentException e){
             throw new InvalidParametersException("Error while processing json schema");
         }
-        try {
-            validateJson(jsonSchema, jsonObject);
-        }catch (ProcessingException e){
-            throw new InvalidParametersException("Error while processing json schema. Values not allowed");
+        compiledSchema.validate(jsonObject, errors);
+
+        if (!errors.isEmpty()) {
+            throw new InvalidParametersException(unknownKeys ? "The specified parameters are invalid"
+                    : "Error while processing json schema. Values not allowed", errors);
+        }
+    }
+
+    /**
+     * Plans without a dedicated update schema are validated against their create schema
+     * on update, as before update schemas were supported.
+     */
+    static SchemaParameters getSchemaParameters(Plan plan, Operation operation) {
+        Schemas schemas = plan.getSchemas();
+        if (schemas == null)
+            return null;
+
+        switch (operation) {
+            case SERVICE_BINDING_CREATE:
+                if (schemas.getServiceBinding() == null || schemas.getServiceBinding().getCreate() == null)
+                    return null;
+                return schemas.getServiceBinding().getCreate().getParameters();
+            case SERVICE_INSTANCE_UPDATE:
+                if (schemas.getServiceInstance() != null && schemas.getServiceInstance().getUpdate() != null
+                        && schemas.getServiceInstance().getUpdate().getParameters() != null)
+                    return schemas.getServiceInstance().getUpdate().getParameters();
+                return getSchemaParameters(plan, Operation.SERVICE_INSTANCE_CREATE);
+            default:
+                if (schemas.getServiceInstance() == null || schemas.getServiceInstance().getCreate() == null)
+                    return null;
+                return schemas.getServiceInstance().getCreate().getParameters();
         }
     }
 
-    private static void validateJson(JsonSchema jsonSchemaNode, JsonNode jsonNode) throws ProcessingException {
-        ProcessingReport report = jsonSchemaNode.validate(jsonNode);
+    private static void validateJson(JsonSchema jsonSchemaNode, JsonNode jsonNode, List<ParameterError> errors) throws ProcessingException {
+        ProcessingReport report = jsonSchemaNode.validate(jsonNode, true);
         if (!report.isSuccess()) {
             for (ProcessingMessage processingMessage : report) {
-                throw new ProcessingException(processingMessage);
+                if (processingMessage.getLogLevel().compareTo(LogLevel.ERROR) < 0)
+                    continue;
+
+                String pointer = processingMessage.asJson().path("instance").path("pointer").asText("");
+                errors.add(new ParameterError(pointer, processingMessage.getMessage()));
             }
         }
     }
 
+    private static String pointer(String key) {
+        return "/" + key.replace("~", "~0").replace("/", "~1");
+    }
+
     private static JsonSchema _getSchemaNode(JsonNode jsonNode) throws ProcessingException {
         final JsonNode schemaIdentifier = jsonNode.get(JSON_SCHEMA_IDENTIFIER_ELEMENT);
         if (schemaIdentifier == null){ //even if null, seems not to go into the if statement
@@ -0,0 +1,175 @@
+package de.evoila.cf.config.http;
+
+import de.evoila.cf.broker.bean.HttpClientConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.ssl.SSLContexts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the {@link RestTemplate}s for calls from the broker to other services. All of them
+ * share one pooled Apache HttpClient, so connections and TLS sessions are reused across
+ * targets, while connect, read and lease timeouts are configured per target under
+ * <code>http.client.targets.&lt;target&gt;</code>.
+ *
+ * Pool utilization is exported as <code>http.client.pool.*</code> gauges and the latency of
+ * every request as <code>http.client.requests</code> timer, tagged with target, method and status.
+ */
+@Component
+public class OutboundHttpClientFactory {
+
+    private static final String ACCEPT_SELF_SIGNED = "spring.ssl.acceptselfsigned";
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final HttpClientConfiguration httpClientConfiguration;
+
+    private final MeterRegistry meterRegistry;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private final CloseableHttpClient httpClient;
+
+    public OutboundHttpClientFactory(HttpClientConfiguration httpClientConfiguration,
+                                     ObjectProvider<MeterRegistry> meterRegistry, Environment environment) {
+        this.httpClientConfiguration = httpClientConfiguration;
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+
+        boolean acceptSelfSigned = environment.getProperty(ACCEPT_SELF_SIGNED, Boolean.class, false);
+        this.connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry(acceptSelfSigned));
+        connectionManager.setMaxTotal(httpClientConfiguration.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(httpClientConfiguration.getMaxPerRoute());
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(keepAliveStrategy(httpClientConfiguration.getKeepAlive()))
+                .evictExpiredConnections()
+                .evictIdleConnections(httpClientConfiguration.getIdleTimeout(), TimeUnit.MILLISECONDS)
+                .build();
+
+        registerPoolGauges();
+    }
+
+    private static Registry<ConnectionSocketFactory> socketFactoryRegistry(boolean acceptSelfSigned) {
+        SSLConnectionSocketFactory sslSocketFactory;
+        if (acceptSelfSigned) {
+            try {
+                sslSocketFactory = new SSLConnectionSocketFactory(SSLContexts.custom()
+                        .loadTrustMaterial(null, (chain, authType) -> true)
+                        .build(), NoopHostnameVerifier.INSTANCE);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Could not create SSL context accepting self signed certificates", e);
+            }
+        } else
+            sslSocketFactory = SSLConnectionSocketFactory.getSystemSocketFactory();
+
+        return RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", sslSocketFactory)
+                .build();
+    }
+
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long defaultKeepAlive) {
+        return (response, context) -> {
+            long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAlive > 0 ? keepAlive : defaultKeepAlive;
+        };
+    }
+
+    private void registerPoolGauges() {
+        Gauge.builder("http.client.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                .description("Connections currently leased from the outbound pool")
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                .description("Idle connections in the outbound pool")
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                .description("Requests waiting for a connection from the outbound pool")
+                .register(meterRegistry);
+        Gauge.builder("http.client.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+                .description("Maximum number of connections in the outbound pool")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param target Name of the called service, selects the timeouts and tags the metrics
+     */
+    public RestTemplate createRestTemplate(String target) {
+        HttpClientConfiguration.Timeouts timeouts = httpClientConfiguration.getTimeouts(target);
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectTimeout(timeouts.getConnectTimeout());
+        requestFactory.setReadTimeout(timeouts.getReadTimeout());
+        requestFactory.setConnectionRequestTimeout(timeouts.getConnectionRequestTimeout());
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(timingInterceptor(target));
+        return restTemplate;
+    }
+
+    /**
+     * Timers are registered once per method and status of the target and reused afterwards,
+     * so a request does not have to look its timer up in the registry.
+     */
+    private ClientHttpRequestInterceptor timingInterceptor(String target) {
+        ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+        return (request, body, execution) -> {
+            long start = System.nanoTime();
+            String status = "IO_ERROR";
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                status = String.valueOf(response.getRawStatusCode());
+                return response;
+            } finally {
+                timer(timers, target, String.valueOf(request.getMethod()), status)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    private Timer timer(ConcurrentMap<String, Timer> timers, String target, String method, String status) {
+        return timers.computeIfAbsent(method + " " + status, key -> Timer.builder("http.client.requests")
+                .tag("target", target)
+                .tag("method", method)
+                .tag("status", status)
+                .register(meterRegistry));
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.warn("Could not close outbound HTTP client", e);
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package de.evoila.cf.config.security;
 
 import de.evoila.cf.broker.bean.BaseAuthenticationConfiguration;
+import de.evoila.cf.broker.bean.BasicAuthCacheConfiguration;
+import de.evoila.cf.config.security.basic.CachingAuthenticationProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
 
@@ -20,6 +26,9 @@ public class BasicAuthSecurityConfiguration extends WebSecurityConfigurerAdapter
     @Autowired
     private BaseAuthenticationConfiguration authentication;
 
+    @Autowired
+    private BasicAuthCacheConfiguration cacheConfiguration;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -27,10 +36,27 @@ public class BasicAuthSecurityConfiguration extends WebSecurityConfigurerAdapter
 
     @Override
     public void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.inMemoryAuthentication()
-                .withUser(authentication.getUsername())
-                .password(passwordEncoder().encode(authentication.getPassword()))
-                .authorities("USER");
+        auth.authenticationProvider(authenticationProvider());
+    }
+
+    /**
+     * The Cloud Controller sends the same credentials with every call including last_operation
+     * polls, so successful BCrypt comparisons are cached for a short time.
+     */
+    private AuthenticationProvider authenticationProvider() {
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder());
+        daoAuthenticationProvider.setUserDetailsService(new InMemoryUserDetailsManager(
+                User.withUsername(authentication.getUsername())
+                        .password(passwordEncoder().encode(authentication.getPassword()))
+                        .authorities("USER")
+                        .build()));
+
+        if (cacheConfiguration.getTtl() <= 0)
+            return daoAuthenticationProvider;
+
+        return new CachingAuthenticationProvider(daoAuthenticationProvider,
+                cacheConfiguration.getTtl(), cacheConfiguration.getMaximumSize());
     }
 
     @Override
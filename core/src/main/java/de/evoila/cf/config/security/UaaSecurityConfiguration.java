@@ -1,12 +1,16 @@
 package de.evoila.cf.config.security;
 
+import de.evoila.cf.broker.bean.UaaTokenCacheConfiguration;
 import de.evoila.cf.config.security.uaa.UaaRelyingPartyFilter;
 import de.evoila.cf.config.security.uaa.handler.CommonCorsAuthenticationEntryPoint;
 import de.evoila.cf.config.security.uaa.handler.UaaRelyingPartyAuthenticationFailureHandler;
 import de.evoila.cf.config.security.uaa.handler.UaaRelyingPartyAuthenticationSuccessHandler;
 import de.evoila.cf.config.security.uaa.provider.UaaRelyingPartyAuthenticationProvider;
+import de.evoila.cf.config.security.uaa.utils.JwtVerifierRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
@@ -21,9 +25,37 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Order(2)
 public class UaaSecurityConfiguration extends WebSecurityConfigurerAdapter {
 
+    private UaaTokenCacheConfiguration tokenCacheConfiguration;
+
+    private ObjectProvider<JwtVerifierRegistry> verifierRegistry;
+
+    private boolean tokenVerificationEnabled;
+
+    public UaaSecurityConfiguration(UaaTokenCacheConfiguration tokenCacheConfiguration,
+                                    ObjectProvider<JwtVerifierRegistry> verifierRegistry,
+                                    Environment environment) {
+        this.tokenCacheConfiguration = tokenCacheConfiguration;
+        this.verifierRegistry = verifierRegistry;
+        this.tokenVerificationEnabled = environment.getProperty("uaa.token-verification.enabled", Boolean.class, false);
+    }
+
     @Bean
     public UaaRelyingPartyAuthenticationProvider openIDRelyingPartyAuthenticationProvider() {
-        return new UaaRelyingPartyAuthenticationProvider();
+        UaaRelyingPartyAuthenticationProvider provider = new UaaRelyingPartyAuthenticationProvider();
+        provider.enableAuthenticationCache(tokenCacheConfiguration.getMaximumSize(), tokenCacheConfiguration.getMaxTtl());
+        provider.setVerifierRegistry(verifierRegistry());
+        return provider;
+    }
+
+    /**
+     * Fails the startup instead of accepting unverified tokens if the verification is enabled
+     * but the registry is missing.
+     */
+    private JwtVerifierRegistry verifierRegistry() {
+        JwtVerifierRegistry registry = verifierRegistry.getIfAvailable();
+        if (tokenVerificationEnabled && registry == null)
+            throw new IllegalStateException("UAA token verification is enabled, but no JwtVerifierRegistry is available");
+        return registry;
     }
 
     @Override
@@ -37,7 +69,8 @@ public class UaaSecurityConfiguration extends WebSecurityConfigurerAdapter {
         web
                 .ignoring()
                 .antMatchers(HttpMethod.GET,"/custom/v2/authentication/{serviceInstanceId}")
-                .antMatchers(HttpMethod.GET,"/custom/v2/authentication/{serviceInstanceId}/confirm");
+                .antMatchers(HttpMethod.GET,"/custom/v2/authentication/{serviceInstanceId}/confirm")
+                .antMatchers(HttpMethod.POST,"/custom/v2/authentication/{serviceInstanceId}/logout");
     }
 
     @Override
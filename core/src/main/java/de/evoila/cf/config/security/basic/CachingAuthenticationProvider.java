@@ -0,0 +1,80 @@
+package de.evoila.cf.config.security.basic;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.CredentialsContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers successful username and password authentications of the delegate for a limited
+ * time, so an expensive password hash like BCrypt is only compared once per TTL instead of on
+ * every request. Entries are keyed by an HMAC-SHA256 of the credentials with a key which is
+ * generated per process, so neither the password nor a plain hash of it is held in memory.
+ * Failed authentications are always passed to the delegate.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+
+    private final Cache<String, Authentication> cache;
+
+    private final HashFunction hmac;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, long ttl, long maximumSize) {
+        this(delegate, ttl, maximumSize, Ticker.systemTicker());
+    }
+
+    CachingAuthenticationProvider(AuthenticationProvider delegate, long ttl, long maximumSize, Ticker ticker) {
+        this.delegate = delegate;
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                .maximumSize(maximumSize)
+                .ticker(ticker)
+                .build();
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.hmac = Hashing.hmacSha256(key);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (authentication.getCredentials() == null)
+            return delegate.authenticate(authentication);
+
+        String key = hmac.newHasher()
+                .putString(authentication.getName(), StandardCharsets.UTF_8)
+                .putByte((byte) 0)
+                .putString(authentication.getCredentials().toString(), StandardCharsets.UTF_8)
+                .hash()
+                .toString();
+
+        Authentication cached = cache.getIfPresent(key);
+        if (cached != null)
+            return cached;
+
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            // Only the principal and its authorities are kept, request details and the password are not
+            if (result.getPrincipal() instanceof CredentialsContainer)
+                ((CredentialsContainer) result.getPrincipal()).eraseCredentials();
+            cache.put(key, new UsernamePasswordAuthenticationToken(result.getPrincipal(), null, result.getAuthorities()));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
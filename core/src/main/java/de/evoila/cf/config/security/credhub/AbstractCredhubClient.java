@@ -0,0 +1,138 @@
+package de.evoila.cf.config.security.credhub;
+
+import de.evoila.cf.broker.util.BoundedExecutor;
+import de.evoila.cf.broker.util.BoundedExecutor.TaskResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.credhub.support.SimpleCredentialName;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Credential naming and the batch operations shared by all {@link CredhubClient}s.
+ */
+public abstract class AbstractCredhubClient implements CredhubClient {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    protected static final String BOSH_DIRECTOR = "bosh-1";
+
+    private static final String SERVICE_BROKER_PREFIX = "sb-";
+
+    private final String servicePrefix;
+
+    protected final BoundedExecutor executor;
+
+    protected AbstractCredhubClient(Environment environment, int parallelism) {
+        if (Arrays.asList(environment.getActiveProfiles()).contains("test"))
+            this.servicePrefix = SERVICE_BROKER_PREFIX + "test-";
+        else
+            this.servicePrefix = SERVICE_BROKER_PREFIX;
+
+        this.executor = new BoundedExecutor("credhub-", Math.max(1, parallelism));
+    }
+
+    protected SimpleCredentialName credentialName(String instanceId, String valueName) {
+        return new SimpleCredentialName(BOSH_DIRECTOR, servicePrefix + instanceId, valueName);
+    }
+
+    protected String instancePath(String instanceId) {
+        return "/" + BOSH_DIRECTOR + "/" + servicePrefix + instanceId + "/";
+    }
+
+    @PreDestroy
+    public void shutdownExecutor() {
+        executor.shutdown();
+    }
+
+    /**
+     * @return Value names of all credentials currently stored under the path of the instance
+     */
+    protected abstract Set<String> getValueNames(String instanceId);
+
+    /**
+     * Credentials which already exist when the batch starts are not rolled back, as generating
+     * them again keeps their value. Only the value names are checked up front, a credential
+     * created concurrently by someone else while the batch runs is treated as created by the batch.
+     */
+    @Override
+    public List<CredentialResult> createCredentials(String instanceId, List<CredentialSpec> specs) {
+        Set<String> existing = getValueNames(instanceId);
+
+        List<Callable<Void>> tasks = new ArrayList<>(specs.size());
+        for (CredentialSpec spec : specs)
+            tasks.add(() -> {
+                createCredential(instanceId, spec);
+                return null;
+            });
+
+        List<TaskResult<Void>> taskResults = executor.invokeAll(tasks);
+
+        List<CredentialResult> results = new ArrayList<>(specs.size());
+        boolean failed = false;
+        for (int i = 0; i < specs.size(); i++) {
+            TaskResult<Void> taskResult = taskResults.get(i);
+            if (taskResult.isSuccess())
+                results.add(CredentialResult.succeeded(specs.get(i).getValueName()));
+            else {
+                log.error("Could not create credential " + specs.get(i).getValueName()
+                        + " for instance with id = " + instanceId, taskResult.getError());
+                results.add(CredentialResult.failed(specs.get(i).getValueName(), taskResult.getError()));
+                failed = true;
+            }
+        }
+
+        if (failed)
+            rollback(instanceId, results, existing);
+
+        return results;
+    }
+
+    private void createCredential(String instanceId, CredentialSpec spec) {
+        switch (spec.getType()) {
+            case USER:
+                createUser(instanceId, spec.getValueName(), spec.getUsername(), spec.getPasswordLength());
+                break;
+            case PASSWORD:
+                createPassword(instanceId, spec.getValueName(), spec.getPasswordLength());
+                break;
+            case JSON:
+                createJson(instanceId, spec.getValueName(), spec.getValues());
+                break;
+            case CERTIFICATE:
+                createCertificate(instanceId, spec.getValueName(), spec.getCertificateParameters());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown credential type " + spec.getType());
+        }
+    }
+
+    private void rollback(String instanceId, List<CredentialResult> results, Set<String> existing) {
+        List<CredentialResult> created = new ArrayList<>();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (CredentialResult result : results) {
+            if (result.isSucceeded() && !existing.contains(result.getValueName())) {
+                created.add(result);
+                tasks.add(() -> {
+                    deleteCredentials(instanceId, result.getValueName());
+                    return null;
+                });
+            }
+        }
+
+        List<TaskResult<Void>> taskResults = executor.invokeAll(tasks);
+        for (int i = 0; i < created.size(); i++) {
+            if (taskResults.get(i).isSuccess())
+                created.get(i).setRolledBack(true);
+            else
+                log.error("Could not roll back credential " + created.get(i).getValueName()
+                        + " for instance with id = " + instanceId, taskResults.get(i).getError());
+        }
+    }
+}
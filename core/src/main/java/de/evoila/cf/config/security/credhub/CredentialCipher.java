@@ -0,0 +1,72 @@
+package de.evoila.cf.config.security.credhub;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * AES-GCM encryption of credential values. Every value gets a random IV, which is prepended to
+ * the cipher text, and the credential name is bound to it as associated data, so an encrypted
+ * value can not be moved to another name unnoticed.
+ */
+public class CredentialCipher {
+
+    private static final String ALGORITHM = "AES";
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+    private static final int KEY_LENGTH = 128;
+
+    private static final int IV_LENGTH = 12;
+
+    private static final int TAG_LENGTH = 128;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final SecretKey key;
+
+    public CredentialCipher(SecretKey key) {
+        this.key = key;
+    }
+
+    public CredentialCipher(byte[] key) {
+        this(new SecretKeySpec(key, ALGORITHM));
+    }
+
+    public static SecretKey generateKey() {
+        try {
+            KeyGenerator keyGenerator = KeyGenerator.getInstance(ALGORITHM);
+            keyGenerator.init(KEY_LENGTH, new SecureRandom());
+            return keyGenerator.generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not create credential encryption key", e);
+        }
+    }
+
+    public byte[] encrypt(String name, byte[] plain) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(iv);
+
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, iv));
+        cipher.updateAAD(name.getBytes(StandardCharsets.UTF_8));
+
+        byte[] cipherText = cipher.doFinal(plain);
+        byte[] result = Arrays.copyOf(iv, IV_LENGTH + cipherText.length);
+        System.arraycopy(cipherText, 0, result, IV_LENGTH, cipherText.length);
+        return result;
+    }
+
+    public byte[] decrypt(String name, byte[] encrypted) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, encrypted, 0, IV_LENGTH));
+        cipher.updateAAD(name.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(encrypted, IV_LENGTH, encrypted.length - IV_LENGTH);
+    }
+}
@@ -0,0 +1,47 @@
+package de.evoila.cf.config.security.credhub;
+
+/**
+ * Outcome of a single credential of a batch. If any credential of a batch failed, the
+ * ones created by the batch are deleted again and reported as rolled back.
+ */
+public class CredentialResult {
+
+    private final String valueName;
+
+    private final Throwable error;
+
+    private boolean rolledBack;
+
+    private CredentialResult(String valueName, Throwable error) {
+        this.valueName = valueName;
+        this.error = error;
+    }
+
+    public static CredentialResult succeeded(String valueName) {
+        return new CredentialResult(valueName, null);
+    }
+
+    public static CredentialResult failed(String valueName, Throwable error) {
+        return new CredentialResult(valueName, error);
+    }
+
+    public String getValueName() {
+        return valueName;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSucceeded() {
+        return error == null;
+    }
+
+    public boolean isRolledBack() {
+        return rolledBack;
+    }
+
+    void setRolledBack(boolean rolledBack) {
+        this.rolledBack = rolledBack;
+    }
+}
@@ -0,0 +1,89 @@
+package de.evoila.cf.config.security.credhub;
+
+import org.springframework.credhub.support.certificate.CertificateParameters;
+
+import java.util.Map;
+
+/**
+ * Describes a single credential of a batch passed to {@link CredhubClient#createCredentials(String, java.util.List)}.
+ */
+public class CredentialSpec {
+
+    public enum Type {
+        USER, PASSWORD, JSON, CERTIFICATE
+    }
+
+    private final Type type;
+
+    private final String valueName;
+
+    private String username;
+
+    private int passwordLength = CredhubClient.DEFAULT_PASSWORD_LENGTH;
+
+    private Map<String, Object> values;
+
+    private CertificateParameters certificateParameters;
+
+    private CredentialSpec(Type type, String valueName) {
+        this.type = type;
+        this.valueName = valueName;
+    }
+
+    public static CredentialSpec user(String valueName, String username) {
+        return user(valueName, username, CredhubClient.DEFAULT_PASSWORD_LENGTH);
+    }
+
+    public static CredentialSpec user(String valueName, String username, int passwordLength) {
+        CredentialSpec spec = new CredentialSpec(Type.USER, valueName);
+        spec.username = username;
+        spec.passwordLength = passwordLength;
+        return spec;
+    }
+
+    public static CredentialSpec password(String valueName) {
+        return password(valueName, CredhubClient.DEFAULT_PASSWORD_LENGTH);
+    }
+
+    public static CredentialSpec password(String valueName, int passwordLength) {
+        CredentialSpec spec = new CredentialSpec(Type.PASSWORD, valueName);
+        spec.passwordLength = passwordLength;
+        return spec;
+    }
+
+    public static CredentialSpec json(String valueName, Map<String, Object> values) {
+        CredentialSpec spec = new CredentialSpec(Type.JSON, valueName);
+        spec.values = values;
+        return spec;
+    }
+
+    public static CredentialSpec certificate(String valueName, CertificateParameters certificateParameters) {
+        CredentialSpec spec = new CredentialSpec(Type.CERTIFICATE, valueName);
+        spec.certificateParameters = certificateParameters;
+        return spec;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getValueName() {
+        return valueName;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public int getPasswordLength() {
+        return passwordLength;
+    }
+
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    public CertificateParameters getCertificateParameters() {
+        return certificateParameters;
+    }
+}
@@ -0,0 +1,263 @@
+package de.evoila.cf.config.security.credhub;
+
+import de.evoila.cf.broker.bean.CredhubBean;
+import de.evoila.cf.broker.util.BoundedExecutor.TaskResult;
+import de.evoila.cf.config.security.AcceptSelfSignedClientHttpRequestFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.core.env.Environment;
+import org.springframework.credhub.core.CredHubTemplate;
+import org.springframework.credhub.core.OAuth2CredHubTemplate;
+import org.springframework.credhub.support.CredentialDetails;
+import org.springframework.credhub.support.CredentialName;
+import org.springframework.credhub.support.CredentialSummary;
+import org.springframework.credhub.support.SimpleCredentialName;
+import org.springframework.credhub.support.certificate.CertificateCredential;
+import org.springframework.credhub.support.certificate.CertificateParameters;
+import org.springframework.credhub.support.certificate.CertificateParametersRequest;
+import org.springframework.credhub.support.json.JsonCredential;
+import org.springframework.credhub.support.json.JsonCredentialRequest;
+import org.springframework.credhub.support.password.PasswordCredential;
+import org.springframework.credhub.support.password.PasswordParameters;
+import org.springframework.credhub.support.password.PasswordParametersRequest;
+import org.springframework.credhub.support.user.UserCredential;
+import org.springframework.credhub.support.user.UserParametersRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
+import org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsResourceDetails;
+import org.springframework.security.oauth2.common.AuthenticationScheme;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+/**
+ * Created by reneschollmeyer, evoila on 24.10.18.
+ */
+@Service
+@ConditionalOnBean(CredhubBean.class)
+public class CredhubClientImpl extends AbstractCredhubClient {
+
+    private static final Logger log = LoggerFactory.getLogger(CredhubClientImpl.class);
+
+    private CredhubBean credhubBean;
+
+    private CredHubTemplate credHubTemplate;
+
+    private EncryptedCredentialCache credentialCache;
+
+    public CredhubClientImpl(CredhubBean credhubBean, Environment environment) {
+        super(environment, credhubBean.getParallelism());
+        this.credhubBean = credhubBean;
+
+        ClientHttpRequestFactory clientHttpRequestFactory = new AcceptSelfSignedClientHttpRequestFactory();
+        this.credHubTemplate = new OAuth2CredHubTemplate(resource(), credhubBean.getUrl(), clientHttpRequestFactory);
+
+        CredhubBean.Cache cache = credhubBean.getCache();
+        if (cache != null && cache.getTtl() > 0)
+            this.credentialCache = new EncryptedCredentialCache(cache.getTtl(), cache.getMaximumSize());
+
+        log.info("Successfully establihsed a connection to Credhub.");
+    }
+
+    public OAuth2ProtectedResourceDetails resource() {
+        ClientCredentialsResourceDetails resource = new ClientCredentialsResourceDetails() {
+            @Override
+            public boolean isClientOnly() {
+                return true;
+            }
+        };
+        resource.setAuthenticationScheme(AuthenticationScheme.form);
+        resource.setClientAuthenticationScheme(AuthenticationScheme.header);
+        resource.setAccessTokenUri(credhubBean.getOauth2().getAccessTokenUri());
+        resource.setClientId(credhubBean.getOauth2().getClientId());
+        resource.setClientSecret(credhubBean.getOauth2().getClientSecret());
+        return resource;
+    }
+
+    @Override
+    public void createUser(String instanceId, String valueName, String username, int passwordLength) {
+        UserParametersRequest request = UserParametersRequest.builder()
+                .name(credentialName(instanceId, valueName))
+                .username(username)
+                .parameters(PasswordParameters.builder()
+                    .length(passwordLength)
+                    .excludeUpper(false)
+                    .excludeNumber(false)
+                    .excludeLower(false)
+                    .includeSpecial(false)
+                    .build())
+                .build();
+
+        log.info("Creating user credentials for instance with id = " + instanceId);
+
+        write(request.getName(), () -> credHubTemplate.credentials().generate(request));
+    }
+
+    @Override
+    public UserCredential getUser(String instanceId, String valueName) {
+        Map<String, Object> user = read(credentialName(instanceId, valueName), UserCredential.class, value -> {
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("username", value.getUsername());
+            fields.put("password", value.getPassword());
+            return fields;
+        });
+        return new UserCredential((String) user.get("username"), (String) user.get("password"));
+    }
+
+    @Override
+    public void createPassword(String instanceId, String valueName, int passwordLength) {
+        PasswordParametersRequest request = PasswordParametersRequest.builder()
+                .name(credentialName(instanceId, valueName))
+                .parameters(PasswordParameters.builder()
+                        .length(passwordLength)
+                        .excludeUpper(false)
+                        .excludeNumber(false)
+                        .excludeLower(false)
+                        .includeSpecial(false)
+                        .build())
+                .build();
+
+        log.info("Creating password credentials for instance with id = " + instanceId);
+
+        write(request.getName(), () -> credHubTemplate.credentials().generate(request));
+    }
+
+    @Override
+    public String getPassword(String instanceId, String valueName) {
+        Map<String, Object> password = read(credentialName(instanceId, valueName), PasswordCredential.class, value -> {
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("password", value.getPassword());
+            return fields;
+        });
+        return (String) password.get("password");
+    }
+
+    @Override
+    public void createJson(String instanceId, String valueName, Map<String, Object> values) {
+        JsonCredentialRequest request = JsonCredentialRequest.builder()
+                .name(credentialName(instanceId, valueName))
+                .value(new JsonCredential(values))
+                .build();
+
+        log.info("Creating json credentials for instance with id = " + instanceId);
+
+        write(request.getName(), () -> credHubTemplate.credentials().write(request));
+    }
+
+    @Override
+    public JsonCredential getJsonCredential(String instanceId, String valueName) {
+        return new JsonCredential(read(credentialName(instanceId, valueName), JsonCredential.class, HashMap::new));
+    }
+
+    @Override
+    public void deleteCredentials(String instanceId, String valueName) {
+        SimpleCredentialName name = credentialName(instanceId, valueName);
+        write(name, () -> credHubTemplate.credentials().deleteByName(name));
+    }
+
+    @Override
+    public int deleteAllCredentials(String instanceId) {
+        List<CredentialSummary> credentials = credHubTemplate.credentials().findByPath(instancePath(instanceId));
+
+        List<Callable<Void>> tasks = new ArrayList<>(credentials.size());
+        for (CredentialSummary credential : credentials)
+            tasks.add(() -> {
+                write(credential.getName(), () -> credHubTemplate.credentials().deleteByName(credential.getName()));
+                return null;
+            });
+
+        List<TaskResult<Void>> results = executor.invokeAll(tasks);
+
+        int deleted = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).isSuccess())
+                deleted++;
+            else
+                log.error("Could not delete credential " + credentials.get(i).getName().getName(),
+                        results.get(i).getError());
+        }
+
+        log.info("Deleted " + deleted + " of " + credentials.size() + " credentials for instance with id = " + instanceId);
+
+        return deleted;
+    }
+
+    @Override
+    protected Set<String> getValueNames(String instanceId) {
+        String instancePath = instancePath(instanceId);
+        Set<String> valueNames = new HashSet<>();
+        for (CredentialSummary credential : credHubTemplate.credentials().findByPath(instancePath)) {
+            String name = credential.getName().getName();
+            if (name.startsWith(instancePath))
+                valueNames.add(name.substring(instancePath.length()));
+        }
+        return valueNames;
+    }
+
+    @Override
+    public void createCertificate(String instanceId, String valueName, CertificateParameters certificateParameters) {
+        CertificateParametersRequest request = CertificateParametersRequest.builder()
+                .name(credentialName(instanceId, valueName))
+                .parameters(certificateParameters)
+                .build();
+
+        log.info("Creating certificate for instance with id = " + instanceId);
+
+        write(request.getName(), () -> credHubTemplate.credentials().generate(request));
+    }
+
+    @Override
+    public CertificateCredential getCertificateCredential(String instanceId, String valueName) {
+        Map<String, Object> certificate = read(credentialName(instanceId, valueName), CertificateCredential.class, value -> {
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("certificate", value.getCertificate());
+            fields.put("certificate_authority", value.getCertificateAuthority());
+            fields.put("private_key", value.getPrivateKey());
+            return fields;
+        });
+        return new CertificateCredential((String) certificate.get("certificate"),
+                (String) certificate.get("certificate_authority"), (String) certificate.get("private_key"));
+    }
+
+    /**
+     * Reads the credential from the cache or CredHub. Values are cached as plain field maps, so
+     * every typed accessor can rebuild its credential without another round trip.
+     */
+    private <T> Map<String, Object> read(SimpleCredentialName name, Class<T> type, Function<T, Map<String, Object>> fields) {
+        if (credentialCache == null)
+            return fields.apply(fetch(name, type));
+
+        return credentialCache.get(name.getName(), () -> fields.apply(fetch(name, type)));
+    }
+
+    private <T> T fetch(SimpleCredentialName name, Class<T> type) {
+        CredentialDetails<T> credential = credHubTemplate.credentials().getByName(name, type);
+        return credential.getValue();
+    }
+
+    /**
+     * Invalidates the cached value before and after the change, so neither a cached value nor
+     * a read which runs concurrently to the change outlives it.
+     */
+    private void write(CredentialName name, Runnable change) {
+        invalidate(name);
+        try {
+            change.run();
+        } finally {
+            invalidate(name);
+        }
+    }
+
+    private void invalidate(CredentialName name) {
+        if (credentialCache != null)
+            credentialCache.invalidate(name.getName());
+    }
+}
@@ -0,0 +1,146 @@
+package de.evoila.cf.config.security.credhub;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import de.evoila.cf.broker.util.ObjectMapperUtils;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Short lived, size bounded cache for credential values read from CredHub. Values are only
+ * held AES-GCM encrypted with a key which is generated per process and never leaves it, the
+ * credential name is bound to every entry as associated data.
+ *
+ * Concurrent reads of the same uncached credential are coalesced into a single fetch. A fetch
+ * which is still running when the credential is invalidated may have read the old value, so
+ * its result is handed to the waiting readers but not cached.
+ */
+public class EncryptedCredentialCache {
+
+    private static final TypeReference<Map<String, Object>> VALUE_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    private final Cache<String, byte[]> cache;
+
+    private final ConcurrentMap<String, CompletableFuture<byte[]>> loads = new ConcurrentHashMap<>();
+
+    private final CredentialCipher cipher = new CredentialCipher(CredentialCipher.generateKey());
+
+    public EncryptedCredentialCache(long ttl, long maximumSize) {
+        this(ttl, maximumSize, Ticker.systemTicker());
+    }
+
+    EncryptedCredentialCache(long ttl, long maximumSize, Ticker ticker) {
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                .maximumSize(maximumSize)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * @param name   Full credential name, used as cache key
+     * @param loader Fetches the credential value if it is not cached
+     */
+    public Map<String, Object> get(String name, Supplier<Map<String, Object>> loader) {
+        byte[] encrypted = cache.getIfPresent(name);
+        if (encrypted == null)
+            encrypted = load(name, loader);
+
+        return decrypt(name, encrypted);
+    }
+
+    private byte[] load(String name, Supplier<Map<String, Object>> loader) {
+        CompletableFuture<byte[]> load = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = loads.putIfAbsent(name, load);
+        if (running != null)
+            return join(running);
+
+        try {
+            // Another load may have been cached between the lookup and the registration of this one
+            byte[] encrypted = cache.getIfPresent(name);
+            if (encrypted == null)
+                encrypted = encrypt(name, loader.get());
+
+            byte[] value = encrypted;
+            loads.computeIfPresent(name, (key, current) -> {
+                if (current != load)
+                    return current;
+
+                cache.put(name, value);
+                return null;
+            });
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loads.remove(name, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the cached value and makes a running fetch of the credential discard its result.
+     * Writers call this before and after changing a credential.
+     */
+    public void invalidate(String name) {
+        loads.compute(name, (key, load) -> {
+            cache.invalidate(name);
+            return null;
+        });
+    }
+
+    public void invalidateAll() {
+        loads.clear();
+        cache.invalidateAll();
+    }
+
+    private static byte[] join(CompletableFuture<byte[]> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    private byte[] encrypt(String name, Map<String, Object> value) {
+        byte[] plain = null;
+        try {
+            plain = ObjectMapperUtils.getObjectMapper().writeValueAsBytes(value);
+            return cipher.encrypt(name, plain);
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IllegalStateException("Could not cache credential " + name, e);
+        } finally {
+            if (plain != null)
+                Arrays.fill(plain, (byte) 0);
+        }
+    }
+
+    private Map<String, Object> decrypt(String name, byte[] encrypted) {
+        byte[] plain = null;
+        try {
+            plain = cipher.decrypt(name, encrypted);
+            return ObjectMapperUtils.getObjectMapper().readValue(plain, VALUE_TYPE);
+        } catch (GeneralSecurityException | IOException e) {
+            cache.invalidate(name);
+            throw new IllegalStateException("Could not read cached credential " + name, e);
+        } finally {
+            if (plain != null)
+                Arrays.fill(plain, (byte) 0);
+        }
+    }
+}
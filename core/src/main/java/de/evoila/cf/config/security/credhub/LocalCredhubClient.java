@@ -0,0 +1,531 @@
+package de.evoila.cf.config.security.credhub;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.evoila.cf.broker.bean.LocalCredhubBean;
+import de.evoila.cf.broker.util.ObjectMapperUtils;
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.openssl.PEMKeyPair;
+import org.bouncycastle.openssl.PEMParser;
+import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.credhub.core.CredHubException;
+import org.springframework.credhub.support.certificate.CertificateCredential;
+import org.springframework.credhub.support.certificate.CertificateParameters;
+import org.springframework.credhub.support.json.JsonCredential;
+import org.springframework.credhub.support.user.UserCredential;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the credentials in a local file instead of CredHub, so brokers can be tested and load
+ * tested on an isolated machine. Passwords and certificates are generated locally, every value
+ * is stored AES-GCM encrypted with the configured key.
+ *
+ * Reads are served from memory without locking. Writes are serialized and appended to the file
+ * as one line per change, the file is compacted to the current credentials on startup and once
+ * it holds more than twice as many lines as there are credentials. Like CredHub, generating a
+ * credential which already exists keeps its value, only JSON credentials are overwritten.
+ * Takes precedence over {@link CredhubClientImpl} if both are configured.
+ */
+@Service
+@Primary
+@ConditionalOnBean(LocalCredhubBean.class)
+public class LocalCredhubClient extends AbstractCredhubClient {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalCredhubClient.class);
+
+    private static final String USER = "user";
+
+    private static final String PASSWORD = "password";
+
+    private static final String JSON = "json";
+
+    private static final String CERTIFICATE = "certificate";
+
+    private static final char[] PASSWORD_CHARACTERS = ("ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+            + "abcdefghijklmnopqrstuvwxyz0123456789").toCharArray();
+
+    private static final int DEFAULT_KEY_LENGTH = 2048;
+
+    private static final int DEFAULT_DURATION = 365;
+
+    /**
+     * Lower bound of journal lines before the file is compacted, so small stores are not
+     * rewritten on every other change.
+     */
+    static final int MIN_COMPACTION_RECORDS = 1000;
+
+    private static final TypeReference<Map<String, Object>> RECORD_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final ConcurrentMap<String, byte[]> credentials = new ConcurrentHashMap<>();
+
+    private final Object writeLock = new Object();
+
+    private final Path path;
+
+    private final CredentialCipher cipher;
+
+    /**
+     * Guarded by the write lock, as is the number of lines written to it.
+     */
+    private OutputStream journal;
+
+    private int journalRecords;
+
+    public LocalCredhubClient(LocalCredhubBean localCredhubBean, Environment environment) {
+        super(environment, localCredhubBean.getParallelism());
+        this.path = Paths.get(localCredhubBean.getPath()).toAbsolutePath();
+        this.cipher = new CredentialCipher(loadKey(localCredhubBean.getKey()));
+
+        synchronized (writeLock) {
+            replay();
+            compact();
+        }
+
+        log.info("Using local credential store " + path + " with " + credentials.size() + " credentials.");
+    }
+
+    /**
+     * Applies the lines of the credential file in order. A broken last line is the remainder of
+     * a write which was interrupted, it is dropped by the compaction following the replay.
+     */
+    private void replay() {
+        if (!Files.exists(path))
+            return;
+
+        ObjectMapper objectMapper = ObjectMapperUtils.getObjectMapper();
+        try {
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            for (int i = 0; i < lines.size(); i++) {
+                if (lines.get(i).trim().isEmpty())
+                    continue;
+
+                JsonNode record;
+                try {
+                    record = objectMapper.readTree(lines.get(i));
+                } catch (IOException e) {
+                    if (i < lines.size() - 1)
+                        throw e;
+                    log.warn("Dropping incomplete last line of the local credential store " + path);
+                    break;
+                }
+
+                String name = record.get("name").asText();
+                if (record.path("deleted").asBoolean())
+                    credentials.remove(name);
+                else
+                    credentials.put(name, record.get("value").binaryValue());
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Could not read local credentials from " + path, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (writeLock) {
+            closeJournal();
+        }
+    }
+
+    private byte[] loadKey(String key) {
+        if (key != null)
+            return Base64.getDecoder().decode(key);
+
+        Path keyPath = Paths.get(path + ".key");
+        try {
+            if (Files.exists(keyPath))
+                return Base64.getDecoder().decode(new String(Files.readAllBytes(keyPath), StandardCharsets.US_ASCII).trim());
+
+            byte[] generated = CredentialCipher.generateKey().getEncoded();
+            createParentDirectories(keyPath);
+            Files.write(keyPath, Base64.getEncoder().encode(generated));
+            try {
+                Files.setPosixFilePermissions(keyPath, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException e) {
+                log.warn("Could not restrict permissions of " + keyPath);
+            }
+            log.info("Generated key for the local credential store at " + keyPath);
+            return generated;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load key for the local credential store", e);
+        }
+    }
+
+    @Override
+    public void createUser(String instanceId, String valueName, String username, int passwordLength) {
+        generate(name(instanceId, valueName), USER, () -> {
+            Map<String, Object> value = new HashMap<>();
+            value.put("username", username);
+            value.put("password", generatePassword(passwordLength));
+            return value;
+        });
+    }
+
+    @Override
+    public UserCredential getUser(String instanceId, String valueName) {
+        Map<String, Object> value = read(name(instanceId, valueName), USER);
+        return new UserCredential((String) value.get("username"), (String) value.get("password"));
+    }
+
+    @Override
+    public void createPassword(String instanceId, String valueName, int passwordLength) {
+        generate(name(instanceId, valueName), PASSWORD,
+                () -> Collections.singletonMap("password", generatePassword(passwordLength)));
+    }
+
+    @Override
+    public String getPassword(String instanceId, String valueName) {
+        return (String) read(name(instanceId, valueName), PASSWORD).get("password");
+    }
+
+    @Override
+    public void createJson(String instanceId, String valueName, Map<String, Object> values) {
+        String name = name(instanceId, valueName);
+        byte[] encrypted = encrypt(name, JSON, values);
+        synchronized (writeLock) {
+            put(name, encrypted);
+        }
+    }
+
+    @Override
+    public JsonCredential getJsonCredential(String instanceId, String valueName) {
+        return new JsonCredential(read(name(instanceId, valueName), JSON));
+    }
+
+    @Override
+    public void deleteCredentials(String instanceId, String valueName) {
+        String name = name(instanceId, valueName);
+        synchronized (writeLock) {
+            if (!credentials.containsKey(name))
+                throw new CredHubException(HttpStatus.NOT_FOUND);
+            remove(name);
+        }
+    }
+
+    @Override
+    public int deleteAllCredentials(String instanceId) {
+        String instancePath = instancePath(instanceId);
+        int deleted = 0;
+        synchronized (writeLock) {
+            for (String name : credentials.keySet()) {
+                if (name.startsWith(instancePath)) {
+                    remove(name);
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    protected Set<String> getValueNames(String instanceId) {
+        String instancePath = instancePath(instanceId);
+        return credentials.keySet().stream()
+                .filter(name -> name.startsWith(instancePath))
+                .map(name -> name.substring(instancePath.length()))
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public void createCertificate(String instanceId, String valueName, CertificateParameters certificateParameters) {
+        generate(name(instanceId, valueName), CERTIFICATE, () -> {
+            CertificateCredential certificate;
+            try {
+                certificate = generateCertificate(instanceId, certificateParameters);
+            } catch (GeneralSecurityException | IOException | OperatorCreationException e) {
+                throw new IllegalStateException("Could not generate certificate " + valueName, e);
+            }
+
+            Map<String, Object> value = new HashMap<>();
+            value.put("certificate", certificate.getCertificate());
+            value.put("certificate_authority", certificate.getCertificateAuthority());
+            value.put("private_key", certificate.getPrivateKey());
+            return value;
+        });
+    }
+
+    @Override
+    public CertificateCredential getCertificateCredential(String instanceId, String valueName) {
+        return certificateCredential(read(name(instanceId, valueName), CERTIFICATE));
+    }
+
+    private static CertificateCredential certificateCredential(Map<String, Object> value) {
+        return new CertificateCredential((String) value.get("certificate"),
+                (String) value.get("certificate_authority"), (String) value.get("private_key"));
+    }
+
+    private String name(String instanceId, String valueName) {
+        return credentialName(instanceId, valueName).getName();
+    }
+
+    private String generatePassword(int length) {
+        char[] password = new char[length];
+        for (int i = 0; i < length; i++)
+            password[i] = PASSWORD_CHARACTERS[secureRandom.nextInt(PASSWORD_CHARACTERS.length)];
+        return new String(password);
+    }
+
+    /**
+     * Creates a certificate like CredHub does: signed by the given CA credential, or self signed
+     * if no CA is given, in which case the certificate is its own certificate authority.
+     */
+    private CertificateCredential generateCertificate(String instanceId, CertificateParameters parameters)
+            throws GeneralSecurityException, IOException, OperatorCreationException {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(parameters.getKeyLength() != null ? parameters.getKeyLength() : DEFAULT_KEY_LENGTH, secureRandom);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+
+        X500Name subject = new X500Name("CN=" + parameters.getCommonName());
+        X500Name issuer = subject;
+        PrivateKey signingKey = keyPair.getPrivate();
+        String certificateAuthority = null;
+
+        if (parameters.getCa() != null && !Boolean.TRUE.equals(parameters.getSelfSign())) {
+            String caName = parameters.getCa().startsWith("/") ? parameters.getCa() : instancePath(instanceId) + parameters.getCa();
+            CertificateCredential ca = certificateCredential(read(caName, CERTIFICATE));
+            issuer = ((X509CertificateHolder) readPem(ca.getCertificate())).getSubject();
+            signingKey = privateKey(ca.getPrivateKey());
+            certificateAuthority = ca.getCertificate();
+        }
+
+        int duration = parameters.getDuration() != null ? parameters.getDuration() : DEFAULT_DURATION;
+        Date notBefore = new Date();
+        Date notAfter = new Date(notBefore.getTime() + TimeUnit.DAYS.toMillis(duration));
+
+        JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(issuer, new BigInteger(64, secureRandom),
+                notBefore, notAfter, subject, keyPair.getPublic());
+        builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(Boolean.TRUE.equals(parameters.getIsCa())));
+
+        String certificate = writePem(builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(signingKey)));
+        return new CertificateCredential(certificate,
+                certificateAuthority != null ? certificateAuthority : certificate, writePem(keyPair.getPrivate()));
+    }
+
+    private static Object readPem(String pem) throws IOException {
+        try (PEMParser parser = new PEMParser(new StringReader(pem))) {
+            return parser.readObject();
+        }
+    }
+
+    private static PrivateKey privateKey(String pem) throws IOException {
+        Object key = readPem(pem);
+        JcaPEMKeyConverter converter = new JcaPEMKeyConverter();
+        if (key instanceof PEMKeyPair)
+            return converter.getKeyPair((PEMKeyPair) key).getPrivate();
+        return converter.getPrivateKey((PrivateKeyInfo) key);
+    }
+
+    private static String writePem(Object object) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JcaPEMWriter pemWriter = new JcaPEMWriter(writer)) {
+            pemWriter.writeObject(object);
+        }
+        return writer.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> read(String name, String type) {
+        byte[] encrypted = credentials.get(name);
+        if (encrypted == null)
+            throw new CredHubException(HttpStatus.NOT_FOUND);
+
+        byte[] plain = null;
+        try {
+            plain = cipher.decrypt(name, encrypted);
+            Map<String, Object> record = ObjectMapperUtils.getObjectMapper().readValue(plain, RECORD_TYPE);
+            if (!type.equals(record.get("type")))
+                throw new IllegalArgumentException("Credential " + name + " is of type " + record.get("type") + ", not " + type);
+            return (Map<String, Object>) record.get("value");
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IllegalStateException("Could not read credential " + name, e);
+        } finally {
+            if (plain != null)
+                Arrays.fill(plain, (byte) 0);
+        }
+    }
+
+    /**
+     * Stores a generated value unless a credential of that name exists, which is kept as it is.
+     * The value is generated outside of the write lock, if another writer stored the credential
+     * meanwhile its value wins.
+     */
+    private void generate(String name, String type, Supplier<Map<String, Object>> generator) {
+        if (credentials.containsKey(name)) {
+            read(name, type);
+            return;
+        }
+
+        byte[] encrypted = encrypt(name, type, generator.get());
+        synchronized (writeLock) {
+            if (!credentials.containsKey(name))
+                put(name, encrypted);
+        }
+    }
+
+    private byte[] encrypt(String name, String type, Map<String, Object> value) {
+        Map<String, Object> record = new HashMap<>();
+        record.put("type", type);
+        record.put("value", value);
+
+        byte[] plain = null;
+        try {
+            plain = ObjectMapperUtils.getObjectMapper().writeValueAsBytes(record);
+            return cipher.encrypt(name, plain);
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IllegalStateException("Could not write credential " + name, e);
+        } finally {
+            if (plain != null)
+                Arrays.fill(plain, (byte) 0);
+        }
+    }
+
+    /**
+     * Must be called holding the write lock. The change is only applied in memory once it is
+     * written to the file.
+     */
+    private void put(String name, byte[] encrypted) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("name", name);
+        record.put("value", encrypted);
+        append(record);
+        credentials.put(name, encrypted);
+        compactIfNeeded();
+    }
+
+    /**
+     * Must be called holding the write lock.
+     */
+    private void remove(String name) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("name", name);
+        record.put("deleted", true);
+        append(record);
+        credentials.remove(name);
+        compactIfNeeded();
+    }
+
+    private void append(Map<String, Object> record) {
+        if (journal == null)
+            compact();
+
+        try {
+            journal.write(ObjectMapperUtils.getObjectMapper().writeValueAsBytes(record));
+            journal.write('\n');
+            journal.flush();
+            journalRecords++;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write local credentials to " + path, e);
+        }
+    }
+
+    /**
+     * The change is already stored when this runs, so a failed compaction is only logged and
+     * retried with the next change.
+     */
+    private void compactIfNeeded() {
+        if (journalRecords <= Math.max(MIN_COMPACTION_RECORDS, 2 * credentials.size()))
+            return;
+
+        try {
+            compact();
+        } catch (IllegalStateException e) {
+            log.warn("Could not compact local credential store " + path, e);
+        }
+    }
+
+    /**
+     * Must be called holding the write lock. Replaces the file atomically with one line per
+     * current credential and continues appending to the new file.
+     */
+    private void compact() {
+        try {
+            createParentDirectories(path);
+            Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                for (Map.Entry<String, byte[]> credential : credentials.entrySet()) {
+                    Map<String, Object> record = new LinkedHashMap<>();
+                    record.put("name", credential.getKey());
+                    record.put("value", credential.getValue());
+                    out.write(ObjectMapperUtils.getObjectMapper().writeValueAsBytes(record));
+                    out.write('\n');
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            closeJournal();
+            journal = new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+            journalRecords = credentials.size();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write local credentials to " + path, e);
+        }
+    }
+
+    private void closeJournal() {
+        if (journal == null)
+            return;
+
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Could not close local credential store " + path, e);
+        }
+        journal = null;
+    }
+
+    private static void createParentDirectories(Path file) throws IOException {
+        if (file.getParent() != null)
+            Files.createDirectories(file.getParent());
+    }
+}
@@ -0,0 +1,210 @@
+package de.evoila.cf.config.security.openid;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import de.evoila.cf.broker.bean.DashboardSessionConfiguration;
+import de.evoila.cf.broker.model.DashboardClient;
+import de.evoila.cf.broker.model.oauth.CompositeAccessToken;
+import de.evoila.cf.config.http.OutboundHttpClientFactory;
+import de.evoila.cf.config.security.credhub.CredentialCipher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OAuth client of the dashboard SSO. Token requests share the pooled outbound connections to
+ * the UAA and the Basic client authentication header is encoded once per dashboard client.
+ *
+ * Refresh tokens never leave the broker: they are kept encrypted in memory and referenced by
+ * a random session id, which the dashboard stores in an HttpOnly cookie. Sessions are local
+ * to a broker instance, a user hitting another instance simply logs in again.
+ */
+@Component
+public class DashboardOAuthClient {
+
+    private static final String TOKEN_PATH = "/token";
+
+    private static final int SESSION_ID_LENGTH = 32;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final RestTemplate restTemplate;
+
+    private final ConcurrentMap<String, ClientAuthorization> clientAuthorizations = new ConcurrentHashMap<>();
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final CredentialCipher cipher = new CredentialCipher(CredentialCipher.generateKey());
+
+    private Cache<String, Session> sessions;
+
+    public DashboardOAuthClient(OutboundHttpClientFactory outboundHttpClientFactory,
+                                DashboardSessionConfiguration sessionConfiguration) {
+        this.restTemplate = outboundHttpClientFactory.createRestTemplate("uaa");
+
+        if (sessionConfiguration.getTtl() > 0)
+            this.sessions = CacheBuilder.newBuilder()
+                    .expireAfterWrite(sessionConfiguration.getTtl(), TimeUnit.MILLISECONDS)
+                    .maximumSize(sessionConfiguration.getMaximumSize())
+                    .build();
+    }
+
+    public CompositeAccessToken exchangeCode(String oauthEndpoint, String code, DashboardClient dashboardClient,
+                                             String redirectUri) throws RestClientException {
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("response_type", "token");
+        form.add("grant_type", "authorization_code");
+        form.add("client_id", dashboardClient.getId());
+        form.add("client_secret", dashboardClient.getSecret());
+        form.add("redirect_uri", redirectUri);
+        form.add("code", code);
+
+        return requestToken(oauthEndpoint, dashboardClient, form);
+    }
+
+    public CompositeAccessToken refresh(String oauthEndpoint, String refreshToken, DashboardClient dashboardClient)
+            throws RestClientException {
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("grant_type", "refresh_token");
+        form.add("refresh_token", refreshToken);
+
+        return requestToken(oauthEndpoint, dashboardClient, form);
+    }
+
+    private CompositeAccessToken requestToken(String oauthEndpoint, DashboardClient dashboardClient,
+                                              MultiValueMap<String, String> form) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.AUTHORIZATION, clientAuthorization(dashboardClient));
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+
+        ResponseEntity<CompositeAccessToken> token = restTemplate.exchange(oauthEndpoint + TOKEN_PATH,
+                HttpMethod.POST, new HttpEntity<>(form, headers), CompositeAccessToken.class);
+
+        return token != null ? token.getBody() : null;
+    }
+
+    private String clientAuthorization(DashboardClient dashboardClient) {
+        ClientAuthorization authorization = clientAuthorizations.get(dashboardClient.getId());
+        if (authorization == null || !authorization.secret.equals(dashboardClient.getSecret())) {
+            authorization = new ClientAuthorization(dashboardClient.getSecret(), "Basic " + Base64.getEncoder()
+                    .encodeToString((dashboardClient.getId() + ":" + dashboardClient.getSecret()).getBytes(StandardCharsets.UTF_8)));
+            clientAuthorizations.put(dashboardClient.getId(), authorization);
+        }
+        return authorization.header;
+    }
+
+    public boolean isSessionsEnabled() {
+        return sessions != null;
+    }
+
+    /**
+     * Keeps the refresh token of the given token for later logins to the dashboard of the instance.
+     *
+     * @return Id of the new session, or null if sessions are disabled or there is no refresh token
+     */
+    public String createSession(String serviceInstanceId, CompositeAccessToken token) {
+        if (sessions == null || token.getRefreshToken() == null)
+            return null;
+
+        byte[] id = new byte[SESSION_ID_LENGTH];
+        secureRandom.nextBytes(id);
+        String sessionId = Base64.getUrlEncoder().withoutPadding().encodeToString(id);
+
+        sessions.put(sessionId, session(sessionId, serviceInstanceId, token.getRefreshToken()));
+        return sessionId;
+    }
+
+    /**
+     * Gets a new access token with the refresh token of the session. If the UAA rotates refresh
+     * tokens, the session continues with the new one.
+     *
+     * @return The new token, or null if the session is unknown, belongs to another instance or
+     * the refresh token was rejected. In the latter case the session is removed.
+     */
+    public CompositeAccessToken refreshSession(String sessionId, String serviceInstanceId, String oauthEndpoint,
+                                               DashboardClient dashboardClient) {
+        if (sessions == null || sessionId == null)
+            return null;
+
+        Session session = sessions.getIfPresent(sessionId);
+        if (session == null || !session.serviceInstanceId.equals(serviceInstanceId))
+            return null;
+
+        try {
+            String refreshToken = new String(cipher.decrypt(sessionId, session.refreshToken), StandardCharsets.UTF_8);
+            CompositeAccessToken token = refresh(oauthEndpoint, refreshToken, dashboardClient);
+            if (token == null) {
+                sessions.invalidate(sessionId);
+                return null;
+            }
+
+            if (token.getRefreshToken() != null && !token.getRefreshToken().equals(refreshToken))
+                sessions.put(sessionId, session(sessionId, serviceInstanceId, token.getRefreshToken()));
+
+            return token;
+        } catch (GeneralSecurityException | RestClientException e) {
+            log.info("Could not refresh dashboard session of service instance " + serviceInstanceId + ": " + e.getMessage());
+            sessions.invalidate(sessionId);
+            return null;
+        }
+    }
+
+    /**
+     * Ends the session on logout, its refresh token is dropped and can not be used again.
+     */
+    public void invalidateSession(String sessionId) {
+        if (sessions != null && sessionId != null)
+            sessions.invalidate(sessionId);
+    }
+
+    private Session session(String sessionId, String serviceInstanceId, String refreshToken) {
+        try {
+            return new Session(serviceInstanceId, cipher.encrypt(sessionId, refreshToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not store dashboard session", e);
+        }
+    }
+
+    private static class ClientAuthorization {
+
+        private final String secret;
+
+        private final String header;
+
+        private ClientAuthorization(String secret, String header) {
+            this.secret = secret;
+            this.header = header;
+        }
+    }
+
+    private static class Session {
+
+        private final String serviceInstanceId;
+
+        private final byte[] refreshToken;
+
+        private Session(String serviceInstanceId, byte[] refreshToken) {
+            this.serviceInstanceId = serviceInstanceId;
+            this.refreshToken = refreshToken;
+        }
+    }
+}
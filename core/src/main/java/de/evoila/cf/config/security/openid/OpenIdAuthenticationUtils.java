@@ -32,6 +32,10 @@ public class OpenIdAuthenticationUtils {
         return authCode;
     }
 
+    /**
+     * @deprecated Opens a new connection for every login, use {@link DashboardOAuthClient#exchangeCode} instead
+     */
+    @Deprecated
     public static CompositeAccessToken getAccessAndRefreshToken(String oauthEndpoint, String code, DashboardClient dashboardClient,
                                                           String redirectUri) throws RestClientException {
         String clientBasicAuth = getClientBasicAuthHeader(dashboardClient.getId(),  dashboardClient.getSecret());
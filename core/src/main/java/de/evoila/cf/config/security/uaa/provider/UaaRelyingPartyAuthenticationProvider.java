@@ -1,9 +1,14 @@
 /** */
 package de.evoila.cf.config.security.uaa.provider;
 
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
 import de.evoila.cf.config.security.uaa.ScopeAuthority;
 import de.evoila.cf.config.security.uaa.UaaUserDetails;
 import de.evoila.cf.config.security.uaa.token.UaaRelyingPartyToken;
+import de.evoila.cf.config.security.uaa.utils.JwtVerifierRegistry;
 import de.evoila.cf.config.security.uaa.utils.UaaFilterUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,9 +22,12 @@ import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMap
 import org.springframework.security.core.authority.mapping.NullAuthoritiesMapper;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /** @author Johannes Hiemer. */
 public class UaaRelyingPartyAuthenticationProvider implements AuthenticationProvider, InitializingBean {
@@ -30,6 +38,7 @@ public class UaaRelyingPartyAuthenticationProvider implements AuthenticationProv
 
         // These claims are always present (regardless of scope)
         public static final String EXP = "exp";
+        public static final String ISS = "iss";
         public static final String CLIENT = "client";
         public static final String ORIGIN = "origin";
         public static final String SCOPE = "scope";
@@ -42,6 +51,12 @@ public class UaaRelyingPartyAuthenticationProvider implements AuthenticationProv
 
     private GrantedAuthoritiesMapper authoritiesMapper = new NullAuthoritiesMapper();
 
+    private Cache<String, CachedAuthentication> authenticationCache;
+
+    private JwtVerifierRegistry verifierRegistry;
+
+    private Clock clock = Clock.systemUTC();
+
     public void afterPropertiesSet() throws Exception {
         //Assert.notNull(this.publicKey, "The publicKey must be set");
     }
@@ -53,8 +68,34 @@ public class UaaRelyingPartyAuthenticationProvider implements AuthenticationProv
         }
 
         UaaRelyingPartyToken auth = (UaaRelyingPartyToken) authentication;
-        Map<String, Object> tokenObj = UaaFilterUtils.verifiedToken(auth.getToken(), publicKey);
+        if (authenticationCache == null)
+            return authenticate(verifiedToken(auth.getToken()));
+
+        // Dashboards send the same token with every call, so verifying and mapping it once is enough
+        String key = Hashing.sha256().hashString(auth.getToken(), StandardCharsets.UTF_8).toString();
+        CachedAuthentication cached = authenticationCache.getIfPresent(key);
+        if (cached != null) {
+            if (clock.millis() < cached.expiresAt)
+                return cached.authentication;
+            authenticationCache.invalidate(key);
+        }
+
+        Map<String, Object> tokenObj = verifiedToken(auth.getToken());
+        Authentication result = authenticate(tokenObj);
+
+        long expiresAt = ((Number) tokenObj.get(Properties.EXP)).longValue() * 1000;
+        authenticationCache.put(key, new CachedAuthentication(result, expiresAt));
 
+        return result;
+    }
+
+    private Map<String, Object> verifiedToken(String token) {
+        if (verifierRegistry != null)
+            return UaaFilterUtils.verifiedToken(token, verifierRegistry);
+        return UaaFilterUtils.verifiedToken(token, publicKey);
+    }
+
+    private Authentication authenticate(Map<String, Object> tokenObj) {
         UaaUserDetails userDetails = new UaaUserDetails();
         userDetails.setUsername(tokenObj.get(Properties.USER_NAME).toString());
         userDetails.setGrantedAuthorities(scopeToGrantedAuthority((List<String>) tokenObj.get(Properties.SCOPE)));
@@ -87,4 +128,54 @@ public class UaaRelyingPartyAuthenticationProvider implements AuthenticationProv
         this.authoritiesMapper = authoritiesMapper;
     }
 
+    /**
+     * Verifies the signature of every token with the keys of its issuer. Without a registry
+     * only the expiration of tokens is checked.
+     */
+    public void setVerifierRegistry(JwtVerifierRegistry verifierRegistry) {
+        this.verifierRegistry = verifierRegistry;
+    }
+
+    /**
+     * Caches successful authentications by the SHA-256 digest of their token, until the token
+     * expires but at most for maxTtl milliseconds. Failed authentications are never cached.
+     */
+    public void enableAuthenticationCache(long maximumSize, long maxTtl) {
+        if (maxTtl <= 0) {
+            this.authenticationCache = null;
+            return;
+        }
+
+        this.authenticationCache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(maxTtl, TimeUnit.MILLISECONDS)
+                .ticker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return TimeUnit.MILLISECONDS.toNanos(clock.millis());
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Clock of the authentication cache, the token expiration itself is always checked
+     * against the system time.
+     */
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private static class CachedAuthentication {
+
+        private final Authentication authentication;
+
+        private final long expiresAt;
+
+        private CachedAuthentication(Authentication authentication, long expiresAt) {
+            this.authentication = authentication;
+            this.expiresAt = expiresAt;
+        }
+    }
+
 }
@@ -0,0 +1,164 @@
+package de.evoila.cf.config.security.uaa.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import de.evoila.cf.broker.bean.UaaTokenVerificationConfiguration;
+import de.evoila.cf.broker.util.ObjectMapperUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.jwt.crypto.sign.RsaVerifier;
+import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds one parsed {@link RsaVerifier} per issuer and key id, so verifying a token costs a map
+ * lookup and the RSA operation, but never parsing a key. The key set files are checked for
+ * changes in the background and when a token refers to an unknown key id, so rotated keys are
+ * picked up without a restart.
+ *
+ * Created on the same property as its configuration, so enabling the verification can not
+ * silently leave the registry out.
+ */
+@Component
+@ConditionalOnProperty(prefix = "uaa.token-verification", name = "enabled", havingValue = "true")
+public class JwtVerifierRegistry {
+
+    public static final String RS256 = "RS256";
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Map<String, Path> keySetPaths = new HashMap<>();
+
+    private final ConcurrentMap<String, KeySet> keySets = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    public JwtVerifierRegistry(UaaTokenVerificationConfiguration configuration) {
+        if (configuration.getKeySets() == null || configuration.getKeySets().isEmpty())
+            throw new IllegalStateException("UAA token verification is enabled, but no key sets are configured "
+                    + "in uaa.token-verification.key-sets");
+
+        configuration.getKeySets().forEach((issuer, path) -> keySetPaths.put(issuer, Paths.get(path)));
+        refresh();
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwt-key-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, configuration.getRefreshInterval(),
+                configuration.getRefreshInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Reloads the key sets whose files changed. A key set which can not be read keeps its
+     * previous keys.
+     */
+    public void refresh() {
+        for (String issuer : keySetPaths.keySet()) {
+            try {
+                reload(issuer);
+            } catch (IOException | RuntimeException e) {
+                log.error("Could not load token keys of issuer " + issuer, e);
+            }
+        }
+    }
+
+    /**
+     * @param keyId Key id of the token header, may be null if the issuer has a single key
+     */
+    public SignatureVerifier getVerifier(String issuer, String keyId) {
+        if (issuer == null || !keySetPaths.containsKey(issuer))
+            throw new AuthenticationServiceException("Tokens of issuer " + issuer + " are not accepted");
+
+        KeySet keySet = keySets.get(issuer);
+        SignatureVerifier verifier = keySet != null ? keySet.find(keyId) : null;
+        if (verifier == null) {
+            try {
+                verifier = reload(issuer).find(keyId);
+            } catch (IOException e) {
+                throw new AuthenticationServiceException("Could not load token keys of issuer " + issuer, e);
+            }
+        }
+
+        if (verifier == null)
+            throw new AuthenticationServiceException("Unknown key " + keyId + " of issuer " + issuer);
+
+        return verifier;
+    }
+
+    private synchronized KeySet reload(String issuer) throws IOException {
+        Path path = keySetPaths.get(issuer);
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+        KeySet current = keySets.get(issuer);
+        if (current != null && current.lastModified == lastModified)
+            return current;
+
+        KeySet loaded = new KeySet(lastModified, parse(path));
+        keySets.put(issuer, loaded);
+        log.info("Loaded " + loaded.verifiers.size() + " token keys of issuer " + issuer);
+        return loaded;
+    }
+
+    private static Map<String, SignatureVerifier> parse(Path path) throws IOException {
+        JsonNode keys = ObjectMapperUtils.getObjectMapper().readTree(path.toFile()).path("keys");
+
+        Map<String, SignatureVerifier> verifiers = new HashMap<>();
+        for (JsonNode key : keys) {
+            if (key.hasNonNull("alg") && !RS256.equals(key.get("alg").asText()))
+                continue;
+
+            String keyId = key.hasNonNull("kid") ? key.get("kid").asText() : null;
+            if (key.hasNonNull("value"))
+                verifiers.put(keyId, new RsaVerifier(key.get("value").asText()));
+            else if (key.hasNonNull("n") && key.hasNonNull("e"))
+                verifiers.put(keyId, new RsaVerifier(unsignedInteger(key.get("n").asText()),
+                        unsignedInteger(key.get("e").asText())));
+        }
+        return verifiers;
+    }
+
+    private static BigInteger unsignedInteger(String base64Url) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(base64Url));
+    }
+
+    private static class KeySet {
+
+        private final long lastModified;
+
+        private final Map<String, SignatureVerifier> verifiers;
+
+        private KeySet(long lastModified, Map<String, SignatureVerifier> verifiers) {
+            this.lastModified = lastModified;
+            this.verifiers = verifiers;
+        }
+
+        private SignatureVerifier find(String keyId) {
+            if (keyId == null && verifiers.size() == 1)
+                return verifiers.values().iterator().next();
+            return verifiers.get(keyId);
+        }
+    }
+}
@@ -2,18 +2,21 @@ package de.evoila.cf.config.security.uaa.utils;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import de.evoila.cf.broker.util.ObjectMapperUtils;
 import de.evoila.cf.config.security.uaa.provider.UaaRelyingPartyAuthenticationProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.jwt.Jwt;
 import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.InvalidSignatureException;
 import org.springframework.security.jwt.crypto.sign.RsaVerifier;
 import org.springframework.util.Assert;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.constraints.NotNull;
 import java.io.IOException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -22,9 +25,10 @@ import java.util.Map;
 public class UaaFilterUtils {
 
     private static final String BEARER = "Bearer ";
+    private static final TypeReference<HashMap<String, Object>> CLAIMS_TYPE = new TypeReference<HashMap<String, Object>>() {};
     private static Logger log = LoggerFactory.getLogger(UaaFilterUtils.class);
 
-    public static ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = ObjectMapperUtils.getObjectMapper();
 
     public static String tryResolveToken(HttpServletRequest request, String headerName) {
         Assert.notNull(headerName, "headerName must not be null/or empty");
@@ -54,6 +58,35 @@ public class UaaFilterUtils {
         return tokenObj;
     }
 
+    /**
+     * Verifies signature and expiration of the token with the keys of its issuer. Only RS256
+     * signed tokens are accepted.
+     */
+    @NotNull
+    public static Map<String, Object> verifiedToken(String token, JwtVerifierRegistry verifierRegistry) {
+        Jwt jwt = JwtHelper.decode(token);
+
+        Map<String, Object> header = tryExtractHeader(token);
+        if (header == null || !JwtVerifierRegistry.RS256.equals(header.get("alg"))) {
+            throw new AuthenticationServiceException("Unsupported JWT signature algorithm");
+        }
+
+        Map<String, Object> tokenObj = tryExtractToken(jwt);
+        if (tokenObj == null) {
+            throw new AuthenticationServiceException("Error parsing JWT token/extracting claims");
+        }
+
+        try {
+            jwt.verifySignature(verifierRegistry.getVerifier((String) tokenObj.get(UaaRelyingPartyAuthenticationProvider.Properties.ISS),
+                    (String) header.get("kid")));
+        } catch (InvalidSignatureException ex) {
+            throw new AuthenticationServiceException("Error verifying signature of token");
+        }
+
+        verifyExpiration(tokenObj);
+        return tokenObj;
+    }
+
     private static void verifyExpiration(Map<String, Object> tokenObj) {
         Long timestamp = (long) ((Integer) tokenObj.get(UaaRelyingPartyAuthenticationProvider.Properties.EXP)) * 1000;
         Date now = new Date();
@@ -72,12 +105,23 @@ public class UaaFilterUtils {
         }
     }
 
+    private static Map<String, Object> tryExtractHeader(String token) {
+        try {
+            byte[] header = Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.')));
+            return objectMapper.readValue(header, CLAIMS_TYPE);
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Error parsing header from JWT", e);
+        }
+
+        return null;
+    }
+
     public static Map<String, Object> tryExtractToken(Jwt jwt) {
         if (jwt.getClaims() == null)
             return null;
 
         try {
-            return objectMapper.readValue(jwt.getClaims(), new TypeReference<HashMap<String, Object>>() {});
+            return objectMapper.readValue(jwt.getClaims(), CLAIMS_TYPE);
         } catch (IOException e) {
             log.error("Error parsing claims from JWT", e);
         }
@@ -3,7 +3,12 @@
  */
 package de.evoila.config.web;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import de.evoila.cf.broker.util.ObjectMapperUtils;
 import de.evoila.cf.config.security.uaa.utils.HeaderCheckFilter;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -37,6 +42,24 @@ public class BaseConfiguration implements WebMvcConfigurer {
 
     }
 
+    /**
+     * Module beans are installed into the mapper of the Jackson auto configuration.
+     */
+    @Bean
+    public AfterburnerModule afterburnerModule() {
+        return new AfterburnerModule();
+    }
+
+    /**
+     * Configures the auto configured mapper like {@link ObjectMapperUtils}, while keeping
+     * every other spring.jackson property and customizer of the application in effect.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer brokerObjectMapperCustomizer() {
+        return builder -> builder.featuresToDisable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
+                SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
     @Bean
     public FilterRegistrationBean headerCheck() {
         FilterRegistrationBean registration = new FilterRegistrationBean();
@@ -46,7 +69,8 @@ public class BaseConfiguration implements WebMvcConfigurer {
                 "/v2/catalog/",
                 "/v2/service_instances/*",
                 "/v2/service_instances/*/last_operation",
-                "/v2/service_instances/*/service_bindings/*"
+                "/v2/service_instances/*/service_bindings/*",
+                "/v2/service_instances/*/service_bindings/*/last_operation"
         );
         return registration;
     }
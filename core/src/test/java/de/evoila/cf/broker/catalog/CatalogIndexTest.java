@@ -0,0 +1,97 @@
+package de.evoila.cf.broker.catalog;
+
+import de.evoila.cf.broker.model.Catalog;
+import de.evoila.cf.broker.model.Plan;
+import de.evoila.cf.broker.model.Platform;
+import de.evoila.cf.broker.model.ServiceDefinition;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class CatalogIndexTest {
+
+    @Test
+    public void servicesAndPlansAreFoundById() {
+        Plan small = plan("small-id");
+        Plan large = plan("large-id");
+        Plan other = plan("other-plan-id");
+        ServiceDefinition service = service("service-id", small, large);
+        ServiceDefinition otherService = service("other-service-id", other);
+
+        CatalogIndex index = new CatalogIndex(catalog(service, otherService));
+
+        assertSame(service, index.getServiceDefinition("service-id"));
+        assertSame(otherService, index.getServiceDefinition("other-service-id"));
+        assertSame(large, index.getPlan("large-id"));
+        assertSame(other, index.getPlan("other-plan-id"));
+        assertSame(service, index.getServiceDefinitionByPlanId("small-id"));
+        assertSame(otherService, index.getServiceDefinitionByPlanId("other-plan-id"));
+    }
+
+    @Test
+    public void unknownAndNullIdsAreNotFound() {
+        CatalogIndex index = new CatalogIndex(catalog(service("service-id", plan("plan-id"))));
+
+        assertNull(index.getServiceDefinition("unknown"));
+        assertNull(index.getPlan("unknown"));
+        assertNull(index.getServiceDefinitionByPlanId("unknown"));
+        assertNull(index.getServiceDefinition(null));
+        assertNull(index.getPlan(null));
+        assertNull(index.getServiceDefinitionByPlanId(null));
+    }
+
+    @Test
+    public void firstOccurrenceOfADuplicateIdWins() {
+        Plan first = plan("plan-id");
+        Plan duplicate = plan("plan-id");
+        ServiceDefinition service = service("service-id", first);
+        ServiceDefinition duplicateService = service("service-id", duplicate);
+
+        CatalogIndex index = new CatalogIndex(catalog(service, duplicateService));
+
+        assertSame(service, index.getServiceDefinition("service-id"));
+        assertSame(first, index.getPlan("plan-id"));
+        assertSame(service, index.getServiceDefinitionByPlanId("plan-id"));
+    }
+
+    @Test
+    public void incompleteEntriesAreSkipped() {
+        Plan plan = plan("plan-id");
+        ServiceDefinition withoutId = service(null, plan, plan(null));
+        ServiceDefinition withoutPlans = service("without-plans-id");
+        withoutPlans.setPlans(null);
+
+        CatalogIndex index = new CatalogIndex(catalog(withoutId, withoutPlans));
+
+        assertSame(withoutPlans, index.getServiceDefinition("without-plans-id"));
+        assertSame(plan, index.getPlan("plan-id"));
+        assertSame(withoutId, index.getServiceDefinitionByPlanId("plan-id"));
+    }
+
+    @Test
+    public void emptyCatalogIsIndexed() {
+        Catalog withoutServices = new Catalog();
+        withoutServices.setServices(null);
+
+        assertNull(new CatalogIndex(withoutServices).getServiceDefinition("service-id"));
+        assertNull(new CatalogIndex(null).getPlan("plan-id"));
+        assertNull(new CatalogIndex(null).getCatalog());
+    }
+
+    private static Catalog catalog(ServiceDefinition... services) {
+        Catalog catalog = new Catalog();
+        catalog.setServices(Arrays.asList(services));
+        return catalog;
+    }
+
+    private static ServiceDefinition service(String id, Plan... plans) {
+        return new ServiceDefinition(id, "service", "A service", true, Arrays.asList(plans));
+    }
+
+    private static Plan plan(String id) {
+        return new Plan(id, "plan", "A plan", Platform.BOSH, true);
+    }
+}
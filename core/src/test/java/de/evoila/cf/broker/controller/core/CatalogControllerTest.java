@@ -0,0 +1,113 @@
+package de.evoila.cf.broker.controller.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.evoila.cf.broker.model.Catalog;
+import de.evoila.cf.broker.model.Plan;
+import de.evoila.cf.broker.model.Platform;
+import de.evoila.cf.broker.model.ServiceDefinition;
+import de.evoila.cf.broker.service.CatalogService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CatalogControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+        Catalog catalog = new Catalog();
+        catalog.setServices(Collections.singletonList(new ServiceDefinition("service-id", "service", "A service", true,
+                Collections.singletonList(new Plan("plan-id", "plan", "A plan", Platform.BOSH, true)))));
+
+        CatalogService catalogService = mock(CatalogService.class);
+        when(catalogService.getCatalog()).thenReturn(catalog);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new CatalogController(catalogService, new ObjectMapper())).build();
+    }
+
+    @Test
+    public void identityAndGzipRenditionsHaveDistinctEtags() throws Exception {
+        MvcResult identity = mockMvc.perform(get("/v2/catalog"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+
+        MvcResult gzip = mockMvc.perform(get("/v2/catalog").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        String identityEtag = identity.getResponse().getHeader(HttpHeaders.ETAG);
+        String gzipEtag = gzip.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(identityEtag, gzipEtag);
+        assertTrue(gzipEtag.endsWith("-gzip\""));
+        assertArrayEquals(identity.getResponse().getContentAsByteArray(),
+                gunzip(gzip.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    public void gzipIsNotSentWhenRefused() throws Exception {
+        mockMvc.perform(get("/v2/catalog").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void matchingEtagOfEitherRenditionIsNotModified() throws Exception {
+        String identityEtag = mockMvc.perform(get("/v2/catalog")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String gzipEtag = mockMvc.perform(get("/v2/catalog").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/v2/catalog").header(HttpHeaders.IF_NONE_MATCH, identityEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, identityEtag))
+                .andExpect(content().bytes(new byte[0]));
+
+        mockMvc.perform(get("/v2/catalog")
+                .header(HttpHeaders.IF_NONE_MATCH, gzipEtag)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, gzipEtag));
+
+        mockMvc.perform(get("/v2/catalog").header(HttpHeaders.IF_NONE_MATCH, "W/" + gzipEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void staleEtagGetsTheCatalog() throws Exception {
+        mockMvc.perform(get("/v2/catalog").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk());
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws Exception {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1)
+                plain.write(buffer, 0, read);
+        }
+        return plain.toByteArray();
+    }
+}
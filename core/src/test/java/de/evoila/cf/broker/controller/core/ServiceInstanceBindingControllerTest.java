@@ -0,0 +1,240 @@
+package de.evoila.cf.broker.controller.core;
+
+import de.evoila.cf.broker.model.JobProgress;
+import de.evoila.cf.broker.model.Plan;
+import de.evoila.cf.broker.model.Platform;
+import de.evoila.cf.broker.model.ServiceDefinition;
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.model.ServiceInstanceBinding;
+import de.evoila.cf.broker.repository.ServiceDefinitionRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryBindingRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryJobRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryServiceInstanceRepository;
+import de.evoila.cf.broker.service.AsyncBindingService;
+import de.evoila.cf.broker.service.CatalogService;
+import de.evoila.cf.broker.service.JobProgressService;
+import de.evoila.cf.broker.service.impl.BindingServiceImpl;
+import de.evoila.cf.broker.service.impl.TestBindingServiceImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.PLAN_ID;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.SERVICE_DEFINITION_ID;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.binding;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.randomId;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.serviceInstance;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ServiceInstanceBindingControllerTest {
+
+    private MockMvc mockMvc;
+
+    private InMemoryServiceInstanceRepository serviceInstances;
+
+    private InMemoryBindingRepository bindings;
+
+    private InMemoryJobRepository jobs;
+
+    private AsyncBindingService asyncBindingService;
+
+    private ServiceDefinition serviceDefinition;
+
+    private BindingServiceImpl bindingService;
+
+    @Before
+    public void setUp() throws Exception {
+        serviceInstances = new InMemoryServiceInstanceRepository();
+        bindings = new InMemoryBindingRepository();
+        jobs = new InMemoryJobRepository();
+
+        Plan plan = new Plan(PLAN_ID, "plan", "A plan", Platform.BOSH, true);
+        serviceDefinition = new ServiceDefinition(SERVICE_DEFINITION_ID, "service", "A service", true,
+                Collections.singletonList(plan));
+        serviceDefinition.setBindingsRetrievable(true);
+
+        ServiceDefinitionRepository serviceDefinitionRepository = mock(ServiceDefinitionRepository.class);
+        when(serviceDefinitionRepository.getPlan(PLAN_ID)).thenReturn(plan);
+        CatalogService catalogService = mock(CatalogService.class);
+        when(catalogService.getServiceDefinition(SERVICE_DEFINITION_ID)).thenReturn(serviceDefinition);
+
+        // Asynchronous operations never finish, so the job of a binding stays in progress
+        JobProgressService jobProgressService = new JobProgressService(jobs);
+        asyncBindingService = mock(AsyncBindingService.class);
+        when(asyncBindingService.getProgress(anyString()))
+                .thenAnswer(invocation -> jobProgressService.getProgress(invocation.getArgument(0)));
+
+        bindingService = new TestBindingServiceImpl(bindings, serviceDefinitionRepository, serviceInstances, null);
+        bindingService.setAsyncBindingService(asyncBindingService);
+        bindingService.setJobProgressService(jobProgressService);
+        bindingService.setCatalogService(catalogService);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new ServiceInstanceBindingController(bindingService)).build();
+    }
+
+    @Test
+    public void repeatedAsyncDeleteIsAcceptedWithoutStartingASecondJob() throws Exception {
+        ServiceInstanceBinding binding = storedBinding();
+
+        for (int i = 0; i < 2; i++)
+            mockMvc.perform(deleteBinding(binding).param("accepts_incomplete", "true"))
+                    .andExpect(status().isAccepted());
+
+        verify(asyncBindingService, times(1)).asyncDeleteServiceInstanceBinding(any(BindingServiceImpl.class),
+                eq(binding.getId()), any(ServiceInstance.class), eq(PLAN_ID));
+
+        mockMvc.perform(lastOperation(binding.getServiceInstanceId(), binding.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value(JobProgress.IN_PROGRESS));
+    }
+
+    @Test
+    public void concurrentAsyncDeletesStartASingleJob() throws Exception {
+        ServiceInstanceBinding binding = storedBinding();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++)
+                futures.add(executorService.submit(() -> {
+                    start.await();
+                    return bindingService.deleteServiceInstanceBinding(binding.getId(), PLAN_ID, true);
+                }));
+            start.countDown();
+            for (Future<Boolean> future : futures)
+                future.get(10, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        verify(asyncBindingService, times(1)).asyncDeleteServiceInstanceBinding(any(BindingServiceImpl.class),
+                eq(binding.getId()), any(ServiceInstance.class), eq(PLAN_ID));
+    }
+
+    @Test
+    public void syncDeleteOfAsyncCreatedBindingRemovesItsJob() throws Exception {
+        ServiceInstanceBinding binding = storedBinding();
+        jobs.saveOrUpdateJobProgress(binding.getId(), JobProgress.SUCCESS);
+
+        mockMvc.perform(deleteBinding(binding))
+                .andExpect(status().isOk());
+
+        assertFalse(jobs.containsJobProgress(binding.getId()));
+        mockMvc.perform(lastOperation(binding.getServiceInstanceId(), binding.getId()))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    public void succeededJobOfBindingWhichIsNotStoredIsGone() throws Exception {
+        ServiceInstance serviceInstance = storedServiceInstance();
+        String bindingId = randomId();
+        jobs.saveOrUpdateJobProgress(bindingId, JobProgress.SUCCESS);
+
+        mockMvc.perform(lastOperation(serviceInstance.getId(), bindingId))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    public void lastOperationOfCompletedDeletionIsGone() throws Exception {
+        ServiceInstance serviceInstance = storedServiceInstance();
+
+        mockMvc.perform(lastOperation(serviceInstance.getId(), randomId()))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    public void lastOperationOfBindingOfAnotherInstanceIsGone() throws Exception {
+        ServiceInstanceBinding binding = storedBinding();
+        jobs.saveOrUpdateJobProgress(binding.getId(), JobProgress.IN_PROGRESS);
+        ServiceInstance otherInstance = storedServiceInstance();
+
+        mockMvc.perform(lastOperation(otherInstance.getId(), binding.getId()))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    public void lastOperationOfUnknownInstanceIsNotFound() throws Exception {
+        ServiceInstanceBinding binding = storedBinding();
+        jobs.saveOrUpdateJobProgress(binding.getId(), JobProgress.IN_PROGRESS);
+
+        mockMvc.perform(lastOperation(randomId(), binding.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void fetchReturnsStoredBinding() throws Exception {
+        ServiceInstanceBinding binding = storedBinding();
+
+        mockMvc.perform(fetch(binding.getServiceInstanceId(), binding.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.credentials.username").value("user-" + binding.getId()));
+    }
+
+    @Test
+    public void fetchOfBindingOfAnotherInstanceIsNotFound() throws Exception {
+        ServiceInstanceBinding binding = storedBinding();
+        ServiceInstance otherInstance = storedServiceInstance();
+
+        mockMvc.perform(fetch(otherInstance.getId(), binding.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void fetchIsRejectedWhenBindingsAreNotRetrievable() throws Exception {
+        ServiceInstanceBinding binding = storedBinding();
+        serviceDefinition.setBindingsRetrievable(false);
+
+        mockMvc.perform(fetch(binding.getServiceInstanceId(), binding.getId()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ServiceInstance storedServiceInstance() {
+        ServiceInstance serviceInstance = serviceInstance(randomId());
+        serviceInstances.addServiceInstance(serviceInstance.getId(), serviceInstance);
+        return serviceInstance;
+    }
+
+    private ServiceInstanceBinding storedBinding() {
+        ServiceInstanceBinding binding = binding(randomId(), storedServiceInstance().getId());
+        bindings.addInternalBinding(binding);
+        return binding;
+    }
+
+    private static MockHttpServletRequestBuilder fetch(String instanceId, String bindingId) {
+        return get("/v2/service_instances/" + instanceId + "/service_bindings/" + bindingId);
+    }
+
+    private static MockHttpServletRequestBuilder lastOperation(String instanceId, String bindingId) {
+        return get("/v2/service_instances/" + instanceId + "/service_bindings/" + bindingId + "/last_operation");
+    }
+
+    private static MockHttpServletRequestBuilder deleteBinding(ServiceInstanceBinding binding) {
+        return delete("/v2/service_instances/" + binding.getServiceInstanceId() + "/service_bindings/" + binding.getId())
+                .param("service_id", SERVICE_DEFINITION_ID)
+                .param("plan_id", PLAN_ID);
+    }
+}
@@ -0,0 +1,112 @@
+package de.evoila.cf.broker.controller.custom;
+
+import de.evoila.cf.broker.bean.DashboardSessionConfiguration;
+import de.evoila.cf.broker.bean.EndpointConfiguration;
+import de.evoila.cf.broker.model.Dashboard;
+import de.evoila.cf.broker.model.DashboardClient;
+import de.evoila.cf.broker.model.ServiceDefinition;
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.model.oauth.CompositeAccessToken;
+import de.evoila.cf.broker.repository.inmemory.InMemoryServiceInstanceRepository;
+import de.evoila.cf.broker.service.CatalogService;
+import de.evoila.cf.config.security.openid.DashboardOAuthClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.servlet.http.Cookie;
+
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.SERVICE_DEFINITION_ID;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.randomId;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.serviceInstance;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CustomAuthenticationControllerTest {
+
+    private static final String SESSION_ID = "c2Vzc2lvbi1pZA";
+
+    private MockMvc mockMvc;
+
+    private DashboardOAuthClient dashboardOAuthClient;
+
+    private ServiceInstance serviceInstance;
+
+    @Before
+    public void setUp() {
+        InMemoryServiceInstanceRepository serviceInstanceRepository = new InMemoryServiceInstanceRepository();
+        serviceInstance = serviceInstance(randomId());
+        serviceInstanceRepository.addServiceInstance(serviceInstance.getId(), serviceInstance);
+
+        Dashboard dashboard = new Dashboard();
+        dashboard.setUrl("https://dashboard.example.com");
+        dashboard.setAuthEndpoint("https://login.example.com/oauth");
+        DashboardClient dashboardClient = new DashboardClient();
+        dashboardClient.setId("dashboard");
+        dashboardClient.setSecret("secret");
+        dashboardClient.setRedirectUri("https://broker.example.com/custom/v2/authentication");
+        ServiceDefinition serviceDefinition = new ServiceDefinition();
+        serviceDefinition.setDashboard(dashboard);
+        serviceDefinition.setDashboardClient(dashboardClient);
+        CatalogService catalogService = mock(CatalogService.class);
+        when(catalogService.getServiceDefinition(SERVICE_DEFINITION_ID)).thenReturn(serviceDefinition);
+
+        dashboardOAuthClient = mock(DashboardOAuthClient.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new CustomAuthenticationController(serviceInstanceRepository,
+                catalogService, new EndpointConfiguration(), dashboardOAuthClient, new DashboardSessionConfiguration())).build();
+    }
+
+    @Test
+    public void loginSetsAnHttpOnlySameSiteSessionCookie() throws Exception {
+        CompositeAccessToken token = new CompositeAccessToken();
+        token.setAccessToken("access");
+        token.setRefreshToken("refresh");
+        when(dashboardOAuthClient.exchangeCode(anyString(), eq("code"), any(DashboardClient.class), anyString())).thenReturn(token);
+        when(dashboardOAuthClient.createSession(serviceInstance.getId(), token)).thenReturn(SESSION_ID);
+
+        mockMvc.perform(get("/custom/v2/authentication/" + serviceInstance.getId() + "/confirm").param("code", "code"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.SET_COOKIE, allOf(
+                        containsString("dashboard_session=" + SESSION_ID),
+                        containsString("Path=/custom/v2/authentication/" + serviceInstance.getId()),
+                        containsString("Max-Age=43200"),
+                        containsString("HttpOnly"),
+                        containsString("Secure"),
+                        containsString("SameSite=Lax"))));
+    }
+
+    @Test
+    public void logoutEndsTheSessionAndClearsTheCookie() throws Exception {
+        mockMvc.perform(post("/custom/v2/authentication/" + serviceInstance.getId() + "/logout")
+                .cookie(new Cookie("dashboard_session", SESSION_ID)))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.SET_COOKIE, allOf(
+                        containsString("dashboard_session=;"),
+                        containsString("Max-Age=0"),
+                        containsString("SameSite=Lax"))));
+
+        verify(dashboardOAuthClient).invalidateSession(SESSION_ID);
+    }
+
+    @Test
+    public void logoutOfAnUnknownInstanceIsRejected() throws Exception {
+        mockMvc.perform(post("/custom/v2/authentication/" + randomId() + "/logout")
+                .cookie(new Cookie("dashboard_session", SESSION_ID)))
+                .andExpect(status().isNotFound());
+
+        verifyZeroInteractions(dashboardOAuthClient);
+    }
+}
@@ -0,0 +1,76 @@
+package de.evoila.cf.broker.controller.custom;
+
+import de.evoila.cf.broker.bean.ServiceKeysConfiguration;
+import de.evoila.cf.broker.model.ServiceKeyResult;
+import de.evoila.cf.broker.repository.BindingRepository;
+import de.evoila.cf.broker.repository.ServiceInstanceRepository;
+import de.evoila.cf.broker.service.BindingService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Arrays;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CustomServiceKeysControllerTest {
+
+    private static final String INSTANCE_ID = "instance-id";
+
+    private MockMvc mockMvc;
+
+    private BindingService bindingService;
+
+    @Before
+    public void setUp() {
+        ServiceKeysConfiguration serviceKeysConfiguration = new ServiceKeysConfiguration();
+        serviceKeysConfiguration.setMaxBatchSize(2);
+
+        bindingService = mock(BindingService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new CustomServiceKeysController(mock(BindingRepository.class),
+                bindingService, mock(ServiceInstanceRepository.class), serviceKeysConfiguration)).build();
+    }
+
+    @Test
+    public void batchWithinTheLimitReturnsOneResultPerKey() throws Exception {
+        when(bindingService.createServiceKeys(eq(INSTANCE_ID), anyList())).thenReturn(Arrays.asList(
+                ServiceKeyResult.succeeded("first", null), ServiceKeyResult.failed("second", "invalid parameters")));
+
+        mockMvc.perform(post("/custom/v2/manage/servicekeys/" + INSTANCE_ID + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{}, {\"parameters\": {\"size\": 20}}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].binding_id").value("first"))
+                .andExpect(jsonPath("$[1].binding_id").value("second"))
+                .andExpect(jsonPath("$[1].state").value("failed"));
+    }
+
+    @Test
+    public void oversizedCreationBatchIsRejected() throws Exception {
+        mockMvc.perform(post("/custom/v2/manage/servicekeys/" + INSTANCE_ID + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{}, {}, {}]"))
+                .andExpect(status().isBadRequest());
+
+        verifyZeroInteractions(bindingService);
+    }
+
+    @Test
+    public void oversizedDeletionBatchIsRejected() throws Exception {
+        mockMvc.perform(post("/custom/v2/manage/servicekeys/" + INSTANCE_ID + "/batch/delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"a\", \"b\", \"c\"]"))
+                .andExpect(status().isBadRequest());
+
+        verifyZeroInteractions(bindingService);
+    }
+}
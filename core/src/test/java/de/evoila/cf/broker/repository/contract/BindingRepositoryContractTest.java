@@ -0,0 +1,137 @@
+package de.evoila.cf.broker.repository.contract;
+
+import de.evoila.cf.broker.model.ServiceInstanceBinding;
+import de.evoila.cf.broker.repository.BindingRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.binding;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.randomId;
+import static org.junit.Assert.*;
+
+/**
+ * Behaviour every {@link BindingRepository} has to provide. Backends extend this
+ * class and return a repository connected to their store.
+ */
+public abstract class BindingRepositoryContractTest {
+
+    protected static final int THREADS = 8;
+
+    protected static final int OPERATIONS_PER_THREAD = 100;
+
+    protected BindingRepository repository;
+
+    protected abstract BindingRepository createRepository();
+
+    @Before
+    public void setUpRepository() {
+        repository = createRepository();
+    }
+
+    @Test
+    public void unknownBindingIsNotContained() {
+        String id = randomId();
+
+        assertFalse(repository.containsInternalBindingId(id));
+        assertNull(repository.findOne(id));
+    }
+
+    @Test
+    public void addedBindingCanBeRead() {
+        ServiceInstanceBinding binding = binding(randomId(), randomId());
+        repository.addInternalBinding(binding);
+
+        assertTrue(repository.containsInternalBindingId(binding.getId()));
+
+        ServiceInstanceBinding stored = repository.findOne(binding.getId());
+        assertNotNull(stored);
+        assertEquals(binding.getServiceInstanceId(), stored.getServiceInstanceId());
+        assertEquals(binding.getCredentials(), stored.getCredentials());
+    }
+
+    @Test
+    public void unboundBindingIsNotContained() {
+        ServiceInstanceBinding binding = binding(randomId(), randomId());
+        repository.addInternalBinding(binding);
+
+        repository.unbindService(binding.getId());
+
+        assertFalse(repository.containsInternalBindingId(binding.getId()));
+        assertNull(repository.findOne(binding.getId()));
+    }
+
+    @Test
+    public void deletedBindingsAreNotContained() {
+        String serviceInstanceId = randomId();
+        ServiceInstanceBinding first = binding(randomId(), serviceInstanceId);
+        ServiceInstanceBinding second = binding(randomId(), serviceInstanceId);
+        ServiceInstanceBinding other = binding(randomId(), randomId());
+        repository.addInternalBinding(first);
+        repository.addInternalBinding(second);
+        repository.addInternalBinding(other);
+
+        repository.deleteBindings(Arrays.asList(first.getId(), second.getId()));
+
+        assertFalse(repository.containsInternalBindingId(first.getId()));
+        assertFalse(repository.containsInternalBindingId(second.getId()));
+        assertTrue(repository.getBindingsForServiceInstance(serviceInstanceId).isEmpty());
+        assertTrue(repository.containsInternalBindingId(other.getId()));
+    }
+
+    @Test
+    public void bindingsAreFoundByServiceInstance() {
+        String serviceInstanceId = randomId();
+        ServiceInstanceBinding first = binding(randomId(), serviceInstanceId);
+        ServiceInstanceBinding second = binding(randomId(), serviceInstanceId);
+        repository.addInternalBinding(first);
+        repository.addInternalBinding(second);
+        repository.addInternalBinding(binding(randomId(), randomId()));
+
+        List<ServiceInstanceBinding> found = repository.getBindingsForServiceInstance(serviceInstanceId);
+
+        Set<String> ids = found.stream().map(ServiceInstanceBinding::getId).collect(Collectors.toSet());
+        assertEquals(2, ids.size());
+        assertTrue(ids.contains(first.getId()));
+        assertTrue(ids.contains(second.getId()));
+    }
+
+    @Test
+    public void concurrentBindsToOneServiceInstanceAreAllVisible() throws Exception {
+        String serviceInstanceId = randomId();
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        ConcurrentTestRunner.run(THREADS, worker -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                ServiceInstanceBinding binding = binding(randomId(), serviceInstanceId);
+                repository.addInternalBinding(binding);
+                ids.add(binding.getId());
+            }
+        });
+
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, repository.getBindingsForServiceInstance(serviceInstanceId).size());
+        for (String id : ids)
+            assertTrue("Missing binding " + id, repository.containsInternalBindingId(id));
+    }
+
+    @Test
+    public void concurrentBindAndUnbindLeavesNoBindings() throws Exception {
+        String serviceInstanceId = randomId();
+
+        ConcurrentTestRunner.run(THREADS, worker -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                ServiceInstanceBinding binding = binding(randomId(), serviceInstanceId);
+                repository.addInternalBinding(binding);
+                assertTrue(repository.containsInternalBindingId(binding.getId()));
+                repository.unbindService(binding.getId());
+            }
+        });
+
+        assertTrue(repository.getBindingsForServiceInstance(serviceInstanceId).isEmpty());
+    }
+}
@@ -0,0 +1,50 @@
+package de.evoila.cf.broker.repository.contract;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Starts the given number of workers at the same time and fails with the first
+ * error any of them raised.
+ */
+public class ConcurrentTestRunner {
+
+    public interface Worker {
+        void run(int worker) throws Exception;
+    }
+
+    public static void run(int threads, Worker worker) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                final int index = i;
+                futures.add(executorService.submit(() -> {
+                    start.await();
+                    worker.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get(60, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof AssertionError)
+                        throw (AssertionError) e.getCause();
+                    throw e;
+                } catch (TimeoutException e) {
+                    fail("Concurrent workers did not finish within 60 seconds");
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
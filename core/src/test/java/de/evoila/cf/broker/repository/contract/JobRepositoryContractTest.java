@@ -0,0 +1,100 @@
+package de.evoila.cf.broker.repository.contract;
+
+import de.evoila.cf.broker.model.JobProgress;
+import de.evoila.cf.broker.repository.JobRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.randomId;
+import static org.junit.Assert.*;
+
+/**
+ * Behaviour every {@link JobRepository} has to provide. Backends extend this class
+ * and return a repository connected to their store.
+ */
+public abstract class JobRepositoryContractTest {
+
+    protected static final int THREADS = 8;
+
+    protected static final int OPERATIONS_PER_THREAD = 100;
+
+    protected JobRepository repository;
+
+    protected abstract JobRepository createRepository();
+
+    @Before
+    public void setUpRepository() {
+        repository = createRepository();
+    }
+
+    @Test
+    public void unknownJobProgressIsNotContained() {
+        String id = randomId();
+
+        assertFalse(repository.containsJobProgress(id));
+        assertNull(repository.getJobProgress(id));
+    }
+
+    @Test
+    public void savedJobProgressCanBeRead() {
+        String id = randomId();
+        repository.saveOrUpdateJobProgress(id, JobProgress.IN_PROGRESS);
+
+        assertTrue(repository.containsJobProgress(id));
+        assertEquals(JobProgress.IN_PROGRESS, repository.getJobProgress(id).getState());
+    }
+
+    @Test
+    public void updatedJobProgressReplacesState() {
+        String id = randomId();
+        repository.saveOrUpdateJobProgress(id, JobProgress.IN_PROGRESS);
+        repository.saveOrUpdateJobProgress(id, JobProgress.SUCCESS);
+
+        assertEquals(JobProgress.SUCCESS, repository.getJobProgress(id).getState());
+    }
+
+    @Test
+    public void deletedJobProgressIsNotContained() {
+        String id = randomId();
+        repository.saveOrUpdateJobProgress(id, JobProgress.FAILED);
+
+        repository.deleteJobProgress(id);
+
+        assertFalse(repository.containsJobProgress(id));
+        assertNull(repository.getJobProgress(id));
+    }
+
+    @Test
+    public void concurrentUpdatesOfOneJobKeepAValidState() throws Exception {
+        String id = randomId();
+        repository.saveOrUpdateJobProgress(id, JobProgress.IN_PROGRESS);
+
+        ConcurrentTestRunner.run(THREADS, worker -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                repository.saveOrUpdateJobProgress(id, worker % 2 == 0 ? JobProgress.SUCCESS : JobProgress.IN_PROGRESS);
+
+                JobProgress jobProgress = repository.getJobProgress(id);
+                assertNotNull(jobProgress);
+                assertTrue(JobProgress.SUCCESS.equals(jobProgress.getState())
+                        || JobProgress.IN_PROGRESS.equals(jobProgress.getState()));
+            }
+        });
+
+        repository.saveOrUpdateJobProgress(id, JobProgress.SUCCESS);
+        assertEquals(JobProgress.SUCCESS, repository.getJobProgress(id).getState());
+    }
+
+    @Test
+    public void concurrentJobsOfDistinctInstancesDoNotInterfere() throws Exception {
+        ConcurrentTestRunner.run(THREADS, worker -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                String id = randomId();
+                repository.saveOrUpdateJobProgress(id, JobProgress.IN_PROGRESS);
+                repository.saveOrUpdateJobProgress(id, JobProgress.SUCCESS);
+                assertEquals(JobProgress.SUCCESS, repository.getJobProgress(id).getState());
+                repository.deleteJobProgress(id);
+                assertFalse(repository.containsJobProgress(id));
+            }
+        });
+    }
+}
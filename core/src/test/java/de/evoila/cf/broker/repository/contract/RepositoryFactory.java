@@ -0,0 +1,24 @@
+package de.evoila.cf.broker.repository.contract;
+
+import de.evoila.cf.broker.repository.BindingRepository;
+import de.evoila.cf.broker.repository.JobRepository;
+import de.evoila.cf.broker.repository.ServiceInstanceRepository;
+
+/**
+ * Creates the repositories of one backend for the benchmarks. Implementations need a
+ * public no-arg constructor, as they are instantiated by class name.
+ */
+public interface RepositoryFactory {
+
+    ServiceInstanceRepository serviceInstanceRepository();
+
+    BindingRepository bindingRepository();
+
+    JobRepository jobRepository();
+
+    /**
+     * Releases connections and removes data written during the benchmark.
+     */
+    default void close() {}
+
+}
@@ -0,0 +1,43 @@
+package de.evoila.cf.broker.repository.contract;
+
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.model.ServiceInstanceBinding;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Entities with random ids, so contract tests and benchmarks can run against
+ * backends which are shared with other tests.
+ */
+public class RepositoryTestData {
+
+    public static final String SERVICE_DEFINITION_ID = "contract-test-service";
+
+    public static final String PLAN_ID = "contract-test-plan";
+
+    public static String randomId() {
+        return UUID.randomUUID().toString();
+    }
+
+    public static ServiceInstance serviceInstance(String id) {
+        return serviceInstance(id, SERVICE_DEFINITION_ID);
+    }
+
+    public static ServiceInstance serviceInstance(String id, String serviceDefinitionId) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("size", 1);
+
+        return new ServiceInstance(id, serviceDefinitionId, PLAN_ID, randomId(), randomId(),
+                parameters, "https://dashboard.example.com/" + id);
+    }
+
+    public static ServiceInstanceBinding binding(String id, String serviceInstanceId) {
+        Map<String, Object> credentials = new HashMap<>();
+        credentials.put("username", "user-" + id);
+        credentials.put("password", randomId());
+
+        return new ServiceInstanceBinding(id, serviceInstanceId, credentials);
+    }
+}
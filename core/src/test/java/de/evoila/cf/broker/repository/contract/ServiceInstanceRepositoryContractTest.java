@@ -0,0 +1,168 @@
+package de.evoila.cf.broker.repository.contract;
+
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.repository.ServiceInstanceRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.randomId;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.serviceInstance;
+import static org.junit.Assert.*;
+
+/**
+ * Behaviour every {@link ServiceInstanceRepository} has to provide. Backends extend
+ * this class and return a repository connected to their store.
+ */
+public abstract class ServiceInstanceRepositoryContractTest {
+
+    protected static final int THREADS = 8;
+
+    protected static final int OPERATIONS_PER_THREAD = 100;
+
+    protected ServiceInstanceRepository repository;
+
+    protected abstract ServiceInstanceRepository createRepository();
+
+    @Before
+    public void setUpRepository() {
+        repository = createRepository();
+    }
+
+    @Test
+    public void unknownServiceInstanceIsNotContained() {
+        String id = randomId();
+
+        assertFalse(repository.containsServiceInstanceId(id));
+        assertNull(repository.getServiceInstance(id));
+    }
+
+    @Test
+    public void addedServiceInstanceCanBeRead() {
+        ServiceInstance serviceInstance = serviceInstance(randomId());
+        repository.addServiceInstance(serviceInstance.getId(), serviceInstance);
+
+        assertTrue(repository.containsServiceInstanceId(serviceInstance.getId()));
+
+        ServiceInstance stored = repository.getServiceInstance(serviceInstance.getId());
+        assertNotNull(stored);
+        assertEquals(serviceInstance.getId(), stored.getId());
+        assertEquals(serviceInstance.getServiceDefinitionId(), stored.getServiceDefinitionId());
+        assertEquals(serviceInstance.getPlanId(), stored.getPlanId());
+        assertEquals(serviceInstance.getOrganizationGuid(), stored.getOrganizationGuid());
+        assertEquals(serviceInstance.getSpaceGuid(), stored.getSpaceGuid());
+        assertEquals(serviceInstance.getDashboardUrl(), stored.getDashboardUrl());
+    }
+
+    @Test
+    public void updatedServiceInstanceReplacesStoredState() {
+        ServiceInstance serviceInstance = serviceInstance(randomId());
+        repository.addServiceInstance(serviceInstance.getId(), serviceInstance);
+
+        ServiceInstance updated = serviceInstance(serviceInstance.getId());
+        updated.updatePlanId("updated-plan");
+        repository.updateServiceInstance(updated);
+
+        assertEquals("updated-plan", repository.getServiceInstance(serviceInstance.getId()).getPlanId());
+    }
+
+    @Test
+    public void deletedServiceInstanceIsNotContained() {
+        ServiceInstance serviceInstance = serviceInstance(randomId());
+        repository.addServiceInstance(serviceInstance.getId(), serviceInstance);
+
+        repository.deleteServiceInstance(serviceInstance.getId());
+
+        assertFalse(repository.containsServiceInstanceId(serviceInstance.getId()));
+        assertNull(repository.getServiceInstance(serviceInstance.getId()));
+    }
+
+    @Test
+    public void serviceInstancesAreFoundByServiceDefinition() {
+        String serviceDefinitionId = randomId();
+        ServiceInstance first = serviceInstance(randomId(), serviceDefinitionId);
+        ServiceInstance second = serviceInstance(randomId(), serviceDefinitionId);
+        ServiceInstance other = serviceInstance(randomId());
+        repository.addServiceInstance(first.getId(), first);
+        repository.addServiceInstance(second.getId(), second);
+        repository.addServiceInstance(other.getId(), other);
+
+        List<ServiceInstance> found = repository.getServiceInstancesByServiceDefinitionId(serviceDefinitionId);
+
+        Set<String> ids = found.stream().map(ServiceInstance::getId).collect(Collectors.toSet());
+        assertEquals(2, ids.size());
+        assertTrue(ids.contains(first.getId()));
+        assertTrue(ids.contains(second.getId()));
+    }
+
+    @Test
+    public void allServiceInstancesAreListedRegardlessOfServiceDefinition() {
+        ServiceInstance first = serviceInstance(randomId(), randomId());
+        ServiceInstance second = serviceInstance(randomId());
+        repository.addServiceInstance(first.getId(), first);
+        repository.addServiceInstance(second.getId(), second);
+
+        Set<String> ids = repository.getServiceInstances().stream()
+                .map(ServiceInstance::getId).collect(Collectors.toSet());
+        assertTrue(ids.contains(first.getId()));
+        assertTrue(ids.contains(second.getId()));
+    }
+
+    @Test
+    public void concurrentAddsAreAllVisible() throws Exception {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        ConcurrentTestRunner.run(THREADS, worker -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                ServiceInstance serviceInstance = serviceInstance(randomId());
+                repository.addServiceInstance(serviceInstance.getId(), serviceInstance);
+                ids.add(serviceInstance.getId());
+            }
+        });
+
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, ids.size());
+        for (String id : ids)
+            assertTrue("Missing service instance " + id, repository.containsServiceInstanceId(id));
+    }
+
+    @Test
+    public void concurrentReadsNeverSeeMissingInstanceWhileItIsUpdated() throws Exception {
+        ServiceInstance serviceInstance = serviceInstance(randomId());
+        repository.addServiceInstance(serviceInstance.getId(), serviceInstance);
+
+        ConcurrentTestRunner.run(THREADS, worker -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                if (worker % 2 == 0) {
+                    ServiceInstance updated = serviceInstance(serviceInstance.getId());
+                    updated.updatePlanId("plan-" + worker + "-" + i);
+                    repository.updateServiceInstance(updated);
+                } else {
+                    ServiceInstance stored = repository.getServiceInstance(serviceInstance.getId());
+                    assertNotNull(stored);
+                    assertEquals(serviceInstance.getId(), stored.getId());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void concurrentDeletesOfDistinctInstancesDoNotInterfere() throws Exception {
+        ServiceInstance survivor = serviceInstance(randomId());
+        repository.addServiceInstance(survivor.getId(), survivor);
+
+        ConcurrentTestRunner.run(THREADS, worker -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                ServiceInstance serviceInstance = serviceInstance(randomId());
+                repository.addServiceInstance(serviceInstance.getId(), serviceInstance);
+                repository.deleteServiceInstance(serviceInstance.getId());
+                assertFalse(repository.containsServiceInstanceId(serviceInstance.getId()));
+            }
+        });
+
+        assertTrue(repository.containsServiceInstanceId(survivor.getId()));
+    }
+}
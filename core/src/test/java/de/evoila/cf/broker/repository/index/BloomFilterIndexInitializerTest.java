@@ -0,0 +1,128 @@
+package de.evoila.cf.broker.repository.index;
+
+import de.evoila.cf.broker.bean.BloomFilterConfiguration;
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.model.ServiceInstanceBinding;
+import de.evoila.cf.broker.repository.BindingRepository;
+import de.evoila.cf.broker.repository.ServiceInstanceRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryBindingRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryServiceInstanceRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.binding;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.randomId;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.serviceInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BloomFilterIndexInitializerTest {
+
+    private BloomFilterRepositoryPostProcessor postProcessor;
+
+    private BloomFilterConfiguration configuration;
+
+    private ServiceInstanceRepository serviceInstanceRepository;
+
+    private BindingRepository bindingRepository;
+
+    private BloomFilterIndexInitializer initializer;
+
+    @Before
+    public void setUp() {
+        postProcessor = new BloomFilterRepositoryPostProcessor();
+        configuration = new BloomFilterConfiguration();
+        configuration.setExpectedInsertions(100);
+        configuration.setFpp(0.0001);
+
+        serviceInstanceRepository = (ServiceInstanceRepository) postProcessor
+                .postProcessAfterInitialization(new InMemoryServiceInstanceRepository(), "serviceInstanceRepository");
+        bindingRepository = (BindingRepository) postProcessor
+                .postProcessAfterInitialization(new InMemoryBindingRepository(), "bindingRepository");
+
+        initializer = new BloomFilterIndexInitializer(postProcessor, configuration, serviceInstanceRepository, bindingRepository);
+    }
+
+    @After
+    public void tearDown() {
+        initializer.shutdown();
+    }
+
+    @Test
+    public void instancesOfAnyServiceAreIndexed() {
+        // Service definition ids are random, none of them is part of a catalog
+        List<ServiceInstance> serviceInstances = new ArrayList<>();
+        List<ServiceInstanceBinding> bindings = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ServiceInstance serviceInstance = serviceInstance(randomId(), randomId());
+            storedDirectly(serviceInstance);
+            serviceInstances.add(serviceInstance);
+
+            ServiceInstanceBinding binding = binding(randomId(), serviceInstance.getId());
+            ((BloomFilterBindingRepository) bindingRepository).getDelegate().addInternalBinding(binding);
+            bindings.add(binding);
+        }
+
+        initializer.rebuild();
+
+        assertTrue(postProcessor.getServiceInstanceFilter().isReady());
+        for (ServiceInstance serviceInstance : serviceInstances)
+            assertTrue(serviceInstanceRepository.containsServiceInstanceId(serviceInstance.getId()));
+        for (ServiceInstanceBinding binding : bindings)
+            assertTrue(bindingRepository.containsInternalBindingId(binding.getId()));
+        assertFalse(serviceInstanceRepository.containsServiceInstanceId(randomId()));
+    }
+
+    @Test
+    public void failedScanKeepsLookupsOnTheStore() {
+        ServiceInstance serviceInstance = serviceInstance(randomId());
+        storedDirectly(serviceInstance);
+
+        BloomFilterIndexInitializer failing = new BloomFilterIndexInitializer(postProcessor, configuration,
+                new InMemoryServiceInstanceRepository() {
+                    @Override
+                    public List<ServiceInstance> getServiceInstances() {
+                        throw new IllegalStateException("Store is not reachable");
+                    }
+                }, bindingRepository);
+        try {
+            failing.rebuild();
+        } finally {
+            failing.shutdown();
+        }
+
+        assertFalse(postProcessor.getServiceInstanceFilter().isReady());
+        assertTrue(serviceInstanceRepository.containsServiceInstanceId(serviceInstance.getId()));
+    }
+
+    @Test
+    public void saturatedFilterIsRebuiltWithLargerCapacity() throws Exception {
+        initializer.rebuild();
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3 * configuration.getExpectedInsertions(); i++) {
+            ServiceInstance serviceInstance = serviceInstance(randomId());
+            serviceInstanceRepository.addServiceInstance(serviceInstance.getId(), serviceInstance);
+            ids.add(serviceInstance.getId());
+        }
+
+        IdBloomFilter filter = postProcessor.getServiceInstanceFilter();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (filter.getExpectedInsertions() <= configuration.getExpectedInsertions()
+                && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+
+        assertTrue(filter.getExpectedInsertions() > configuration.getExpectedInsertions());
+        for (String id : ids)
+            assertTrue(filter.mightContain(id));
+    }
+
+    private void storedDirectly(ServiceInstance serviceInstance) {
+        ((BloomFilterServiceInstanceRepository) serviceInstanceRepository).getDelegate()
+                .addServiceInstance(serviceInstance.getId(), serviceInstance);
+    }
+}
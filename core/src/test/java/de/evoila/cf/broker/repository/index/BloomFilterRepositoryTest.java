@@ -0,0 +1,117 @@
+package de.evoila.cf.broker.repository.index;
+
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.model.ServiceInstanceBinding;
+import de.evoila.cf.broker.repository.BindingRepository;
+import de.evoila.cf.broker.repository.ServiceInstanceRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryBindingRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryServiceInstanceRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.binding;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.randomId;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.serviceInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+public class BloomFilterRepositoryTest {
+
+    private IdBloomFilter filter;
+
+    private ServiceInstanceRepository serviceInstanceStore;
+
+    private BloomFilterServiceInstanceRepository serviceInstanceRepository;
+
+    @Before
+    public void setUp() {
+        filter = new IdBloomFilter();
+        serviceInstanceStore = spy(new InMemoryServiceInstanceRepository());
+        serviceInstanceRepository = new BloomFilterServiceInstanceRepository(serviceInstanceStore, filter);
+    }
+
+    @Test
+    public void lookupsGoToTheStoreUntilTheFilterIsBuilt() {
+        ServiceInstance serviceInstance = serviceInstance(randomId());
+        serviceInstanceStore.addServiceInstance(serviceInstance.getId(), serviceInstance);
+
+        assertFalse(filter.isReady());
+        assertTrue(serviceInstanceRepository.containsServiceInstanceId(serviceInstance.getId()));
+        assertFalse(serviceInstanceRepository.containsServiceInstanceId(randomId()));
+    }
+
+    @Test
+    public void unknownIdsAreNotLookedUpInTheStore() {
+        filter.startRebuild(1000, 0.0001);
+        filter.finishRebuild();
+
+        String id = randomId();
+        assertFalse(serviceInstanceRepository.containsServiceInstanceId(id));
+        verify(serviceInstanceStore, never()).containsServiceInstanceId(id);
+    }
+
+    @Test
+    public void addedServiceInstancesAreFound() {
+        filter.startRebuild(1000, 0.0001);
+        filter.finishRebuild();
+
+        ServiceInstance serviceInstance = serviceInstance(randomId());
+        serviceInstanceRepository.addServiceInstance(serviceInstance.getId(), serviceInstance);
+
+        assertTrue(serviceInstanceRepository.containsServiceInstanceId(serviceInstance.getId()));
+    }
+
+    @Test
+    public void addedBindingsAreFoundAndUnknownBindingsAreNotLookedUp() {
+        BindingRepository bindingStore = spy(new InMemoryBindingRepository());
+        BloomFilterBindingRepository bindingRepository = new BloomFilterBindingRepository(bindingStore, filter);
+        filter.startRebuild(1000, 0.0001);
+        filter.finishRebuild();
+
+        ServiceInstanceBinding binding = binding(randomId(), randomId());
+        bindingRepository.addInternalBinding(binding);
+        String unknown = randomId();
+
+        assertTrue(bindingRepository.containsInternalBindingId(binding.getId()));
+        assertFalse(bindingRepository.containsInternalBindingId(unknown));
+        verify(bindingStore, never()).containsInternalBindingId(unknown);
+    }
+
+    @Test
+    public void idsPutDuringARebuildAreKept() {
+        filter.startRebuild(1000, 0.0001);
+        filter.finishRebuild();
+
+        String beforeRebuild = randomId();
+        filter.put(beforeRebuild);
+        filter.startRebuild(1000, 0.0001);
+        String duringRebuild = randomId();
+        filter.put(duringRebuild);
+
+        assertTrue(filter.mightContain(beforeRebuild));
+        assertTrue(filter.mightContain(duringRebuild));
+
+        filter.finishRebuild();
+
+        assertTrue(filter.mightContain(duringRebuild));
+        // Ids which are not found by the scan are dropped with the old filter
+        assertFalse(filter.mightContain(beforeRebuild));
+    }
+
+    @Test
+    public void saturationIsReportedOnce() {
+        Runnable listener = mock(Runnable.class);
+        filter.setSaturationListener(listener);
+        filter.startRebuild(10, 0.01);
+        filter.finishRebuild();
+
+        for (int i = 0; i < 100; i++)
+            filter.put(randomId());
+
+        verify(listener).run();
+    }
+}
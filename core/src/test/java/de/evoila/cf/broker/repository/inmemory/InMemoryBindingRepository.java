@@ -0,0 +1,56 @@
+package de.evoila.cf.broker.repository.inmemory;
+
+import de.evoila.cf.broker.model.ServiceInstanceBinding;
+import de.evoila.cf.broker.repository.BindingRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reference implementation for the contract tests and the baseline of the benchmarks.
+ */
+public class InMemoryBindingRepository implements BindingRepository {
+
+    private final Map<String, ServiceInstanceBinding> bindings = new ConcurrentHashMap<>();
+
+    @Override
+    public String getInternalBindingId(String bindingId) {
+        ServiceInstanceBinding binding = bindings.get(bindingId);
+        return binding != null ? binding.getServiceInstanceId() : null;
+    }
+
+    @Override
+    public void addInternalBinding(ServiceInstanceBinding binding) {
+        bindings.put(binding.getId(), binding);
+    }
+
+    @Override
+    public boolean containsInternalBindingId(String bindingId) {
+        return bindings.containsKey(bindingId);
+    }
+
+    @Override
+    public void unbindService(String bindingId) {
+        bindings.remove(bindingId);
+    }
+
+    @Override
+    public void deleteBindings(Collection<String> bindingIds) {
+        bindings.keySet().removeAll(bindingIds);
+    }
+
+    @Override
+    public ServiceInstanceBinding findOne(String bindingId) {
+        return bindings.get(bindingId);
+    }
+
+    @Override
+    public List<ServiceInstanceBinding> getBindingsForServiceInstance(String serviceInstanceId) {
+        return bindings.values().stream()
+                .filter(binding -> serviceInstanceId.equals(binding.getServiceInstanceId()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,40 @@
+package de.evoila.cf.broker.repository.inmemory;
+
+import de.evoila.cf.broker.model.JobProgress;
+import de.evoila.cf.broker.repository.JobRepository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reference implementation for the contract tests and the baseline of the benchmarks.
+ */
+public class InMemoryJobRepository implements JobRepository {
+
+    private final Map<String, JobProgress> jobs = new ConcurrentHashMap<>();
+
+    @Override
+    public JobProgress getJobProgress(String serviceInstanceId) {
+        return jobs.get(serviceInstanceId);
+    }
+
+    @Override
+    public void saveOrUpdateJobProgress(String serviceInstanceId, String progress) {
+        jobs.put(serviceInstanceId, new JobProgress(serviceInstanceId, progress));
+    }
+
+    @Override
+    public void saveJobProgress(JobProgress jobProgress) {
+        jobs.put(jobProgress.getId(), jobProgress);
+    }
+
+    @Override
+    public boolean containsJobProgress(String serviceInstanceId) {
+        return jobs.containsKey(serviceInstanceId);
+    }
+
+    @Override
+    public void deleteJobProgress(String serviceInstanceId) {
+        jobs.remove(serviceInstanceId);
+    }
+}
@@ -0,0 +1,44 @@
+package de.evoila.cf.broker.repository.inmemory;
+
+import de.evoila.cf.broker.repository.BindingRepository;
+import de.evoila.cf.broker.repository.JobRepository;
+import de.evoila.cf.broker.repository.ServiceInstanceRepository;
+import de.evoila.cf.broker.repository.contract.BindingRepositoryContractTest;
+import de.evoila.cf.broker.repository.contract.JobRepositoryContractTest;
+import de.evoila.cf.broker.repository.contract.ServiceInstanceRepositoryContractTest;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+/**
+ * Runs the repository contracts against the in memory reference implementations, which
+ * keeps the contracts themselves honest. Backends follow the same pattern.
+ */
+@RunWith(Suite.class)
+@Suite.SuiteClasses({
+        InMemoryRepositoryContractTests.ServiceInstanceRepositoryTest.class,
+        InMemoryRepositoryContractTests.BindingRepositoryTest.class,
+        InMemoryRepositoryContractTests.JobRepositoryTest.class
+})
+public class InMemoryRepositoryContractTests {
+
+    public static class ServiceInstanceRepositoryTest extends ServiceInstanceRepositoryContractTest {
+        @Override
+        protected ServiceInstanceRepository createRepository() {
+            return new InMemoryServiceInstanceRepository();
+        }
+    }
+
+    public static class BindingRepositoryTest extends BindingRepositoryContractTest {
+        @Override
+        protected BindingRepository createRepository() {
+            return new InMemoryBindingRepository();
+        }
+    }
+
+    public static class JobRepositoryTest extends JobRepositoryContractTest {
+        @Override
+        protected JobRepository createRepository() {
+            return new InMemoryJobRepository();
+        }
+    }
+}
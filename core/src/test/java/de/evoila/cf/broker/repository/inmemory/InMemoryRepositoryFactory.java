@@ -0,0 +1,30 @@
+package de.evoila.cf.broker.repository.inmemory;
+
+import de.evoila.cf.broker.repository.BindingRepository;
+import de.evoila.cf.broker.repository.JobRepository;
+import de.evoila.cf.broker.repository.ServiceInstanceRepository;
+import de.evoila.cf.broker.repository.contract.RepositoryFactory;
+
+public class InMemoryRepositoryFactory implements RepositoryFactory {
+
+    private final ServiceInstanceRepository serviceInstanceRepository = new InMemoryServiceInstanceRepository();
+
+    private final BindingRepository bindingRepository = new InMemoryBindingRepository();
+
+    private final JobRepository jobRepository = new InMemoryJobRepository();
+
+    @Override
+    public ServiceInstanceRepository serviceInstanceRepository() {
+        return serviceInstanceRepository;
+    }
+
+    @Override
+    public BindingRepository bindingRepository() {
+        return bindingRepository;
+    }
+
+    @Override
+    public JobRepository jobRepository() {
+        return jobRepository;
+    }
+}
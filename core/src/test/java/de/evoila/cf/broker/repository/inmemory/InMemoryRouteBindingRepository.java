@@ -0,0 +1,50 @@
+package de.evoila.cf.broker.repository.inmemory;
+
+import de.evoila.cf.broker.model.RouteBinding;
+import de.evoila.cf.broker.repository.RouteBindingRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reference implementation for the contract tests and the baseline of the benchmarks.
+ */
+public class InMemoryRouteBindingRepository implements RouteBindingRepository {
+
+    private final Map<String, RouteBinding> routeBindings = new ConcurrentHashMap<>();
+
+    @Override
+    public String getRouteBindingId(String bindingId) {
+        RouteBinding routeBinding = routeBindings.get(bindingId);
+        return routeBinding != null ? routeBinding.getId() : null;
+    }
+
+    @Override
+    public void addRouteBinding(RouteBinding binding) {
+        routeBindings.put(binding.getId(), binding);
+    }
+
+    @Override
+    public boolean containsRouteBindingId(String bindingId) {
+        return routeBindings.containsKey(bindingId);
+    }
+
+    @Override
+    public void deleteRouteBinding(String bindingId) {
+        routeBindings.remove(bindingId);
+    }
+
+    @Override
+    public RouteBinding findOne(String bindingId) {
+        return routeBindings.get(bindingId);
+    }
+
+    @Override
+    public List<RouteBinding> getRouteBindingsForServiceInstance(String serviceInstanceId) {
+        return routeBindings.values().stream()
+                .filter(routeBinding -> serviceInstanceId.equals(routeBinding.getServiceInstanceId()))
+                .collect(Collectors.toList());
+    }
+}
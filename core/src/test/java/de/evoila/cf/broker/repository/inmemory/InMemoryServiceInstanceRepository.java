@@ -0,0 +1,55 @@
+package de.evoila.cf.broker.repository.inmemory;
+
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.repository.ServiceInstanceRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reference implementation for the contract tests and the baseline of the benchmarks.
+ */
+public class InMemoryServiceInstanceRepository implements ServiceInstanceRepository {
+
+    private final Map<String, ServiceInstance> serviceInstances = new ConcurrentHashMap<>();
+
+    @Override
+    public ServiceInstance getServiceInstance(String instanceId) {
+        return serviceInstances.get(instanceId);
+    }
+
+    @Override
+    public List<ServiceInstance> getServiceInstancesByServiceDefinitionId(String serviceDefinitionId) {
+        return serviceInstances.values().stream()
+                .filter(serviceInstance -> serviceDefinitionId.equals(serviceInstance.getServiceDefinitionId()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ServiceInstance> getServiceInstances() {
+        return new ArrayList<>(serviceInstances.values());
+    }
+
+    @Override
+    public boolean containsServiceInstanceId(String serviceInstanceId) {
+        return serviceInstances.containsKey(serviceInstanceId);
+    }
+
+    @Override
+    public void addServiceInstance(String id, ServiceInstance serviceInstance) {
+        serviceInstances.put(id, serviceInstance);
+    }
+
+    @Override
+    public void deleteServiceInstance(String serviceInstanceId) {
+        serviceInstances.remove(serviceInstanceId);
+    }
+
+    @Override
+    public void updateServiceInstance(ServiceInstance serviceInstance) {
+        serviceInstances.put(serviceInstance.getId(), serviceInstance);
+    }
+}
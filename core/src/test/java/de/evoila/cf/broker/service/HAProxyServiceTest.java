@@ -0,0 +1,127 @@
+package de.evoila.cf.broker.service;
+
+import de.evoila.cf.broker.bean.HAProxyConfiguration;
+import de.evoila.cf.broker.exception.ServiceBrokerException;
+import de.evoila.cf.broker.model.HABackendResponse;
+import de.evoila.cf.broker.model.Mode;
+import de.evoila.cf.broker.model.ServerAddress;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HAProxyServiceTest {
+
+    private static final String HAPROXY_URI = "https://haproxy.example.com/agents";
+
+    private static final String BINDING_ID = "binding-id";
+
+    private static final String FAILING_IP = "10.0.0.2";
+
+    private final ResourceAccessException agentFailure = new ResourceAccessException("Connection refused");
+
+    private RestTemplate restTemplate;
+
+    private HAProxyService service;
+
+    @Before
+    public void setUp() {
+        HAProxyConfiguration configuration = new HAProxyConfiguration();
+        configuration.setUri(HAPROXY_URI);
+        configuration.setToken("token");
+        configuration.setParallelism(4);
+
+        service = new HAProxyService(configuration) {
+            @Override
+            public Mode getMode(ServerAddress serverAddress) {
+                return Mode.TCP;
+            }
+
+            @Override
+            public List<String> getOptions(ServerAddress serverAddress) {
+                return Collections.emptyList();
+            }
+        };
+        ReflectionTestUtils.invokeMethod(service, "initHeaders");
+
+        restTemplate = mock(RestTemplate.class);
+        when(restTemplate.exchange(eq(HAPROXY_URI), eq(HttpMethod.PUT), any(HttpEntity.class), eq(HABackendResponse.class)))
+                .thenAnswer(invocation -> {
+                    ServerAddress address = (ServerAddress) invocation.<HttpEntity<?>>getArgument(2).getBody();
+                    if (FAILING_IP.equals(address.getIp()))
+                        throw agentFailure;
+                    return new ResponseEntity<>(new HABackendResponse("172.16.0.1",
+                            40000 + address.getPort(), address.getName()), HttpStatus.OK);
+                });
+        when(restTemplate.exchange(eq(HAPROXY_URI), eq(HttpMethod.DELETE), any(HttpEntity.class), eq(Object.class)))
+                .thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+        ReflectionTestUtils.setField(service, "restTemplate", restTemplate);
+    }
+
+    @After
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "shutdownExecutor");
+    }
+
+    @Test
+    public void externalAddressesAreReturnedInOrder() throws ServiceBrokerException {
+        List<ServerAddress> external = service.appendAgent(Arrays.asList(
+                new ServerAddress("node-1", "10.0.0.1", 1),
+                new ServerAddress("node-3", "10.0.0.3", 3)), BINDING_ID, "instance-id");
+
+        assertEquals(Arrays.asList("node-1", "node-3"),
+                external.stream().map(ServerAddress::getName).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(40001, 40003),
+                external.stream().map(ServerAddress::getPort).collect(Collectors.toList()));
+        verify(restTemplate, never()).exchange(eq(HAPROXY_URI), eq(HttpMethod.DELETE), any(HttpEntity.class), eq(Object.class));
+    }
+
+    @Test
+    public void partialFailureRemovesTheRegisteredAgentsAndRethrows() {
+        try {
+            service.appendAgent(Arrays.asList(
+                    new ServerAddress("node-1", "10.0.0.1", 1),
+                    new ServerAddress("node-2", FAILING_IP, 2),
+                    new ServerAddress("node-3", "10.0.0.3", 3)), BINDING_ID, "instance-id");
+            fail("Expected the failed registration to be rethrown");
+        } catch (ServiceBrokerException e) {
+            assertSame(agentFailure, e.getCause().getCause());
+        }
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<HttpEntity<ServerAddress>> removed = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, atLeastOnce()).exchange(eq(HAPROXY_URI), eq(HttpMethod.DELETE), removed.capture(), eq(Object.class));
+
+        Set<String> removedIps = removed.getAllValues().stream()
+                .map(entity -> entity.getBody().getIp())
+                .collect(Collectors.toSet());
+        assertEquals(new HashSet<>(Arrays.asList("10.0.0.1", "10.0.0.3")), removedIps);
+        assertEquals(2, removed.getAllValues().size());
+        removed.getAllValues().forEach(entity -> assertEquals(BINDING_ID, entity.getBody().getName()));
+    }
+}
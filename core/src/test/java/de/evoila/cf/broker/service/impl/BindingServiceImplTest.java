@@ -0,0 +1,178 @@
+package de.evoila.cf.broker.service.impl;
+
+import de.evoila.cf.broker.bean.ServiceKeysConfiguration;
+import de.evoila.cf.broker.model.JobProgress;
+import de.evoila.cf.broker.model.Plan;
+import de.evoila.cf.broker.model.SchemaParameters;
+import de.evoila.cf.broker.model.SchemaProperty;
+import de.evoila.cf.broker.model.SchemaServiceBinding;
+import de.evoila.cf.broker.model.SchemaServiceCreate;
+import de.evoila.cf.broker.model.Schemas;
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.model.ServiceKeyRequest;
+import de.evoila.cf.broker.model.ServiceKeyResult;
+import de.evoila.cf.broker.repository.ServiceDefinitionRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryBindingRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryServiceInstanceRepository;
+import de.evoila.cf.broker.util.ParameterValidator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.PLAN_ID;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.binding;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.randomId;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.serviceInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BindingServiceImplTest {
+
+    private static final int PARALLELISM = 4;
+
+    private InMemoryServiceInstanceRepository serviceInstances;
+
+    private InMemoryBindingRepository bindings;
+
+    private TestBindingServiceImpl bindingService;
+
+    private ServiceInstance serviceInstance;
+
+    @Before
+    public void setUp() throws Exception {
+        ParameterValidator.clearSchemaCache();
+        serviceInstances = new InMemoryServiceInstanceRepository();
+        bindings = new InMemoryBindingRepository();
+
+        ServiceDefinitionRepository serviceDefinitionRepository = mock(ServiceDefinitionRepository.class);
+        when(serviceDefinitionRepository.getPlan(PLAN_ID)).thenReturn(plan());
+
+        ServiceKeysConfiguration serviceKeysConfiguration = new ServiceKeysConfiguration();
+        serviceKeysConfiguration.setParallelism(PARALLELISM);
+
+        bindingService = new TestBindingServiceImpl(bindings, serviceDefinitionRepository, serviceInstances, null);
+        bindingService.setServiceKeysConfiguration(serviceKeysConfiguration);
+        bindingService.setMaxCredentialsDelayMillis(10);
+
+        serviceInstance = serviceInstance(randomId());
+        serviceInstances.addServiceInstance(serviceInstance.getId(), serviceInstance);
+    }
+
+    @After
+    public void tearDown() {
+        bindingService.shutdownBindingExecutor();
+        ParameterValidator.clearSchemaCache();
+    }
+
+    @Test
+    public void batchReportsEveryKeyInRequestOrder() throws Exception {
+        // Batches share the executor of the service, so a second batch has to work just like the first
+        for (int batch = 0; batch < 2; batch++) {
+            List<ServiceKeyRequest> keys = new ArrayList<>();
+            List<Boolean> expected = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                keys.add(new ServiceKeyRequest(Collections.emptyMap()));
+                expected.add(true);
+                keys.add(new ServiceKeyRequest(parameters("size", 5)));
+                expected.add(true);
+                keys.add(new ServiceKeyRequest(parameters("size", 20)));
+                expected.add(false);
+                keys.add(new ServiceKeyRequest(parameters(TestBindingServiceImpl.FAIL_PARAMETER, true)));
+                expected.add(false);
+            }
+
+            List<ServiceKeyResult> results = bindingService.createServiceKeys(serviceInstance.getId(), keys);
+
+            assertEquals(keys.size(), results.size());
+            Set<String> bindingIds = new HashSet<>();
+            for (int i = 0; i < results.size(); i++) {
+                ServiceKeyResult result = results.get(i);
+                assertTrue(bindingIds.add(result.getBindingId()));
+
+                if (expected.get(i)) {
+                    assertEquals("Key " + i, JobProgress.SUCCESS, result.getState());
+                    assertEquals(serviceInstance.getId(), result.getBinding().getServiceInstanceId());
+                    assertEquals("user-" + result.getBindingId(), result.getBinding().getCredentials().get("username"));
+                    assertNotNull(bindings.findOne(result.getBindingId()));
+                } else {
+                    assertEquals("Key " + i, JobProgress.FAILED, result.getState());
+                    assertNotNull(result.getDescription());
+                    assertNull(bindings.findOne(result.getBindingId()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void deletingKeysReportsUnknownAndForeignKeysAsFailed() throws Exception {
+        ServiceInstance otherInstance = serviceInstance(randomId());
+        serviceInstances.addServiceInstance(otherInstance.getId(), otherInstance);
+
+        String own = randomId(), foreign = randomId(), unknown = randomId();
+        bindings.addInternalBinding(binding(own, serviceInstance.getId()));
+        bindings.addInternalBinding(binding(foreign, otherInstance.getId()));
+
+        List<ServiceKeyResult> results = bindingService.deleteServiceKeys(serviceInstance.getId(),
+                Arrays.asList(unknown, own, foreign));
+
+        assertEquals(unknown, results.get(0).getBindingId());
+        assertFalse(results.get(0).isSucceeded());
+        assertEquals(own, results.get(1).getBindingId());
+        assertTrue(results.get(1).isSucceeded());
+        assertEquals(foreign, results.get(2).getBindingId());
+        assertFalse(results.get(2).isSucceeded());
+
+        assertFalse(bindings.containsInternalBindingId(own));
+        assertTrue(bindings.containsInternalBindingId(foreign));
+        assertEquals(Collections.singleton(own), bindingService.getUnboundBindingIds());
+    }
+
+    private static Map<String, Object> parameters(String name, Object value) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(name, value);
+        return parameters;
+    }
+
+    private static Plan plan() {
+        SchemaProperty size = new SchemaProperty();
+        size.setType("integer");
+        size.setMinimum(1);
+        size.setMaximum(10);
+
+        SchemaProperty fail = new SchemaProperty();
+        fail.setType("boolean");
+
+        Map<String, SchemaProperty> properties = new HashMap<>();
+        properties.put("size", size);
+        properties.put(TestBindingServiceImpl.FAIL_PARAMETER, fail);
+
+        SchemaParameters parameters = new SchemaParameters(ParameterValidator.JSON_V4_SCHEMA_IDENTIFIER, "object");
+        parameters.setProperties(properties);
+
+        SchemaServiceCreate create = new SchemaServiceCreate();
+        create.setParameters(parameters);
+        SchemaServiceBinding serviceBinding = new SchemaServiceBinding();
+        serviceBinding.setCreate(create);
+        Schemas schemas = new Schemas();
+        schemas.setServiceBinding(serviceBinding);
+
+        Plan plan = new Plan();
+        plan.setId(PLAN_ID);
+        plan.setSchemas(schemas);
+        return plan;
+    }
+}
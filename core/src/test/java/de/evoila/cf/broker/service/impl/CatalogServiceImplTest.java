@@ -0,0 +1,166 @@
+package de.evoila.cf.broker.service.impl;
+
+import de.evoila.cf.broker.bean.EndpointConfiguration;
+import de.evoila.cf.broker.catalog.CatalogRefreshedEvent;
+import de.evoila.cf.broker.model.Catalog;
+import de.evoila.cf.broker.model.Plan;
+import de.evoila.cf.broker.model.Platform;
+import de.evoila.cf.broker.model.SchemaParameters;
+import de.evoila.cf.broker.model.SchemaProperty;
+import de.evoila.cf.broker.model.SchemaServiceCreate;
+import de.evoila.cf.broker.model.SchemaServiceInstance;
+import de.evoila.cf.broker.model.Schemas;
+import de.evoila.cf.broker.model.ServiceDefinition;
+import de.evoila.cf.broker.util.ParameterValidator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class CatalogServiceImplTest {
+
+    private MockEnvironment environment;
+
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private CatalogServiceImpl catalogService;
+
+    @Before
+    public void setUp() {
+        Catalog catalog = new Catalog();
+        catalog.setServices(Collections.singletonList(new ServiceDefinition("service-id", "service", "A service", true,
+                Collections.singletonList(new Plan("plan-id", "plan", "A plan", Platform.BOSH, true)))));
+
+        environment = new MockEnvironment();
+        applicationEventPublisher = mock(ApplicationEventPublisher.class);
+        catalogService = new CatalogServiceImpl(catalog, environment, new EndpointConfiguration(), applicationEventPublisher);
+
+        ParameterValidator.clearSchemaCache();
+    }
+
+    @After
+    public void tearDown() {
+        ParameterValidator.clearSchemaCache();
+    }
+
+    @Test
+    public void validCatalogIsSwappedIn() {
+        environment.withProperty("catalog.services[0].id", "refreshed-service-id")
+                .withProperty("catalog.services[0].name", "refreshed-service")
+                .withProperty("catalog.services[0].plans[0].id", "refreshed-plan-id")
+                .withProperty("catalog.services[0].plans[0].name", "refreshed-plan");
+
+        assertTrue(catalogService.reloadCatalog());
+
+        assertNull(catalogService.getServiceDefinition("service-id"));
+        assertNull(catalogService.getPlan("plan-id"));
+        assertEquals("refreshed-service", catalogService.getServiceDefinition("refreshed-service-id").getName());
+        assertEquals("refreshed-plan", catalogService.getPlan("refreshed-plan-id").getName());
+        assertSame(catalogService.getServiceDefinition("refreshed-service-id"),
+                catalogService.getServiceDefinitionByPlanId("refreshed-plan-id"));
+    }
+
+    @Test
+    public void invalidCatalogKeepsTheCurrentIndex() throws Exception {
+        environment.withProperty("catalog.services[0].id", "refreshed-service-id")
+                .withProperty("catalog.services[0].name", "refreshed-service")
+                .withProperty("catalog.services[0].plans[0].id", "refreshed-plan-id");
+        Catalog current = catalogService.getCatalog();
+        ParameterValidator.validateParameters(Collections.singletonMap("size", 1), planWithSchema(),
+                ParameterValidator.Operation.SERVICE_INSTANCE_CREATE);
+
+        assertFalse(catalogService.reloadCatalog());
+
+        assertSame(current, catalogService.getCatalog());
+        assertNotNull(catalogService.getServiceDefinition("service-id"));
+        assertNotNull(catalogService.getPlan("plan-id"));
+        assertNull(catalogService.getServiceDefinition("refreshed-service-id"));
+        assertFalse(schemaCache().isEmpty());
+        verify(applicationEventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void reloadClearsTheSchemaCache() throws Exception {
+        environment.withProperty("catalog.services[0].id", "service-id")
+                .withProperty("catalog.services[0].name", "service")
+                .withProperty("catalog.services[0].plans[0].id", "plan-id")
+                .withProperty("catalog.services[0].plans[0].name", "plan");
+        ParameterValidator.validateParameters(Collections.singletonMap("size", 1), planWithSchema(),
+                ParameterValidator.Operation.SERVICE_INSTANCE_CREATE);
+        assertFalse(schemaCache().isEmpty());
+
+        assertTrue(catalogService.reloadCatalog());
+
+        assertTrue(schemaCache().isEmpty());
+    }
+
+    @Test
+    public void reloadPublishesTheRefreshedCatalog() {
+        environment.withProperty("catalog.services[0].id", "refreshed-service-id")
+                .withProperty("catalog.services[0].name", "refreshed-service")
+                .withProperty("catalog.services[0].plans[0].id", "refreshed-plan-id")
+                .withProperty("catalog.services[0].plans[0].name", "refreshed-plan");
+
+        assertTrue(catalogService.reloadCatalog());
+
+        ArgumentCaptor<CatalogRefreshedEvent> event = ArgumentCaptor.forClass(CatalogRefreshedEvent.class);
+        verify(applicationEventPublisher).publishEvent(event.capture());
+        assertSame(catalogService, event.getValue().getSource());
+        assertSame(catalogService.getCatalog(), event.getValue().getCatalog());
+    }
+
+    @Test
+    public void onlyCatalogChangesTriggerAReload() {
+        environment.withProperty("catalog.services[0].id", "refreshed-service-id")
+                .withProperty("catalog.services[0].name", "refreshed-service")
+                .withProperty("catalog.services[0].plans[0].id", "refreshed-plan-id")
+                .withProperty("catalog.services[0].plans[0].name", "refreshed-plan");
+
+        catalogService.onEnvironmentChange(new EnvironmentChangeEvent(Collections.singleton("endpoint.default")));
+        assertNotNull(catalogService.getServiceDefinition("service-id"));
+
+        catalogService.onEnvironmentChange(new EnvironmentChangeEvent(Collections.singleton("catalog.services[0].id")));
+        assertNotNull(catalogService.getServiceDefinition("refreshed-service-id"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ?> schemaCache() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(ParameterValidator.class, "schemaCache");
+    }
+
+    private static Plan planWithSchema() {
+        SchemaProperty size = new SchemaProperty();
+        size.setType("integer");
+        SchemaParameters parameters = new SchemaParameters(ParameterValidator.JSON_V4_SCHEMA_IDENTIFIER, "object");
+        parameters.setProperties(Collections.singletonMap("size", size));
+
+        SchemaServiceCreate serviceCreate = new SchemaServiceCreate();
+        serviceCreate.setParameters(parameters);
+        SchemaServiceInstance serviceInstance = new SchemaServiceInstance();
+        serviceInstance.setCreate(serviceCreate);
+        Schemas schemas = new Schemas();
+        schemas.setServiceInstance(serviceInstance);
+
+        Plan plan = new Plan("plan-id", "plan", "A plan", Platform.BOSH, true);
+        plan.setSchemas(schemas);
+        return plan;
+    }
+}
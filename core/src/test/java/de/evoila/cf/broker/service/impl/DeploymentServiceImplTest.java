@@ -0,0 +1,163 @@
+package de.evoila.cf.broker.service.impl;
+
+import de.evoila.cf.broker.exception.PlatformException;
+import de.evoila.cf.broker.exception.ServiceBrokerException;
+import de.evoila.cf.broker.model.Plan;
+import de.evoila.cf.broker.model.Platform;
+import de.evoila.cf.broker.model.ServerAddress;
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.model.ServiceInstanceBinding;
+import de.evoila.cf.broker.repository.PlatformRepository;
+import de.evoila.cf.broker.repository.ServiceDefinitionRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryBindingRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryJobRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryServiceInstanceRepository;
+import de.evoila.cf.broker.service.AsyncDeploymentService;
+import de.evoila.cf.broker.service.HAProxyService;
+import de.evoila.cf.broker.service.PlatformService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.PLAN_ID;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.binding;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.randomId;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.serviceInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeploymentServiceImplTest {
+
+    private InMemoryServiceInstanceRepository serviceInstances;
+
+    private InMemoryBindingRepository bindings;
+
+    private PlatformService platformService;
+
+    private HAProxyService haProxyService;
+
+    private TestBindingServiceImpl bindingService;
+
+    private DeploymentServiceImpl deploymentService;
+
+    private ServiceInstance serviceInstance;
+
+    @Before
+    public void setUp() throws Exception {
+        serviceInstances = new InMemoryServiceInstanceRepository();
+        bindings = new InMemoryBindingRepository();
+
+        Plan plan = new Plan(PLAN_ID, "plan", "A plan", Platform.BOSH, true);
+        ServiceDefinitionRepository serviceDefinitionRepository = mock(ServiceDefinitionRepository.class);
+        when(serviceDefinitionRepository.getPlan(PLAN_ID)).thenReturn(plan);
+
+        platformService = mock(PlatformService.class);
+        when(platformService.isSyncPossibleOnDelete(any(ServiceInstance.class))).thenReturn(true);
+        PlatformRepository platformRepository = mock(PlatformRepository.class);
+        when(platformRepository.getPlatformService(Platform.BOSH)).thenReturn(platformService);
+
+        haProxyService = mock(HAProxyService.class);
+        bindingService = new TestBindingServiceImpl(bindings, serviceDefinitionRepository, serviceInstances, haProxyService);
+
+        deploymentService = new DeploymentServiceImpl(platformRepository, serviceDefinitionRepository, serviceInstances,
+                new InMemoryJobRepository(), mock(AsyncDeploymentService.class));
+        deploymentService.setBindingService(bindingService);
+
+        serviceInstance = serviceInstance(randomId());
+        serviceInstance.setHosts(Collections.singletonList(new ServerAddress("node", "10.0.0.1", 5432)));
+        serviceInstances.addServiceInstance(serviceInstance.getId(), serviceInstance);
+    }
+
+    @After
+    public void tearDown() {
+        bindingService.shutdownBindingExecutor();
+    }
+
+    @Test
+    public void bindingsAreUnboundBeforeAndRemovedAfterThePlatformDeletion() throws Exception {
+        ServiceInstanceBinding serviceKey = storedBinding(serviceInstance.getId(), true);
+        ServiceInstanceBinding appBinding = storedBinding(serviceInstance.getId(), false);
+        ServiceInstance otherInstance = serviceInstance(randomId());
+        serviceInstances.addServiceInstance(otherInstance.getId(), otherInstance);
+        ServiceInstanceBinding otherBinding = storedBinding(otherInstance.getId(), true);
+
+        deploymentService.deleteServiceInstance(serviceInstance.getId());
+
+        InOrder inOrder = inOrder(platformService, haProxyService);
+        inOrder.verify(haProxyService).removeAgent(serviceInstance.getHosts(), serviceKey.getId());
+        inOrder.verify(platformService).deleteInstance(any(ServiceInstance.class), any(Plan.class));
+        verify(haProxyService, never()).removeAgent(any(), eq(appBinding.getId()));
+        verify(haProxyService, never()).removeAgent(any(), eq(otherBinding.getId()));
+
+        assertFalse(bindings.containsInternalBindingId(serviceKey.getId()));
+        assertFalse(bindings.containsInternalBindingId(appBinding.getId()));
+        assertTrue(bindings.containsInternalBindingId(otherBinding.getId()));
+        assertEquals(new HashSet<>(Arrays.asList(serviceKey.getId(), appBinding.getId())), bindingService.getUnboundBindingIds());
+        assertFalse(serviceInstances.containsServiceInstanceId(serviceInstance.getId()));
+    }
+
+    @Test
+    public void failedPlatformDeletionKeepsTheBindingRecords() throws Exception {
+        ServiceInstanceBinding serviceKey = storedBinding(serviceInstance.getId(), true);
+        doThrow(new PlatformException("deployment is locked")).when(platformService)
+                .deleteInstance(any(ServiceInstance.class), any(Plan.class));
+
+        try {
+            deploymentService.deleteServiceInstance(serviceInstance.getId());
+            fail("Expected the deletion to fail");
+        } catch (ServiceBrokerException e) {
+            // expected
+        }
+
+        assertTrue(bindingService.getUnboundBindingIds().contains(serviceKey.getId()));
+        assertTrue(bindings.containsInternalBindingId(serviceKey.getId()));
+        assertTrue(serviceInstances.containsServiceInstanceId(serviceInstance.getId()));
+    }
+
+    @Test
+    public void failedUnbindStopsTheDeletion() throws Exception {
+        ServiceInstanceBinding failing = storedBinding(serviceInstance.getId(), false);
+        ServiceInstanceBinding other = storedBinding(serviceInstance.getId(), true);
+        bindingService.getFailingUnbindBindingIds().add(failing.getId());
+
+        try {
+            deploymentService.deleteServiceInstance(serviceInstance.getId());
+            fail("Expected the deletion to fail");
+        } catch (ServiceBrokerException e) {
+            assertTrue(e.getMessage().contains(failing.getId()));
+        }
+
+        // The other binding is still unbound, but nothing is deleted
+        assertTrue(bindingService.getUnboundBindingIds().contains(other.getId()));
+        verify(platformService, never()).deleteInstance(any(ServiceInstance.class), any(Plan.class));
+        assertTrue(bindings.containsInternalBindingId(failing.getId()));
+        assertTrue(bindings.containsInternalBindingId(other.getId()));
+        assertTrue(serviceInstances.containsServiceInstanceId(serviceInstance.getId()));
+    }
+
+    private ServiceInstanceBinding storedBinding(String serviceInstanceId, boolean withAgent) {
+        ServiceInstanceBinding binding = binding(randomId(), serviceInstanceId);
+        if (withAgent) {
+            List<ServerAddress> externalAddresses = Collections.singletonList(new ServerAddress("agent", "172.16.0.1", 40000));
+            binding.setExternalServerAddresses(externalAddresses);
+        }
+        bindings.addInternalBinding(binding);
+        return binding;
+    }
+}
@@ -0,0 +1,140 @@
+package de.evoila.cf.broker.service.impl;
+
+import de.evoila.cf.broker.bean.SnapshotConfiguration;
+import de.evoila.cf.broker.model.JobProgress;
+import de.evoila.cf.broker.model.RouteBinding;
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.model.ServiceInstanceBinding;
+import de.evoila.cf.broker.repository.inmemory.InMemoryBindingRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryJobRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryRouteBindingRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryServiceInstanceRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.binding;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.randomId;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.serviceInstance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class SnapshotServiceImplTest {
+
+    private static final int INSTANCES = 50;
+
+    private static final int BINDINGS_PER_INSTANCE = 3;
+
+    private InMemoryServiceInstanceRepository serviceInstances;
+
+    private InMemoryBindingRepository bindings;
+
+    private InMemoryRouteBindingRepository routeBindings;
+
+    private InMemoryJobRepository jobs;
+
+    private final List<ServiceInstance> exportedInstances = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        serviceInstances = new InMemoryServiceInstanceRepository();
+        bindings = new InMemoryBindingRepository();
+        routeBindings = new InMemoryRouteBindingRepository();
+        jobs = new InMemoryJobRepository();
+
+        for (int i = 0; i < INSTANCES; i++) {
+            // Instances of services which are no longer part of any catalog are exported as well
+            ServiceInstance serviceInstance = serviceInstance(randomId(), randomId());
+            serviceInstances.addServiceInstance(serviceInstance.getId(), serviceInstance);
+            exportedInstances.add(serviceInstance);
+
+            for (int j = 0; j < BINDINGS_PER_INSTANCE; j++) {
+                ServiceInstanceBinding binding = binding(randomId(), serviceInstance.getId());
+                bindings.addInternalBinding(binding);
+                jobs.saveOrUpdateJobProgress(binding.getId(), JobProgress.SUCCESS);
+            }
+
+            routeBindings.addRouteBinding(new RouteBinding(randomId(), serviceInstance.getId(), "route-" + i));
+
+            JobProgress jobProgress = new JobProgress(serviceInstance.getId(), JobProgress.FAILED);
+            jobProgress.setDescription("Deployment of " + serviceInstance.getId() + " failed");
+            jobs.saveJobProgress(jobProgress);
+        }
+    }
+
+    @Test
+    public void restoredSnapshotContainsAllExportedRecords() throws Exception {
+        byte[] snapshot = export();
+
+        SnapshotConfiguration configuration = new SnapshotConfiguration();
+        configuration.setBatchSize(7);
+        configuration.setParallelism(4);
+
+        InMemoryServiceInstanceRepository restoredInstances = new InMemoryServiceInstanceRepository();
+        InMemoryBindingRepository restoredBindings = new InMemoryBindingRepository();
+        InMemoryRouteBindingRepository restoredRouteBindings = new InMemoryRouteBindingRepository();
+        InMemoryJobRepository restoredJobs = new InMemoryJobRepository();
+
+        long restored = new SnapshotServiceImpl(restoredInstances, restoredBindings, restoredRouteBindings,
+                restoredJobs, configuration).restoreSnapshot(new ByteArrayInputStream(snapshot));
+
+        assertEquals(INSTANCES * (3 + 2 * BINDINGS_PER_INSTANCE), restored);
+        assertEquals(INSTANCES, restoredInstances.getServiceInstances().size());
+
+        for (ServiceInstance serviceInstance : exportedInstances) {
+            String id = serviceInstance.getId();
+            ServiceInstance restoredInstance = restoredInstances.getServiceInstance(id);
+            assertNotNull(restoredInstance);
+            assertEquals(serviceInstance.getServiceDefinitionId(), restoredInstance.getServiceDefinitionId());
+
+            assertEquals(BINDINGS_PER_INSTANCE, restoredBindings.getBindingsForServiceInstance(id).size());
+            for (ServiceInstanceBinding binding : bindings.getBindingsForServiceInstance(id)) {
+                assertEquals(binding.getCredentials(), restoredBindings.findOne(binding.getId()).getCredentials());
+                assertEquals(JobProgress.SUCCESS, restoredJobs.getJobProgress(binding.getId()).getState());
+            }
+
+            assertEquals(1, restoredRouteBindings.getRouteBindingsForServiceInstance(id).size());
+
+            JobProgress jobProgress = restoredJobs.getJobProgress(id);
+            assertEquals(JobProgress.FAILED, jobProgress.getState());
+            assertEquals(jobs.getJobProgress(id).getDescription(), jobProgress.getDescription());
+        }
+    }
+
+    @Test
+    public void bindingsAreRestoredAfterTheirServiceInstance() throws Exception {
+        byte[] snapshot = export();
+
+        SnapshotConfiguration configuration = new SnapshotConfiguration();
+        configuration.setBatchSize(1);
+        configuration.setParallelism(8);
+
+        InMemoryServiceInstanceRepository restoredInstances = new InMemoryServiceInstanceRepository();
+        InMemoryBindingRepository restoredBindings = new InMemoryBindingRepository() {
+            @Override
+            public void addInternalBinding(ServiceInstanceBinding binding) {
+                if (!restoredInstances.containsServiceInstanceId(binding.getServiceInstanceId()))
+                    throw new IllegalStateException("Service instance of binding " + binding.getId() + " is missing");
+                super.addInternalBinding(binding);
+            }
+        };
+
+        new SnapshotServiceImpl(restoredInstances, restoredBindings, new InMemoryRouteBindingRepository(),
+                new InMemoryJobRepository(), configuration).restoreSnapshot(new ByteArrayInputStream(snapshot));
+
+        for (ServiceInstance serviceInstance : exportedInstances)
+            assertEquals(BINDINGS_PER_INSTANCE, restoredBindings.getBindingsForServiceInstance(serviceInstance.getId()).size());
+    }
+
+    private byte[] export() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new SnapshotServiceImpl(serviceInstances, bindings, routeBindings, jobs, new SnapshotConfiguration())
+                .exportSnapshot(outputStream);
+        return outputStream.toByteArray();
+    }
+}
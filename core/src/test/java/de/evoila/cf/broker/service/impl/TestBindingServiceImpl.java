@@ -0,0 +1,90 @@
+package de.evoila.cf.broker.service.impl;
+
+import de.evoila.cf.broker.exception.ServiceBrokerException;
+import de.evoila.cf.broker.model.Plan;
+import de.evoila.cf.broker.model.RouteBinding;
+import de.evoila.cf.broker.model.ServerAddress;
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.model.ServiceInstanceBinding;
+import de.evoila.cf.broker.model.ServiceInstanceBindingRequest;
+import de.evoila.cf.broker.repository.BindingRepository;
+import de.evoila.cf.broker.repository.ServiceDefinitionRepository;
+import de.evoila.cf.broker.repository.ServiceInstanceRepository;
+import de.evoila.cf.broker.service.HAProxyService;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Binding service of a broker whose credentials are simply derived from the binding id.
+ * Bindings requested with the parameter {@value #FAIL_PARAMETER} set to true can not be created.
+ */
+public class TestBindingServiceImpl extends BindingServiceImpl {
+
+    public static final String FAIL_PARAMETER = "fail";
+
+    private final Set<String> unboundBindingIds = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> failingUnbindBindingIds = ConcurrentHashMap.newKeySet();
+
+    private volatile int maxCredentialsDelayMillis;
+
+    public TestBindingServiceImpl(BindingRepository bindingRepository, ServiceDefinitionRepository serviceDefinitionRepository,
+                                  ServiceInstanceRepository serviceInstanceRepository, HAProxyService haProxyService) {
+        super(bindingRepository, serviceDefinitionRepository, serviceInstanceRepository, null, haProxyService);
+    }
+
+    public Set<String> getUnboundBindingIds() {
+        return unboundBindingIds;
+    }
+
+    /**
+     * Bindings whose ids are added here can not be unbound.
+     */
+    public Set<String> getFailingUnbindBindingIds() {
+        return failingUnbindBindingIds;
+    }
+
+    /**
+     * Lets credentials take up to the given time, so parallel bindings finish in random order.
+     */
+    public void setMaxCredentialsDelayMillis(int maxCredentialsDelayMillis) {
+        this.maxCredentialsDelayMillis = maxCredentialsDelayMillis;
+    }
+
+    @Override
+    protected RouteBinding bindRoute(ServiceInstance serviceInstance, String route) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void unbindService(ServiceInstanceBinding binding, ServiceInstance serviceInstance, Plan plan)
+            throws ServiceBrokerException {
+        if (failingUnbindBindingIds.contains(binding.getId()))
+            throw new ServiceBrokerException("Could not unbind binding " + binding.getId());
+
+        unboundBindingIds.add(binding.getId());
+    }
+
+    @Override
+    protected Map<String, Object> createCredentials(String bindingId, ServiceInstanceBindingRequest serviceInstanceBindingRequest,
+                                                    ServiceInstance serviceInstance, Plan plan, ServerAddress serverAddress)
+            throws ServiceBrokerException {
+        if (maxCredentialsDelayMillis > 0) {
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(maxCredentialsDelayMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        Map<String, Object> parameters = serviceInstanceBindingRequest.getParameters();
+        if (parameters != null && Boolean.TRUE.equals(parameters.get(FAIL_PARAMETER)))
+            throw new ServiceBrokerException("Could not create credentials of binding " + bindingId);
+
+        return Collections.singletonMap("username", "user-" + bindingId);
+    }
+}
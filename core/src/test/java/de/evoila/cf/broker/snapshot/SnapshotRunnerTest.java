@@ -0,0 +1,86 @@
+package de.evoila.cf.broker.snapshot;
+
+import de.evoila.cf.broker.bean.SnapshotConfiguration;
+import de.evoila.cf.broker.model.ServiceInstance;
+import de.evoila.cf.broker.repository.inmemory.InMemoryBindingRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryJobRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryRouteBindingRepository;
+import de.evoila.cf.broker.repository.inmemory.InMemoryServiceInstanceRepository;
+import de.evoila.cf.broker.service.SnapshotService;
+import de.evoila.cf.broker.service.impl.SnapshotServiceImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.randomId;
+import static de.evoila.cf.broker.repository.contract.RepositoryTestData.serviceInstance;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SnapshotRunnerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void exportedSnapshotIsRestoredOnStartup() throws Exception {
+        File file = new File(folder.getRoot(), "snapshot.bin");
+        InMemoryServiceInstanceRepository serviceInstances = new InMemoryServiceInstanceRepository();
+        ServiceInstance serviceInstance = serviceInstance(randomId());
+        serviceInstances.addServiceInstance(serviceInstance.getId(), serviceInstance);
+
+        SnapshotConfiguration exportConfiguration = new SnapshotConfiguration();
+        exportConfiguration.setExportFile(file.getPath());
+        new SnapshotRunner(snapshotService(serviceInstances, exportConfiguration), exportConfiguration).run();
+
+        InMemoryServiceInstanceRepository restoredInstances = new InMemoryServiceInstanceRepository();
+        SnapshotConfiguration restoreConfiguration = new SnapshotConfiguration();
+        restoreConfiguration.setRestoreFile(file.getPath());
+        new SnapshotRunner(snapshotService(restoredInstances, restoreConfiguration), restoreConfiguration).run();
+
+        assertTrue(restoredInstances.containsServiceInstanceId(serviceInstance.getId()));
+        assertEquals(1, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void failedExportKeepsThePreviousSnapshot() throws Exception {
+        File file = folder.newFile("snapshot.bin");
+        byte[] previous = "previous snapshot".getBytes(StandardCharsets.UTF_8);
+        Files.write(file.toPath(), previous);
+
+        SnapshotService snapshotService = mock(SnapshotService.class);
+        when(snapshotService.exportSnapshot(any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write(new byte[]{1, 2, 3});
+            throw new IOException("Store not readable");
+        });
+        SnapshotConfiguration configuration = new SnapshotConfiguration();
+        configuration.setExportFile(file.getPath());
+
+        try {
+            new SnapshotRunner(snapshotService, configuration).run();
+            fail("Expected the failed export to fail the startup");
+        } catch (IOException e) {
+            // expected
+        }
+
+        assertArrayEquals(previous, Files.readAllBytes(file.toPath()));
+        assertEquals(1, folder.getRoot().list().length);
+    }
+
+    private static SnapshotService snapshotService(InMemoryServiceInstanceRepository serviceInstances,
+                                                   SnapshotConfiguration configuration) {
+        return new SnapshotServiceImpl(serviceInstances, new InMemoryBindingRepository(),
+                new InMemoryRouteBindingRepository(), new InMemoryJobRepository(), configuration);
+    }
+}
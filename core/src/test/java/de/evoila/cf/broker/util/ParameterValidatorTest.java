@@ -0,0 +1,303 @@
+package de.evoila.cf.broker.util;
+
+import de.evoila.cf.broker.controller.BaseController;
+import de.evoila.cf.broker.exception.InvalidParametersException;
+import de.evoila.cf.broker.model.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ParameterValidatorTest {
+
+    private static final ParameterValidator.Operation CREATE = ParameterValidator.Operation.SERVICE_INSTANCE_CREATE;
+
+    private static final ParameterValidator.Operation UPDATE = ParameterValidator.Operation.SERVICE_INSTANCE_UPDATE;
+
+    @Before
+    public void setUp() {
+        ParameterValidator.clearSchemaCache();
+    }
+
+    @After
+    public void tearDown() {
+        ParameterValidator.setFastPathEnabled(true);
+        ParameterValidator.clearSchemaCache();
+    }
+
+    @Test
+    public void compiledSchemaIsCachedPerPlanAndOperation() throws Exception {
+        Plan plan = plan(schema(property("size", integer(1, 10))), null);
+        SchemaParameters schema = ParameterValidator.getSchemaParameters(plan, CREATE);
+
+        Object first = ParameterValidator.getCompiledSchema(plan, CREATE, schema);
+        assertSame(first, ParameterValidator.getCompiledSchema(plan, CREATE, schema));
+
+        ParameterValidator.clearSchemaCache();
+        assertNotSame(first, ParameterValidator.getCompiledSchema(plan, CREATE, schema));
+    }
+
+    @Test
+    public void cachedSchemaIsNotUsedOnceThePlanReferencesAnotherOne() throws Exception {
+        Plan plan = plan(schema(property("size", integer(1, 10))), null);
+        assertInvalid(parameters("size", 20), plan, CREATE);
+
+        // A reloaded catalog hands out new schema instances for the same plan id
+        plan.getSchemas().getServiceInstance().getCreate().setParameters(schema(property("size", integer(1, 100))));
+        ParameterValidator.validateParameters(parameters("size", 20), plan, CREATE);
+    }
+
+    @Test
+    public void updateFallsBackToTheCreateSchema() throws Exception {
+        Plan plan = plan(schema(property("size", integer(1, 10))), null);
+
+        assertSame(ParameterValidator.getSchemaParameters(plan, CREATE), ParameterValidator.getSchemaParameters(plan, UPDATE));
+        assertInvalid(parameters("size", 20), plan, UPDATE);
+    }
+
+    @Test
+    public void dedicatedUpdateSchemaIsUsedOnUpdate() throws Exception {
+        Plan plan = plan(schema(property("size", integer(1, 10))), schema(property("size", integer(1, 100))));
+
+        ParameterValidator.validateParameters(parameters("size", 20), plan, UPDATE);
+        assertInvalid(parameters("size", 20), plan, CREATE);
+    }
+
+    @Test
+    public void allViolationsAreReportedWithPointers() throws Exception {
+        SchemaProperty nested = new SchemaProperty();
+        nested.setType("object");
+        nested.setProperties(property("name", string(3, 8)));
+        nested.setRequired(Collections.singletonList("version"));
+
+        Map<String, SchemaProperty> properties = new LinkedHashMap<>();
+        properties.putAll(property("size", integer(1, 10)));
+        properties.putAll(property("config", nested));
+        properties.putAll(property("a/b", string(1, 2)));
+        Plan plan = plan(schema(properties), null);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("size", 20);
+        parameters.put("config", Collections.singletonMap("name", "x"));
+        parameters.put("a/b", "too long");
+        parameters.put("unknown", true);
+
+        for (boolean fastPath : new boolean[] { true, false }) {
+            ParameterValidator.setFastPathEnabled(fastPath);
+            InvalidParametersException exception = assertInvalid(parameters, plan, CREATE);
+
+            assertEquals("The specified parameters are invalid", exception.getMessage());
+            assertEquals(new HashSet<>(Arrays.asList("/unknown", "/size", "/config", "/config/name", "/a~1b")),
+                    pointers(exception.getErrors()));
+        }
+    }
+
+    @Test
+    public void invalidParametersAreAnsweredWithAllErrors() throws Exception {
+        Plan plan = plan(schema(property("size", integer(1, 10))), null);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ValidatingController(plan)).build();
+
+        mockMvc.perform(post("/validate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"size\": 20, \"unknown\": 1}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("The specified parameters are invalid"))
+                .andExpect(jsonPath("$.errors[*].pointer", containsInAnyOrder("/size", "/unknown")));
+    }
+
+    @Test
+    public void patternsAreLeftToTheGenericValidator() {
+        SchemaProperty property = string(null, null);
+        property.setPattern("^[a-z]+$");
+
+        assertNull(FastPathValidatorCompiler.compile(schema(property("name", property))));
+        assertNotNull(FastPathValidatorCompiler.compile(schema(property("name", string(1, 2)))));
+    }
+
+    @Test
+    public void fastPathReportsTheSameViolationsAsTheGenericValidator() throws Exception {
+        SchemaProperty integer = integer(2, 10);
+        integer.setMultipleOf(2);
+
+        SchemaProperty exclusive = new SchemaProperty();
+        exclusive.setType("number");
+        exclusive.setMinimum(0);
+        exclusive.setExclusiveMinimum(true);
+        exclusive.setMaximum(1);
+        exclusive.setExclusiveMaximum(true);
+
+        SchemaProperty enumeration = new SchemaProperty();
+        enumeration.setEnums(Arrays.asList("small", 1, true));
+
+        SchemaProperty bool = new SchemaProperty();
+        bool.setType("boolean");
+
+        SchemaProperty array = new SchemaProperty();
+        array.setType("array");
+        array.setMinItems(1);
+        array.setMaxItems(2);
+        array.setItems(Arrays.asList(string(1, 3), integer(0, 5)));
+
+        SchemaProperty object = new SchemaProperty();
+        object.setType("object");
+        object.setProperties(property("inner", bool));
+        object.setRequired(Collections.singletonList("inner"));
+
+        Map<String, SchemaProperty> properties = new LinkedHashMap<>();
+        properties.putAll(property("string", string(2, 4)));
+        properties.putAll(property("integer", integer));
+        properties.putAll(property("exclusive", exclusive));
+        properties.putAll(property("enum", enumeration));
+        properties.putAll(property("boolean", bool));
+        properties.putAll(property("array", array));
+        properties.putAll(property("object", object));
+        SchemaParameters schema = schema(properties);
+        schema.setRequired(Collections.singletonList("string"));
+        Plan plan = plan(schema, null);
+        assertNotNull(FastPathValidatorCompiler.compile(schema));
+
+        List<Map<String, Object>> cases = Arrays.asList(
+                parameters("string", "abc"),
+                parameters("string", "a"),
+                parameters("string", "abcde"),
+                parameters("string", 1),
+                parameters("integer", 4),
+                parameters("integer", 5),
+                parameters("integer", 12),
+                parameters("integer", 0),
+                parameters("integer", 4.5),
+                parameters("exclusive", 0.5),
+                parameters("exclusive", 0),
+                parameters("exclusive", 1),
+                parameters("enum", "small"),
+                parameters("enum", 1.0),
+                parameters("enum", "large"),
+                parameters("enum", false),
+                parameters("boolean", "true"),
+                parameters("array", Collections.emptyList()),
+                parameters("array", Arrays.asList("ab", 3)),
+                parameters("array", Arrays.asList("abcd", 9)),
+                parameters("array", Arrays.asList("a", 1, "extra")),
+                parameters("object", Collections.singletonMap("inner", true)),
+                parameters("object", Collections.singletonMap("inner", "no")),
+                parameters("object", Collections.emptyMap()),
+                parameters("object", "no object"),
+                Collections.emptyMap());
+
+        for (Map<String, Object> parameters : cases) {
+            Map<String, Object> request = new HashMap<>(parameters);
+            if (!parameters.isEmpty())
+                request.putIfAbsent("string", "abc");
+
+            assertEquals("Parameters " + request, errors(request, plan, false), errors(request, plan, true));
+        }
+    }
+
+    private static Set<String> errors(Map<String, Object> parameters, Plan plan, boolean fastPath) throws Exception {
+        ParameterValidator.setFastPathEnabled(fastPath);
+        try {
+            ParameterValidator.validateParameters(parameters, plan, CREATE);
+            return Collections.emptySet();
+        } catch (InvalidParametersException e) {
+            return pointers(e.getErrors());
+        }
+    }
+
+    private static InvalidParametersException assertInvalid(Map<String, Object> parameters, Plan plan,
+                                                            ParameterValidator.Operation operation) throws Exception {
+        try {
+            ParameterValidator.validateParameters(parameters, plan, operation);
+        } catch (InvalidParametersException e) {
+            return e;
+        }
+        fail("Parameters " + parameters + " should be invalid");
+        return null;
+    }
+
+    private static Set<String> pointers(List<ParameterError> errors) {
+        return errors.stream().map(ParameterError::getPointer).collect(Collectors.toSet());
+    }
+
+    private static Map<String, Object> parameters(String name, Object value) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(name, value);
+        return parameters;
+    }
+
+    private static Map<String, SchemaProperty> property(String name, SchemaProperty property) {
+        Map<String, SchemaProperty> properties = new LinkedHashMap<>();
+        properties.put(name, property);
+        return properties;
+    }
+
+    private static SchemaProperty string(Integer minLength, Integer maxLength) {
+        SchemaProperty property = new SchemaProperty();
+        property.setType("string");
+        property.setMinLength(minLength);
+        property.setMaxLength(maxLength);
+        return property;
+    }
+
+    private static SchemaProperty integer(int minimum, int maximum) {
+        SchemaProperty property = new SchemaProperty();
+        property.setType("integer");
+        property.setMinimum(minimum);
+        property.setMaximum(maximum);
+        return property;
+    }
+
+    private static SchemaParameters schema(Map<String, SchemaProperty> properties) {
+        SchemaParameters schema = new SchemaParameters(ParameterValidator.JSON_V4_SCHEMA_IDENTIFIER, "object");
+        schema.setProperties(properties);
+        return schema;
+    }
+
+    private static Plan plan(SchemaParameters create, SchemaParameters update) {
+        SchemaServiceCreate serviceCreate = new SchemaServiceCreate();
+        serviceCreate.setParameters(create);
+        SchemaServiceInstance serviceInstance = new SchemaServiceInstance();
+        serviceInstance.setCreate(serviceCreate);
+        if (update != null) {
+            SchemaServiceUpdate serviceUpdate = new SchemaServiceUpdate();
+            serviceUpdate.setParameters(update);
+            serviceInstance.setUpdate(serviceUpdate);
+        }
+
+        Schemas schemas = new Schemas();
+        schemas.setServiceInstance(serviceInstance);
+
+        Plan plan = new Plan();
+        plan.setId(UUID.randomUUID().toString());
+        plan.setSchemas(schemas);
+        return plan;
+    }
+
+    @RestController
+    static class ValidatingController extends BaseController {
+
+        private final Plan plan;
+
+        private ValidatingController(Plan plan) {
+            this.plan = plan;
+        }
+
+        @PostMapping("/validate")
+        public void validate(@RequestBody Map<String, Object> parameters) throws Exception {
+            ParameterValidator.validateParameters(parameters, plan, CREATE);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package de.evoila.cf.config.security;
+
+import de.evoila.cf.broker.bean.UaaTokenCacheConfiguration;
+import de.evoila.cf.config.security.uaa.utils.JwtVerifierRegistry;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class UaaSecurityConfigurationTest {
+
+    @Test
+    public void enabledVerificationWithoutRegistryFailsTheStartup() {
+        UaaSecurityConfiguration configuration = new UaaSecurityConfiguration(new UaaTokenCacheConfiguration(),
+                missingRegistry(), new MockEnvironment().withProperty("uaa.token-verification.enabled", "true"));
+
+        try {
+            configuration.openIDRelyingPartyAuthenticationProvider();
+            fail("Expected the provider to require a verifier registry");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void disabledVerificationDoesNotRequireARegistry() {
+        UaaSecurityConfiguration configuration = new UaaSecurityConfiguration(new UaaTokenCacheConfiguration(),
+                missingRegistry(), new MockEnvironment());
+
+        assertNotNull(configuration.openIDRelyingPartyAuthenticationProvider());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<JwtVerifierRegistry> missingRegistry() {
+        return mock(ObjectProvider.class);
+    }
+}
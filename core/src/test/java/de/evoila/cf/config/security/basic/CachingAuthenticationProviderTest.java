@@ -0,0 +1,124 @@
+package de.evoila.cf.config.security.basic;
+
+import com.google.common.base.Ticker;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class CachingAuthenticationProviderTest {
+
+    private static final long TTL = 1000;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final AtomicInteger delegateCalls = new AtomicInteger();
+
+    private CachingAuthenticationProvider provider;
+
+    @Before
+    public void setUp() {
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+        daoAuthenticationProvider.setUserDetailsService(new InMemoryUserDetailsManager(
+                User.withUsername("admin").password("{noop}secret").authorities("USER").build(),
+                User.withUsername("other").password("{noop}secret").authorities("OTHER").build()));
+
+        AuthenticationProvider countingDelegate = new AuthenticationProvider() {
+            @Override
+            public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+                delegateCalls.incrementAndGet();
+                return daoAuthenticationProvider.authenticate(authentication);
+            }
+
+            @Override
+            public boolean supports(Class<?> authentication) {
+                return daoAuthenticationProvider.supports(authentication);
+            }
+        };
+
+        provider = new CachingAuthenticationProvider(countingDelegate, TTL, 100, new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        });
+    }
+
+    @Test
+    public void successfulAuthenticationIsServedFromTheCache() {
+        provider.authenticate(token("admin", "secret"));
+        Authentication cached = provider.authenticate(token("admin", "secret"));
+
+        assertEquals("admin", cached.getName());
+        assertEquals(1, delegateCalls.get());
+    }
+
+    @Test
+    public void wrongPasswordIsNeverServedFromTheCache() {
+        provider.authenticate(token("admin", "secret"));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                provider.authenticate(token("admin", "wrong"));
+                fail("Expected the wrong password to be rejected");
+            } catch (BadCredentialsException e) {
+                // expected
+            }
+        }
+        assertEquals(3, delegateCalls.get());
+    }
+
+    @Test
+    public void otherUserWithTheSamePasswordIsAuthenticatedSeparately() {
+        provider.authenticate(token("admin", "secret"));
+        Authentication other = provider.authenticate(token("other", "secret"));
+
+        assertEquals("other", other.getName());
+        assertEquals("OTHER", other.getAuthorities().iterator().next().getAuthority());
+        assertEquals(2, delegateCalls.get());
+    }
+
+    @Test
+    public void entriesExpireAfterTheTtl() {
+        provider.authenticate(token("admin", "secret"));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL - 1));
+        provider.authenticate(token("admin", "secret"));
+        assertEquals(1, delegateCalls.get());
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+        provider.authenticate(token("admin", "secret"));
+        assertEquals(2, delegateCalls.get());
+    }
+
+    @Test
+    public void cachedAuthenticationCarriesNoCredentials() {
+        provider.authenticate(token("admin", "secret"));
+        Authentication cached = provider.authenticate(token("admin", "secret"));
+
+        assertNull(cached.getCredentials());
+        assertNull(cached.getDetails());
+        assertNull(((UserDetails) cached.getPrincipal()).getPassword());
+    }
+
+    private static Authentication token(String username, String password) {
+        UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(username, password);
+        token.setDetails("request details");
+        return token;
+    }
+}
@@ -0,0 +1,145 @@
+package de.evoila.cf.config.security.credhub;
+
+import com.google.common.base.Ticker;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EncryptedCredentialCacheTest {
+
+    private static final long TTL = 1000;
+
+    private static final String NAME = "/broker/instance/password";
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private EncryptedCredentialCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new EncryptedCredentialCache(TTL, 100, new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        });
+    }
+
+    @Test
+    public void cachedValueIsServedWithoutLoadingAgain() {
+        assertEquals("secret-1", password(cache.get(NAME, loader())));
+        assertEquals("secret-1", password(cache.get(NAME, loader())));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void expiredValueIsLoadedAgain() {
+        cache.get(NAME, loader());
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL - 1));
+        assertEquals("secret-1", password(cache.get(NAME, loader())));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+        assertEquals("secret-2", password(cache.get(NAME, loader())));
+    }
+
+    @Test
+    public void invalidatedValueIsLoadedAgain() {
+        cache.get(NAME, loader());
+        cache.get("/broker/instance/other", loader());
+
+        cache.invalidate(NAME);
+
+        assertEquals("secret-3", password(cache.get(NAME, loader())));
+        assertEquals("secret-2", password(cache.get("/broker/instance/other", loader())));
+    }
+
+    @Test
+    public void failedLoadIsNotCached() {
+        try {
+            cache.get(NAME, () -> {
+                throw new IllegalStateException("CredHub is unavailable");
+            });
+            fail("Expected the load to fail");
+        } catch (IllegalStateException e) {
+            assertEquals("CredHub is unavailable", e.getMessage());
+        }
+
+        assertEquals("secret-1", password(cache.get(NAME, loader())));
+    }
+
+    @Test
+    public void loadWhichRunsDuringAnInvalidationIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Map<String, Object>> staleRead = executor.submit(() -> cache.get(NAME, () -> {
+                loading.countDown();
+                await(written);
+                return Collections.singletonMap("password", "old");
+            }));
+
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+            cache.invalidate(NAME);
+            written.countDown();
+
+            // The reader which started before the write still gets its value, later readers do not
+            assertEquals("old", password(staleRead.get(10, TimeUnit.SECONDS)));
+            assertEquals("secret-1", password(cache.get(NAME, loader())));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void entriesAreBoundToTheirName() throws Exception {
+        CredentialCipher cipher = new CredentialCipher(CredentialCipher.generateKey());
+        byte[] plain = "secret".getBytes(StandardCharsets.UTF_8);
+        byte[] encrypted = cipher.encrypt(NAME, plain);
+
+        assertArrayEquals(plain, cipher.decrypt(NAME, encrypted));
+        try {
+            cipher.decrypt("/broker/other-instance/password", encrypted);
+            fail("Expected an entry of another credential to be rejected");
+        } catch (GeneralSecurityException e) {
+            // expected
+        }
+    }
+
+    private Supplier<Map<String, Object>> loader() {
+        return () -> Collections.singletonMap("password", "secret-" + loads.incrementAndGet());
+    }
+
+    private static String password(Map<String, Object> value) {
+        return (String) value.get("password");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
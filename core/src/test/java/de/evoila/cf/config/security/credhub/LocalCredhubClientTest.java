@@ -0,0 +1,258 @@
+package de.evoila.cf.config.security.credhub;
+
+import de.evoila.cf.broker.bean.LocalCredhubBean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.credhub.core.CredHubException;
+import org.springframework.credhub.support.certificate.CertificateCredential;
+import org.springframework.credhub.support.certificate.CertificateParameters;
+import org.springframework.credhub.support.user.UserCredential;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LocalCredhubClientTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LocalCredhubBean localCredhubBean;
+
+    private Path path;
+
+    private LocalCredhubClient client;
+
+    private String instanceId;
+
+    @Before
+    public void setUp() throws Exception {
+        localCredhubBean = new LocalCredhubBean();
+        path = folder.getRoot().toPath().resolve("credentials.json");
+        localCredhubBean.setPath(path.toString());
+        client = new LocalCredhubClient(localCredhubBean, new MockEnvironment());
+        instanceId = UUID.randomUUID().toString();
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        client.shutdownExecutor();
+    }
+
+    @Test
+    public void createdCredentialsCanBeReadBack() {
+        client.createUser(instanceId, "user", "admin", 20);
+        client.createPassword(instanceId, "password", 30);
+        client.createJson(instanceId, "json", Collections.singletonMap("port", 5432));
+        client.createCertificate(instanceId, "certificate", CertificateParameters.builder()
+                .commonName("localhost")
+                .selfSign(true)
+                .build());
+
+        UserCredential user = client.getUser(instanceId, "user");
+        assertEquals("admin", user.getUsername());
+        assertEquals(20, user.getPassword().length());
+        assertEquals(30, client.getPassword(instanceId, "password").length());
+        assertEquals(5432, client.getJsonCredential(instanceId, "json").get("port"));
+        CertificateCredential certificate = client.getCertificateCredential(instanceId, "certificate");
+        assertEquals(certificate.getCertificate(), certificate.getCertificateAuthority());
+        assertNotNull(certificate.getPrivateKey());
+    }
+
+    @Test
+    public void credentialsSurviveARestart() throws Exception {
+        client.createPassword(instanceId, "password");
+        client.createJson(instanceId, "json", Collections.singletonMap("version", 1));
+        client.createJson(instanceId, "json", Collections.singletonMap("version", 2));
+        client.createPassword(instanceId, "deleted");
+        client.deleteCredentials(instanceId, "deleted");
+        String password = client.getPassword(instanceId, "password");
+
+        restart();
+
+        assertEquals(password, client.getPassword(instanceId, "password"));
+        assertEquals(2, client.getJsonCredential(instanceId, "json").get("version"));
+        assertMissing(() -> client.getPassword(instanceId, "deleted"));
+    }
+
+    @Test
+    public void incompleteLastLineIsDroppedOnRestart() throws Exception {
+        client.createPassword(instanceId, "password");
+        String password = client.getPassword(instanceId, "password");
+        client.close();
+        Files.write(path, "{\"name\":\"/bosh-1/sb-".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        restart();
+
+        assertEquals(password, client.getPassword(instanceId, "password"));
+        assertEquals(Collections.singleton("password"), client.getValueNames(instanceId));
+    }
+
+    @Test
+    public void fileIsCompactedOnceItHoldsMostlyOutdatedLines() throws Exception {
+        for (int i = 0; i <= LocalCredhubClient.MIN_COMPACTION_RECORDS + 10; i++)
+            client.createJson(instanceId, "json", Collections.singletonMap("version", i));
+
+        assertTrue(Files.readAllLines(path).size() < LocalCredhubClient.MIN_COMPACTION_RECORDS);
+
+        restart();
+
+        assertEquals(LocalCredhubClient.MIN_COMPACTION_RECORDS + 10, client.getJsonCredential(instanceId, "json").get("version"));
+    }
+
+    @Test
+    public void generatingAnExistingCredentialKeepsItsValue() {
+        client.createPassword(instanceId, "password");
+        client.createUser(instanceId, "user", "admin");
+        client.createCertificate(instanceId, "certificate", CertificateParameters.builder()
+                .commonName("localhost")
+                .selfSign(true)
+                .build());
+        String password = client.getPassword(instanceId, "password");
+        UserCredential user = client.getUser(instanceId, "user");
+        String certificate = client.getCertificateCredential(instanceId, "certificate").getCertificate();
+
+        client.createPassword(instanceId, "password");
+        client.createUser(instanceId, "user", "other");
+        client.createCertificate(instanceId, "certificate", CertificateParameters.builder()
+                .commonName("other")
+                .selfSign(true)
+                .build());
+
+        assertEquals(password, client.getPassword(instanceId, "password"));
+        assertEquals(user.getUsername(), client.getUser(instanceId, "user").getUsername());
+        assertEquals(user.getPassword(), client.getUser(instanceId, "user").getPassword());
+        assertEquals(certificate, client.getCertificateCredential(instanceId, "certificate").getCertificate());
+    }
+
+    @Test
+    public void certificateIsSignedByItsCertificateAuthority() throws Exception {
+        client.createCertificate(instanceId, "ca", CertificateParameters.builder()
+                .commonName("broker-ca")
+                .certificateAuthority(true)
+                .selfSign(true)
+                .build());
+        client.createCertificate(instanceId, "server", CertificateParameters.builder()
+                .commonName("server")
+                .ca("ca")
+                .build());
+
+        CertificateCredential ca = client.getCertificateCredential(instanceId, "ca");
+        CertificateCredential server = client.getCertificateCredential(instanceId, "server");
+        X509Certificate caCertificate = x509(ca.getCertificate());
+        X509Certificate serverCertificate = x509(server.getCertificate());
+
+        assertEquals(ca.getCertificate(), server.getCertificateAuthority());
+        assertEquals(caCertificate.getSubjectX500Principal(), serverCertificate.getIssuerX500Principal());
+        assertNotEquals(caCertificate.getSubjectX500Principal(), serverCertificate.getSubjectX500Principal());
+        serverCertificate.verify(caCertificate.getPublicKey());
+        assertTrue(caCertificate.getBasicConstraints() >= 0);
+        assertEquals(-1, serverCertificate.getBasicConstraints());
+    }
+
+    @Test
+    public void concurrentWritesAreAllStored() throws Exception {
+        int threads = 8;
+        int credentialsPerThread = 50;
+        Set<String> sharedPasswords = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int offset = thread * credentialsPerThread;
+                futures.add(executorService.submit(() -> {
+                    for (int i = offset; i < offset + credentialsPerThread; i++) {
+                        client.createPassword(instanceId, "password-" + i);
+                        client.createPassword(instanceId, "shared");
+                        sharedPasswords.add(client.getPassword(instanceId, "shared"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get(1, TimeUnit.MINUTES);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertEquals(1, sharedPasswords.size());
+
+        restart();
+
+        assertEquals(threads * credentialsPerThread + 1, client.getValueNames(instanceId).size());
+        assertEquals(sharedPasswords.iterator().next(), client.getPassword(instanceId, "shared"));
+    }
+
+    @Test
+    public void failedBatchOnlyRemovesTheCredentialsItCreated() {
+        client.createPassword(instanceId, "existing");
+
+        List<CredentialResult> results = client.createCredentials(instanceId, Arrays.asList(
+                CredentialSpec.password("existing"),
+                CredentialSpec.password("fresh"),
+                CredentialSpec.user("fresh-user", "admin"),
+                CredentialSpec.certificate("broken", CertificateParameters.builder()
+                        .commonName("broken")
+                        .ca("missing-ca")
+                        .build())));
+
+        assertEquals(4, results.size());
+        assertEquals("existing", results.get(0).getValueName());
+        assertTrue(results.get(0).isSucceeded());
+        assertFalse(results.get(0).isRolledBack());
+        assertTrue(results.get(1).isRolledBack());
+        assertTrue(results.get(2).isRolledBack());
+        assertFalse(results.get(3).isSucceeded());
+
+        assertNotNull(client.getPassword(instanceId, "existing"));
+        assertMissing(() -> client.getPassword(instanceId, "fresh"));
+        assertMissing(() -> client.getUser(instanceId, "fresh-user"));
+    }
+
+    private void restart() {
+        client.close();
+        client.shutdownExecutor();
+        client = new LocalCredhubClient(localCredhubBean, new MockEnvironment());
+    }
+
+    private static X509Certificate x509(String pem) throws Exception {
+        return (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(pem.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static void assertMissing(Runnable read) {
+        try {
+            read.run();
+            fail("Expected the credential to be deleted");
+        } catch (CredHubException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package de.evoila.cf.config.security.openid;
+
+import de.evoila.cf.broker.bean.DashboardSessionConfiguration;
+import de.evoila.cf.broker.model.DashboardClient;
+import de.evoila.cf.broker.model.oauth.CompositeAccessToken;
+import de.evoila.cf.config.http.OutboundHttpClientFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class DashboardOAuthClientTest {
+
+    private static final String OAUTH_ENDPOINT = "https://login.example.com/oauth";
+
+    private static final String INSTANCE_ID = "instance-id";
+
+    private MockRestServiceServer uaa;
+
+    private DashboardOAuthClient client;
+
+    private DashboardClient dashboardClient;
+
+    @Before
+    public void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        uaa = MockRestServiceServer.bindTo(restTemplate).build();
+        client = new DashboardOAuthClient(outboundHttpClientFactory(restTemplate), new DashboardSessionConfiguration());
+
+        dashboardClient = new DashboardClient();
+        dashboardClient.setId("dashboard");
+        dashboardClient.setSecret("secret");
+    }
+
+    @Test
+    public void sessionIsRefreshedWithItsRefreshToken() {
+        String sessionId = client.createSession(INSTANCE_ID, token("access-1", "refresh-1"));
+        expectRefresh("refresh-1", "{\"access_token\":\"access-2\",\"refresh_token\":\"refresh-1\"}");
+        expectRefresh("refresh-1", "{\"access_token\":\"access-3\"}");
+
+        assertEquals("access-2", client.refreshSession(sessionId, INSTANCE_ID, OAUTH_ENDPOINT, dashboardClient).getAccessToken());
+        assertEquals("access-3", client.refreshSession(sessionId, INSTANCE_ID, OAUTH_ENDPOINT, dashboardClient).getAccessToken());
+        uaa.verify();
+    }
+
+    @Test
+    public void sessionContinuesWithARotatedRefreshToken() {
+        String sessionId = client.createSession(INSTANCE_ID, token("access-1", "refresh-1"));
+        expectRefresh("refresh-1", "{\"access_token\":\"access-2\",\"refresh_token\":\"refresh-2\"}");
+        expectRefresh("refresh-2", "{\"access_token\":\"access-3\",\"refresh_token\":\"refresh-3\"}");
+
+        client.refreshSession(sessionId, INSTANCE_ID, OAUTH_ENDPOINT, dashboardClient);
+        assertEquals("access-3", client.refreshSession(sessionId, INSTANCE_ID, OAUTH_ENDPOINT, dashboardClient).getAccessToken());
+        uaa.verify();
+    }
+
+    @Test
+    public void rejectedRefreshTokenEndsTheSession() {
+        String sessionId = client.createSession(INSTANCE_ID, token("access-1", "refresh-1"));
+        uaa.expect(requestTo(OAUTH_ENDPOINT + "/token"))
+                .andRespond(withStatus(HttpStatus.UNAUTHORIZED)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body("{\"error\":\"invalid_token\"}"));
+
+        assertNull(client.refreshSession(sessionId, INSTANCE_ID, OAUTH_ENDPOINT, dashboardClient));
+        // The session is gone, so the UAA is not asked again
+        assertNull(client.refreshSession(sessionId, INSTANCE_ID, OAUTH_ENDPOINT, dashboardClient));
+        uaa.verify();
+    }
+
+    @Test
+    public void sessionIsOnlyValidForItsInstance() {
+        String sessionId = client.createSession(INSTANCE_ID, token("access-1", "refresh-1"));
+
+        assertNull(client.refreshSession(sessionId, "other-instance-id", OAUTH_ENDPOINT, dashboardClient));
+        assertNull(client.refreshSession("unknown", INSTANCE_ID, OAUTH_ENDPOINT, dashboardClient));
+        uaa.verify();
+    }
+
+    @Test
+    public void invalidatedSessionCanNotBeRefreshed() {
+        String sessionId = client.createSession(INSTANCE_ID, token("access-1", "refresh-1"));
+        assertNotNull(sessionId);
+
+        client.invalidateSession(sessionId);
+
+        assertNull(client.refreshSession(sessionId, INSTANCE_ID, OAUTH_ENDPOINT, dashboardClient));
+        uaa.verify();
+    }
+
+    @Test
+    public void noSessionIsCreatedIfSessionsAreDisabled() {
+        DashboardSessionConfiguration sessionConfiguration = new DashboardSessionConfiguration();
+        sessionConfiguration.setTtl(0);
+        DashboardOAuthClient disabled = new DashboardOAuthClient(outboundHttpClientFactory(new RestTemplate()), sessionConfiguration);
+
+        assertNull(disabled.createSession(INSTANCE_ID, token("access-1", "refresh-1")));
+    }
+
+    private void expectRefresh(String refreshToken, String response) {
+        uaa.expect(requestTo(OAUTH_ENDPOINT + "/token"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(content().string(containsString("grant_type=refresh_token")))
+                .andExpect(content().string(containsString("refresh_token=" + refreshToken)))
+                .andRespond(withSuccess(response, MediaType.APPLICATION_JSON));
+    }
+
+    private static OutboundHttpClientFactory outboundHttpClientFactory(RestTemplate restTemplate) {
+        OutboundHttpClientFactory outboundHttpClientFactory = mock(OutboundHttpClientFactory.class);
+        when(outboundHttpClientFactory.createRestTemplate("uaa")).thenReturn(restTemplate);
+        return outboundHttpClientFactory;
+    }
+
+    private static CompositeAccessToken token(String accessToken, String refreshToken) {
+        CompositeAccessToken token = new CompositeAccessToken();
+        token.setAccessToken(accessToken);
+        token.setRefreshToken(refreshToken);
+        return token;
+    }
+}
@@ -0,0 +1,134 @@
+package de.evoila.cf.config.security.uaa.provider;
+
+import de.evoila.cf.broker.util.ObjectMapperUtils;
+import de.evoila.cf.config.security.uaa.token.UaaRelyingPartyToken;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.MacSigner;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * A cached authentication is returned as the same instance, a verified token yields a new one.
+ */
+public class UaaRelyingPartyAuthenticationProviderTest {
+
+    private static final long MAX_TTL = TimeUnit.MINUTES.toMillis(5);
+
+    private final AtomicLong now = new AtomicLong(System.currentTimeMillis());
+
+    private UaaRelyingPartyAuthenticationProvider provider;
+
+    @Before
+    public void setUp() {
+        provider = new UaaRelyingPartyAuthenticationProvider();
+        provider.setClock(new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(now.get());
+            }
+        });
+        provider.enableAuthenticationCache(100, MAX_TTL);
+    }
+
+    @Test
+    public void verifiedTokenIsCached() {
+        String token = token(TimeUnit.HOURS.toSeconds(1));
+
+        Authentication first = provider.authenticate(new UaaRelyingPartyToken(token));
+        Authentication second = provider.authenticate(new UaaRelyingPartyToken(token));
+
+        assertEquals("admin", first.getName());
+        assertSame(first, second);
+    }
+
+    @Test
+    public void cachedTokenIsVerifiedAgainOnceItExpires() {
+        long expiresIn = 60;
+        String token = token(expiresIn);
+        Authentication first = provider.authenticate(new UaaRelyingPartyToken(token));
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(expiresIn) - 1000);
+        assertSame(first, provider.authenticate(new UaaRelyingPartyToken(token)));
+
+        // Only the cache clock moves, so the token itself still verifies
+        now.addAndGet(2000);
+        assertNotSame(first, provider.authenticate(new UaaRelyingPartyToken(token)));
+    }
+
+    @Test
+    public void cachedTokenIsVerifiedAgainAfterTheMaxTtl() {
+        String token = token(TimeUnit.HOURS.toSeconds(1));
+        Authentication first = provider.authenticate(new UaaRelyingPartyToken(token));
+
+        now.addAndGet(MAX_TTL - 1);
+        assertSame(first, provider.authenticate(new UaaRelyingPartyToken(token)));
+
+        now.addAndGet(2);
+        assertNotSame(first, provider.authenticate(new UaaRelyingPartyToken(token)));
+    }
+
+    @Test
+    public void zeroMaxTtlDisablesTheCache() {
+        provider.enableAuthenticationCache(100, 0);
+        String token = token(TimeUnit.HOURS.toSeconds(1));
+
+        Authentication first = provider.authenticate(new UaaRelyingPartyToken(token));
+
+        assertNotSame(first, provider.authenticate(new UaaRelyingPartyToken(token)));
+    }
+
+    @Test
+    public void failedVerificationIsNotCached() {
+        String expired = token(-60);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                provider.authenticate(new UaaRelyingPartyToken(expired));
+                fail("Expected the expired token to be rejected");
+            } catch (AuthenticationServiceException e) {
+                // expected
+            }
+        }
+    }
+
+    private static String token(long expiresInSeconds) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("user_name", "admin");
+        claims.put("scope", Arrays.asList("openid", "cloud_controller.read"));
+        claims.put("exp", (int) (System.currentTimeMillis() / 1000 + expiresInSeconds));
+
+        try {
+            return JwtHelper.encode(ObjectMapperUtils.getObjectMapper().writeValueAsString(claims),
+                    new MacSigner("a-shared-secret-of-sufficient-length")).getEncoded();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package de.evoila.cf.config.security.uaa.utils;
+
+import de.evoila.cf.broker.bean.UaaTokenVerificationConfiguration;
+import de.evoila.cf.broker.util.ObjectMapperUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.MacSigner;
+import org.springframework.security.jwt.crypto.sign.RsaSigner;
+import org.springframework.security.jwt.crypto.sign.Signer;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JwtVerifierRegistryTest {
+
+    private static final String ISSUER = "https://uaa.example.com/oauth/token";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private KeyPair firstKey;
+
+    private KeyPair secondKey;
+
+    private Path keySetPath;
+
+    private JwtVerifierRegistry registry;
+
+    @Before
+    public void setUp() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        firstKey = keyPairGenerator.generateKeyPair();
+        secondKey = keyPairGenerator.generateKeyPair();
+
+        keySetPath = folder.getRoot().toPath().resolve("token_keys.json");
+        writeKeySet(Collections.singletonMap("first", firstKey));
+
+        UaaTokenVerificationConfiguration configuration = new UaaTokenVerificationConfiguration();
+        configuration.setEnabled(true);
+        configuration.setKeySets(Collections.singletonMap(ISSUER, keySetPath.toString()));
+        configuration.setRefreshInterval(3600000);
+        registry = new JwtVerifierRegistry(configuration);
+    }
+
+    @After
+    public void tearDown() {
+        registry.shutdown();
+    }
+
+    @Test
+    public void validTokenIsAccepted() {
+        Map<String, Object> claims = UaaFilterUtils.verifiedToken(token(ISSUER, "first", rsaSigner(firstKey)), registry);
+
+        assertEquals("admin", claims.get("user_name"));
+    }
+
+    @Test
+    public void tokenSignedWithAnotherKeyIsRejected() {
+        assertRejected(token(ISSUER, "first", rsaSigner(secondKey)));
+    }
+
+    @Test
+    public void tokenOfAnUnknownIssuerIsRejected() {
+        assertRejected(token("https://other-uaa.example.com/oauth/token", "first", rsaSigner(firstKey)));
+    }
+
+    @Test
+    public void tokenWhichIsNotSignedWithRs256IsRejected() {
+        assertRejected(token(ISSUER, "first", new MacSigner("a-shared-secret-of-sufficient-length")));
+    }
+
+    @Test
+    public void unknownKeyIsLoadedOnceTheKeySetIsRotated() throws Exception {
+        String token = token(ISSUER, "second", rsaSigner(secondKey));
+        assertRejected(token);
+
+        Map<String, KeyPair> rotated = new LinkedHashMap<>();
+        rotated.put("first", firstKey);
+        rotated.put("second", secondKey);
+        writeKeySet(rotated);
+
+        assertEquals("admin", UaaFilterUtils.verifiedToken(token, registry).get("user_name"));
+    }
+
+    @Test
+    public void emptyKeySetsAreRejected() {
+        UaaTokenVerificationConfiguration configuration = new UaaTokenVerificationConfiguration();
+        configuration.setEnabled(true);
+
+        try {
+            new JwtVerifierRegistry(configuration);
+            fail("Expected a registry without key sets to be rejected");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("no key sets"));
+        }
+    }
+
+    private void writeKeySet(Map<String, KeyPair> keyPairs) throws Exception {
+        FileTime previous = Files.exists(keySetPath) ? Files.getLastModifiedTime(keySetPath) : null;
+
+        List<Map<String, String>> keys = new ArrayList<>();
+        for (Map.Entry<String, KeyPair> keyPair : keyPairs.entrySet()) {
+            RSAPublicKey publicKey = (RSAPublicKey) keyPair.getValue().getPublic();
+            Map<String, String> key = new HashMap<>();
+            key.put("kid", keyPair.getKey());
+            key.put("alg", JwtVerifierRegistry.RS256);
+            key.put("kty", "RSA");
+            key.put("n", base64Url(publicKey.getModulus()));
+            key.put("e", base64Url(publicKey.getPublicExponent()));
+            keys.add(key);
+        }
+        ObjectMapperUtils.getObjectMapper().writeValue(keySetPath.toFile(), Collections.singletonMap("keys", keys));
+
+        // The registry detects changes by the modification time, which may not have advanced yet
+        if (previous != null)
+            Files.setLastModifiedTime(keySetPath, FileTime.fromMillis(previous.toMillis() + 1000));
+    }
+
+    private static String token(String issuer, String keyId, Signer signer) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("iss", issuer);
+        claims.put("user_name", "admin");
+        claims.put("scope", Arrays.asList("openid", "cloud_controller.read"));
+        claims.put("exp", (int) (System.currentTimeMillis() / 1000) + 3600);
+
+        try {
+            return JwtHelper.encode(ObjectMapperUtils.getObjectMapper().writeValueAsString(claims), signer,
+                    Collections.singletonMap("kid", keyId)).getEncoded();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Signer rsaSigner(KeyPair keyPair) {
+        return new RsaSigner((RSAPrivateKey) keyPair.getPrivate());
+    }
+
+    private static String base64Url(BigInteger value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.toByteArray());
+    }
+
+    private void assertRejected(String token) {
+        try {
+            UaaFilterUtils.verifiedToken(token, registry);
+            fail("Expected the token to be rejected");
+        } catch (AuthenticationServiceException e) {
+            // expected
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package de.evoila.cf.broker.exception;
 
+import de.evoila.cf.broker.model.ParameterError;
+
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 public class InvalidParametersException extends Exception{
@@ -9,6 +13,8 @@ public class InvalidParametersException extends Exception{
 
     private String errorMessage;
 
+    private List<ParameterError> errors = Collections.emptyList();
+
     public InvalidParametersException(String errorMessage){
         this.errorMessage = errorMessage;
     }
@@ -17,6 +23,19 @@ public class InvalidParametersException extends Exception{
         this.parameters = parameters;
     }
 
+    public InvalidParametersException(String errorMessage, List<ParameterError> errors){
+        this.errorMessage = errorMessage;
+        this.errors = Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * @return All violations found in the parameters, empty if the validation stopped
+     * before single violations could be determined
+     */
+    public List<ParameterError> getErrors() {
+        return errors;
+    }
+
     @Override
     public String getMessage()
     {
@@ -27,4 +46,3 @@ public class InvalidParametersException extends Exception{
         }
     }
 }
-
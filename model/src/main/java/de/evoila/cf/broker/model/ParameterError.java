@@ -0,0 +1,38 @@
+package de.evoila.cf.broker.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A single violation found while validating request parameters. The pointer is a
+ * JSON pointer (RFC 6901) into the parameters object.
+ */
+public class ParameterError {
+
+	@JsonProperty("pointer")
+	private String pointer;
+
+	@JsonProperty("message")
+	private String message;
+
+	@SuppressWarnings("unused")
+	private ParameterError() {
+	}
+
+	public ParameterError(String pointer, String message) {
+		this.pointer = pointer;
+		this.message = message;
+	}
+
+	public String getPointer() {
+		return pointer;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		return (pointer.isEmpty() ? "/" : pointer) + ": " + message;
+	}
+}
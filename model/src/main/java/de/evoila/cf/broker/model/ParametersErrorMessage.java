@@ -0,0 +1,27 @@
+package de.evoila.cf.broker.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Error response for invalid request parameters, listing every violation at once.
+ */
+public class ParametersErrorMessage extends ErrorMessage {
+
+	@JsonProperty("errors")
+	private List<ParameterError> errors;
+
+	public ParametersErrorMessage(String message, List<ParameterError> errors) {
+		super(message);
+		this.errors = errors;
+	}
+
+	public List<ParameterError> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(List<ParameterError> errors) {
+		this.errors = errors;
+	}
+}
@@ -17,6 +17,10 @@ public class RouteBinding implements BaseEntity<String> {
 
 	private String routeServiceUrl;
 
+	@SuppressWarnings("unused")
+	private RouteBinding() {
+	}
+
 	public RouteBinding(String id, String serviceInstanceId, String route) {
 		this.id = id;
 		this.serviceInstanceId = serviceInstanceId;
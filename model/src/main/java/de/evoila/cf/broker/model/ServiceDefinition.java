@@ -40,6 +40,9 @@ public class ServiceDefinition {
 	@JsonProperty("plan_updateable") // misspelling of attribute kept, do not change it
 	private boolean updateable;
 
+	@JsonProperty("bindings_retrievable")
+	private boolean bindingsRetrievable;
+
 	public ServiceDefinition() {
 		super();
 	}
@@ -115,6 +118,14 @@ public class ServiceDefinition {
 		this.updateable = updatable;
 	}
 
+	public boolean isBindingsRetrievable() {
+		return bindingsRetrievable;
+	}
+
+	public void setBindingsRetrievable(boolean bindingsRetrievable) {
+		this.bindingsRetrievable = bindingsRetrievable;
+	}
+
 	public List<Plan> getPlans() {
 		return plans;
 	}
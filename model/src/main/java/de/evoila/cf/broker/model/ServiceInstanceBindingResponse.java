@@ -2,6 +2,7 @@ package de.evoila.cf.broker.model;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
@@ -27,6 +28,12 @@ public class ServiceInstanceBindingResponse {
 
 	private List<VolumeMount> volumeMounts;
 
+	@JsonIgnore
+	private boolean isAsync;
+
+	public ServiceInstanceBindingResponse() {
+	}
+
 	public ServiceInstanceBindingResponse(Map<String, Object> credentials, String syslogDrainUrl) {
 		this.credentials = credentials;
 		this.syslogDrainUrl = syslogDrainUrl;
@@ -86,4 +93,13 @@ public class ServiceInstanceBindingResponse {
     public void setVolumeMounts(List<VolumeMount> volumeMounts) {
         this.volumeMounts = volumeMounts;
     }
+
+	@JsonIgnore
+	public boolean isAsync() {
+		return isAsync;
+	}
+
+	public void setAsync(boolean isAsync) {
+		this.isAsync = isAsync;
+	}
 }
@@ -0,0 +1,30 @@
+package de.evoila.cf.broker.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A single service key of a batch creation request.
+ */
+public class ServiceKeyRequest {
+
+    @JsonProperty("parameters")
+    private Map<String, Object> parameters = new HashMap<>();
+
+    public ServiceKeyRequest() {
+    }
+
+    public ServiceKeyRequest(Map<String, Object> parameters) {
+        this.parameters = parameters;
+    }
+
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(Map<String, Object> parameters) {
+        this.parameters = parameters;
+    }
+}
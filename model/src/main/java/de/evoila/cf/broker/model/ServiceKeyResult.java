@@ -0,0 +1,64 @@
+package de.evoila.cf.broker.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Outcome of a single service key in a batch creation or deletion request. The state uses
+ * the values of {@link JobProgress}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ServiceKeyResult {
+
+    @JsonProperty("binding_id")
+    private String bindingId;
+
+    @JsonProperty("state")
+    private String state;
+
+    @JsonProperty("binding")
+    private ServiceInstanceBinding binding;
+
+    @JsonProperty("description")
+    private String description;
+
+    public ServiceKeyResult() {
+    }
+
+    private ServiceKeyResult(String bindingId, String state, ServiceInstanceBinding binding, String description) {
+        this.bindingId = bindingId;
+        this.state = state;
+        this.binding = binding;
+        this.description = description;
+    }
+
+    public static ServiceKeyResult succeeded(String bindingId, ServiceInstanceBinding binding) {
+        return new ServiceKeyResult(bindingId, JobProgress.SUCCESS, binding, null);
+    }
+
+    public static ServiceKeyResult failed(String bindingId, String description) {
+        return new ServiceKeyResult(bindingId, JobProgress.FAILED, null, description);
+    }
+
+    public String getBindingId() {
+        return bindingId;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public ServiceInstanceBinding getBinding() {
+        return binding;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @JsonIgnore
+    public boolean isSucceeded() {
+        return JobProgress.SUCCESS.equals(state);
+    }
+}